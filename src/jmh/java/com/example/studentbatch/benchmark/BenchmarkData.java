@@ -0,0 +1,55 @@
+package com.example.studentbatch.benchmark;
+
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.reader.MappedStudentResultReader;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures: synthetic uploads and the records parsed from them.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Path uploadFile(int rows, double dirtyRatio) throws IOException {
+        Path file = Files.createTempFile("studentbatch-benchmark", ".csv");
+        return SyntheticCsvGenerator.generate(file, rows, dirtyRatio, 42L);
+    }
+
+    /** Parses {@code rows} records, dropping lines the reader rejects, as the skip policy would. */
+    static StudentResult[] records(int rows, double dirtyRatio) throws IOException {
+        Path file = uploadFile(rows, dirtyRatio);
+        try {
+            MappedStudentResultReader reader = new MappedStudentResultReader("benchmark", file, 0, -1, true);
+            reader.open(new ExecutionContext());
+            List<StudentResult> results = new ArrayList<>(rows);
+            while (true) {
+                try {
+                    StudentResult result = reader.read();
+                    if (result == null) {
+                        break;
+                    }
+                    results.add(result);
+                } catch (RuntimeException skipped) {
+                    // dirty line, skipped in read
+                }
+            }
+            reader.close();
+            return results.toArray(new StudentResult[0]);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Fresh copies, because the processor mutates the records it grades. */
+    static StudentResult copy(StudentResult source) {
+        return new StudentResult(source.getStudentId(), source.getCourseName(), source.getScore(), null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.studentbatch.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Embedded PostgreSQL with the application's tables, for the write-path benchmarks.
+ * Batched inserts are rewritten into multi-row statements, as in the application.
+ */
+final class BenchmarkDatabase {
+
+    final DataSource dataSource;
+    final JdbcTemplate jdbcTemplate;
+    final TransactionTemplate transactionTemplate;
+
+    private final EmbeddedPostgres postgres;
+
+    BenchmarkDatabase() {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.dataSource = postgres.getDatabase("postgres", "postgres", Map.of("reWriteBatchedInserts", "true"));
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    }
+
+    void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE student_results, student_aggregates");
+    }
+
+    void shutdown() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
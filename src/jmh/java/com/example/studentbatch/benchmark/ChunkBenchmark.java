@@ -0,0 +1,123 @@
+package com.example.studentbatch.benchmark;
+
+import com.example.studentbatch.dictionary.StudentCourseDictionary;
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.processor.StudentResultItemProcessor;
+import com.example.studentbatch.reader.MappedStudentResultReader;
+import com.example.studentbatch.writer.StudentResultJdbcBatchWriter;
+import com.example.studentbatch.writer.StudentResultKeyResolvingWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end chunk: read {@value #CHUNK_SIZE} lines, validate and grade them, and
+ * write the survivors in one transaction against PostgreSQL. Operations are input
+ * lines, so the score is lines/sec through the whole pipeline. Once the reader has
+ * wrapped around the file the rows already exist, so later passes measure an
+ * unchanged re-import.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkBenchmark {
+
+    static final int CHUNK_SIZE = 1000;
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"0.0", "0.05"})
+    private double dirtyRatio;
+
+    private Path file;
+    private BenchmarkDatabase database;
+    private MappedStudentResultReader reader;
+    private StudentResultItemProcessor processor;
+    private StudentResultKeyResolvingWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.uploadFile(rows, dirtyRatio);
+        database = new BenchmarkDatabase();
+        processor = new StudentResultItemProcessor();
+        // Results are written by key, as in the step
+        StudentCourseDictionary dictionary = new StudentCourseDictionary(database.jdbcTemplate, new SimpleMeterRegistry(),
+            200_000, 10_000);
+        writer = new StudentResultKeyResolvingWriter(dictionary, new StudentResultJdbcBatchWriter(database.jdbcTemplate));
+    }
+
+    @Setup(Level.Iteration)
+    public void openReader() {
+        database.truncate();
+        reader = new MappedStudentResultReader("studentResultItemReader", file, 0, -1, true);
+        reader.open(new ExecutionContext());
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeReader() {
+        reader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void chunk() throws Exception {
+        Chunk<StudentResult> output = new Chunk<>();
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            StudentResult item;
+            try {
+                item = reader.read();
+            } catch (RuntimeException skipped) {
+                continue;
+            }
+            if (item == null) {
+                reader.close();
+                reader.open(new ExecutionContext());
+                continue;
+            }
+            StudentResult processed = processor.process(item);
+            if (processed != null) {
+                output.add(processed);
+            }
+        }
+        write(output);
+    }
+
+    private void write(Chunk<StudentResult> items) {
+        database.transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write(items);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
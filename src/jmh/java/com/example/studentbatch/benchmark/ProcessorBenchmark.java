@@ -0,0 +1,77 @@
+package com.example.studentbatch.benchmark;
+
+import com.example.studentbatch.grading.GradeScheme;
+import com.example.studentbatch.grading.GradeSchemes;
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.processor.StudentResultItemProcessor;
+import com.example.studentbatch.util.ValidationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records/sec through {@link ValidationUtils#isValidStudentResult} alone and through
+ * the whole {@link StudentResultItemProcessor#process}, cycling over records parsed
+ * from a synthetic upload. {@code courseSchemes} grades every course with a scheme of
+ * its own instead of the institution scheme alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessorBenchmark {
+
+    @Param({"0.0", "0.05"})
+    private double dirtyRatio;
+
+    @Param({"false", "true"})
+    private boolean courseSchemes;
+
+    private StudentResult[] records;
+    private StudentResultItemProcessor processor;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        records = BenchmarkData.records(100_000, dirtyRatio);
+        Map<String, GradeScheme> schemes = new HashMap<>();
+        if (courseSchemes) {
+            for (String course : SyntheticCsvGenerator.COURSES) {
+                schemes.put(course, GradeScheme.parse("A:85,B:75,C:65,D:55,F:0"));
+            }
+        }
+        processor = new StudentResultItemProcessor(new GradeSchemes(GradeScheme.STANDARD, schemes));
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return ValidationUtils.isValidStudentResult(nextRecord());
+    }
+
+    @Benchmark
+    public Object process() throws Exception {
+        return processor.process(BenchmarkData.copy(nextRecord()));
+    }
+
+    private StudentResult nextRecord() {
+        StudentResult record = records[next];
+        next = next + 1 == records.length ? 0 : next + 1;
+        return record;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.studentbatch.benchmark;
+
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.reader.MappedStudentResultReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records/sec for the mapped reader and for the {@code FlatFileItemReader}
+ * configuration {@code BatchConfig.reader} used before it. One operation is one
+ * {@code read()}; at end of file the reader is reopened, and dirty lines count as an
+ * operation that ends in a skip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    @Param({"0.0", "0.05"})
+    private double dirtyRatio;
+
+    private Path file;
+    private ItemStreamReader<StudentResult> flatFileReader;
+    private ItemStreamReader<StudentResult> mappedReader;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = BenchmarkData.uploadFile(rows, dirtyRatio);
+    }
+
+    @Setup(Level.Iteration)
+    public void openReaders() {
+        flatFileReader = newFlatFileReader();
+        flatFileReader.open(new ExecutionContext());
+        mappedReader = new MappedStudentResultReader("studentResultItemReader", file, 0, -1, true);
+        mappedReader.open(new ExecutionContext());
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeReaders() {
+        flatFileReader.close();
+        mappedReader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object flatFileItemReader() throws Exception {
+        return readOne(flatFileReader);
+    }
+
+    @Benchmark
+    public Object mappedStudentResultReader() throws Exception {
+        return readOne(mappedReader);
+    }
+
+    private static Object readOne(ItemStreamReader<StudentResult> reader) throws Exception {
+        try {
+            StudentResult result = reader.read();
+            if (result == null) {
+                reader.close();
+                reader.open(new ExecutionContext());
+            }
+            return result;
+        } catch (RuntimeException skipped) {
+            return skipped;
+        }
+    }
+
+    private FlatFileItemReader<StudentResult> newFlatFileReader() {
+        return new FlatFileItemReaderBuilder<StudentResult>()
+            .name("studentResultItemReader")
+            .resource(new FileSystemResource(file))
+            .delimited()
+            .delimiter(",")
+            .names(new String[]{"studentId", "courseName", "score"})
+            .linesToSkip(1)
+            .strict(true)
+            .fieldSetMapper(new BeanWrapperFieldSetMapper<StudentResult>() {{
+                setTargetType(StudentResult.class);
+                setStrict(false);
+            }})
+            .saveState(false)
+            .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.studentbatch.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Writes {@code studentId,courseName,score} uploads of any size, with a configurable
+ * share of dirty rows of the kinds real uploads contain. Output is deterministic for a
+ * given seed, so runs are comparable.
+ * <p>
+ * Standalone use: {@code SyntheticCsvGenerator <file> <rows> [dirtyRatio] [seed]}.
+ */
+public final class SyntheticCsvGenerator {
+
+    public static final String HEADER = "studentId,courseName,score";
+
+    static final String[] COURSES = {
+        "Mathematics", "Biology", "Physics", "Chemistry", "History", "Geography", "English", "French",
+        "Computer Science", "Economics", "Art", "Music", "Philosophy", "Statistics", "Literature", "Geology"
+    };
+
+    private SyntheticCsvGenerator() {
+    }
+
+    public static Path generate(Path file, int rows, double dirtyRatio, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int students = Math.max(1, rows / 8);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (int i = 0; i < rows; i++) {
+                String studentId = String.format("S%07d", random.nextInt(students));
+                String course = COURSES[random.nextInt(COURSES.length)];
+                if (random.nextDouble() < dirtyRatio) {
+                    out.write(dirtyRow(random, studentId, course));
+                } else {
+                    out.write(studentId + "," + course + "," + random.nextInt(101));
+                }
+                out.write('\n');
+            }
+        }
+        return file;
+    }
+
+    private static String dirtyRow(SplittableRandom random, String studentId, String course) {
+        return switch (random.nextInt(6)) {
+            case 0 -> studentId + "," + course;                          // missing field
+            case 1 -> studentId + "," + course + ",abc";                 // non-numeric score
+            case 2 -> studentId + "," + course + "," + (101 + random.nextInt(100)); // out of range
+            case 3 -> " ," + course + "," + random.nextInt(101);         // blank student id
+            case 4 -> studentId + "," + course + ",";                    // blank score
+            default -> "";                                               // empty line
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticCsvGenerator <file> <rows> [dirtyRatio] [seed]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        double dirtyRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        generate(file, rows, dirtyRatio, seed);
+        System.out.printf("Wrote %d rows (%.1f%% dirty) to %s (%d bytes)%n",
+            rows, dirtyRatio * 100, file.toAbsolutePath(), Files.size(file));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.studentbatch.benchmark;
+
+import com.example.studentbatch.dictionary.StudentCourseDictionary;
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.writer.StudentResultJdbcBatchWriter;
+import com.example.studentbatch.writer.StudentResultKeyResolvingWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows/sec for the JDBC batch writer, one chunk of {@value #CHUNK_SIZE} rows per
+ * invocation against PostgreSQL, inside a transaction as in the step. The writer
+ * upserts, so the chunk is written both as new rows and as a re-import of rows that
+ * are already there unchanged. Keys are resolved through the dictionary as in the
+ * step, so new rows also add their students.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriterBenchmark {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private BenchmarkDatabase database;
+    private StudentResultKeyResolvingWriter jdbcWriter;
+    private Chunk<StudentResult> chunk;
+    private String[] studentIds;
+    private long invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = new BenchmarkDatabase();
+        // Results are written by key, as in the step
+        StudentCourseDictionary dictionary = new StudentCourseDictionary(database.jdbcTemplate, new SimpleMeterRegistry(),
+            200_000, 10_000);
+        jdbcWriter = new StudentResultKeyResolvingWriter(dictionary, new StudentResultJdbcBatchWriter(database.jdbcTemplate));
+        StudentResult[] records = BenchmarkData.records(CHUNK_SIZE, 0.0);
+        for (StudentResult record : records) {
+            record.setGrade("B");
+        }
+        chunk = new Chunk<>(Arrays.asList(records));
+        studentIds = Arrays.stream(records).map(StudentResult::getStudentId).toArray(String[]::new);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        database.truncate();
+        restoreStudentIds();
+        write(chunk);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void jdbcBatchWriterInsert() {
+        // New student IDs each time, so that every row is inserted
+        String prefix = ++invocation + "-";
+        int i = 0;
+        for (StudentResult record : chunk) {
+            record.setStudentId(prefix + studentIds[i++]);
+        }
+        write(chunk);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public void jdbcBatchWriterUnchanged() {
+        write(chunk);
+    }
+
+    private void restoreStudentIds() {
+        int i = 0;
+        for (StudentResult record : chunk) {
+            record.setStudentId(studentIds[i++]);
+        }
+    }
+
+    private void write(Chunk<StudentResult> items) {
+        database.transactionTemplate.executeWithoutResult(status -> {
+            try {
+                jdbcWriter.write(items);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
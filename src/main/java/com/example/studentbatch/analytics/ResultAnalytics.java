@@ -0,0 +1,101 @@
+package com.example.studentbatch.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the {@link ResultSnapshot} that the analytics endpoints query. A completed
+ * import asks for a refresh; requests arriving while one is running are merged into a
+ * single follow-up refresh. The snapshot is also rebuilt every
+ * {@code analytics.refresh-interval}, which loads it at startup and picks up imports
+ * run by other nodes. Rebuilds always run on their own virtual thread, never on the
+ * shared scheduler thread.
+ * <p>
+ * Queries keep using the previous snapshot while a new one is built.
+ */
+@Component
+public class ResultAnalytics implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultAnalytics.class);
+
+    static final String LOAD_SQL = """
+        SELECT s.student_id, c.course_name, r.score, r.grade
+        FROM student_results r
+        JOIN students s ON s.id = r.student_key
+        JOIN courses c ON c.id = r.course_key
+        WHERE r.score BETWEEN 0 AND 100
+        ORDER BY c.course_name""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile ResultSnapshot snapshot = ResultSnapshot.empty();
+
+    public ResultAnalytics(DataSource dataSource, PlatformTransactionManager transactionManager,
+                           @Value("${analytics.load.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // PostgreSQL only streams with a cursor inside a transaction; otherwise it buffers the whole table
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ResultSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
+            requestRefresh();
+        }
+    }
+
+    /** Rebuilds the snapshot in the background, unless a rebuild is already waiting to start. */
+    public void requestRefresh() {
+        if (refreshRequested.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("analytics-refresh").start(this::refresh);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${analytics.refresh-interval:PT15M}")
+    public void scheduledRefresh() {
+        requestRefresh();
+    }
+
+    void refresh() {
+        refreshLock.lock();
+        try {
+            // Cleared once this refresh holds the lock, so later requests queue one more
+            refreshRequested.set(false);
+            long started = System.nanoTime();
+            ResultSnapshot.Builder builder = new ResultSnapshot.Builder();
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, resultSet -> {
+                builder.add(resultSet.getString(1), resultSet.getString(2), resultSet.getInt(3), resultSet.getString(4));
+            }));
+            ResultSnapshot built = builder.build();
+            snapshot = built;
+            log.info("Analytics snapshot rebuilt: {} results, {} students, {} courses, {} KiB of columns in {} ms",
+                built.getResultCount(), built.getStudentCount(), built.getCourseCount(), built.getColumnBytes() / 1024,
+                (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the analytics snapshot, keeping the current one: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.studentbatch.analytics;
+
+import com.example.studentbatch.dto.CourseStandingDto;
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import com.example.studentbatch.grading.GradeScheme;
+import com.example.studentbatch.statistics.CourseSketch;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, column-wise copy of {@code student_results} for aggregate queries.
+ * Student IDs and course names are dictionary encoded; each result is an int student
+ * code, a byte score and a byte grade code, six bytes in all. Results are grouped by
+ * course, so a course's results are one contiguous range of the columns, which is
+ * counted into a {@link CourseSketch} per query.
+ */
+public final class ResultSnapshot {
+
+    private static final byte NO_GRADE = -1;
+
+    private final String[] courseNames;
+    private final Map<String, Integer> courseCodes;
+    /** Results of course {@code c} are rows {@code courseStart[c]} to {@code courseStart[c + 1] - 1}. */
+    private final int[] courseStart;
+    private final String[] studentIds;
+    private final Map<String, Integer> studentCodes;
+    private final int[] students;
+    private final byte[] scores;
+    private final byte[] grades;
+    private final Instant builtAt;
+
+    private ResultSnapshot(Builder builder, Instant builtAt) {
+        this.courseNames = builder.courseNames.toArray(String[]::new);
+        this.courseCodes = builder.courseCodes;
+        this.courseStart = Arrays.copyOf(builder.courseStart, courseNames.length + 1);
+        this.courseStart[courseNames.length] = builder.size;
+        this.studentIds = builder.studentIds.toArray(String[]::new);
+        this.studentCodes = builder.studentCodes;
+        this.students = Arrays.copyOf(builder.students, builder.size);
+        this.scores = Arrays.copyOf(builder.scores, builder.size);
+        this.grades = Arrays.copyOf(builder.grades, builder.size);
+        this.builtAt = builtAt;
+    }
+
+    public static ResultSnapshot empty() {
+        return new Builder().build();
+    }
+
+    public int getResultCount() {
+        return scores.length;
+    }
+
+    public int getStudentCount() {
+        return studentIds.length;
+    }
+
+    public int getCourseCount() {
+        return courseNames.length;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    /** Approximate heap taken by the columns, not counting the dictionaries' strings. */
+    public long getColumnBytes() {
+        return (long) scores.length * (Integer.BYTES + 2) + (long) courseStart.length * Integer.BYTES;
+    }
+
+    /** Counts, averages and grade distributions of every course, in course name order. */
+    public List<CourseStatisticsDto> courseSummaries() {
+        List<CourseStatisticsDto> summaries = new ArrayList<>(courseNames.length);
+        for (int course = 0; course < courseNames.length; course++) {
+            summaries.add(statistics(course, null));
+        }
+        return summaries;
+    }
+
+    /**
+     * Statistics of one course including its score histogram and the given percentiles,
+     * or null if no results are stored for it.
+     */
+    public CourseStatisticsDto courseStatistics(String courseName, int[] percentiles) {
+        Integer course = courseCodes.get(courseName);
+        return course == null ? null : statistics(course, percentiles);
+    }
+
+    /** Where a student's result stands in a course, or null if there is no such result. */
+    public CourseStandingDto standing(String courseName, String studentId) {
+        Integer course = courseCodes.get(courseName);
+        Integer student = studentCodes.get(studentId);
+        if (course == null || student == null) {
+            return null;
+        }
+        int from = courseStart[course];
+        int to = courseStart[course + 1];
+        int row = -1;
+        for (int i = from; i < to; i++) {
+            if (students[i] == student) {
+                row = i;
+                break;
+            }
+        }
+        if (row < 0) {
+            return null;
+        }
+        int score = scores[row];
+        long higher = 0;
+        long lower = 0;
+        for (int i = from; i < to; i++) {
+            higher += scores[i] > score ? 1 : 0;
+            lower += scores[i] < score ? 1 : 0;
+        }
+        long count = to - from;
+        return new CourseStandingDto(studentId, courseName, score, gradeLabel(grades[row]),
+            higher + 1, count, lower * 100.0 / count);
+    }
+
+    private CourseStatisticsDto statistics(int course, int[] percentiles) {
+        CourseSketch sketch = new CourseSketch();
+        for (int i = courseStart[course]; i < courseStart[course + 1]; i++) {
+            sketch.add(scores[i], grades[i]);
+        }
+        return sketch.toStatistics(courseNames[course], percentiles);
+    }
+
+    private static String gradeLabel(byte grade) {
+        return grade == NO_GRADE ? null : GradeScheme.GRADES.get(grade);
+    }
+
+    /**
+     * Collects results course by course: all results of a course have to be added
+     * before those of the next one.
+     */
+    static final class Builder {
+
+        private final List<String> courseNames = new ArrayList<>();
+        private final Map<String, Integer> courseCodes = new HashMap<>();
+        private int[] courseStart = new int[16];
+        private final List<String> studentIds = new ArrayList<>();
+        private final Map<String, Integer> studentCodes = new HashMap<>();
+        private int[] students = new int[1024];
+        private byte[] scores = new byte[1024];
+        private byte[] grades = new byte[1024];
+        private int size;
+        private String currentCourse;
+
+        Builder add(String studentId, String courseName, int score, String grade) {
+            if (!courseName.equals(currentCourse)) {
+                if (courseCodes.containsKey(courseName)) {
+                    throw new IllegalStateException("Results of course '" + courseName + "' are not contiguous");
+                }
+                if (courseNames.size() == courseStart.length) {
+                    courseStart = Arrays.copyOf(courseStart, courseStart.length * 2);
+                }
+                courseStart[courseNames.size()] = size;
+                courseCodes.put(courseName, courseNames.size());
+                courseNames.add(courseName);
+                currentCourse = courseName;
+            }
+            if (size == scores.length) {
+                int capacity = scores.length * 2;
+                students = Arrays.copyOf(students, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                grades = Arrays.copyOf(grades, capacity);
+            }
+            Integer student = studentCodes.get(studentId);
+            if (student == null) {
+                student = studentIds.size();
+                studentCodes.put(studentId, student);
+                studentIds.add(studentId);
+            }
+            students[size] = student;
+            scores[size] = (byte) score;
+            grades[size] = (byte) GradeScheme.GRADES.indexOf(grade);
+            size++;
+            return this;
+        }
+
+        ResultSnapshot build() {
+            return new ResultSnapshot(this, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.studentbatch.cache;
+
+import com.example.studentbatch.dto.StudentOverallResultDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier read-through cache of {@link StudentOverallResultDto} per student.
+ * <ul>
+ *     <li>near: a bounded on-heap Caffeine cache with a short TTL, so hot students
+ *     are served without a network hop or JSON deserialization;</li>
+ *     <li>redis: shared by all nodes, entries expire after {@code cache.student-results.ttl}.</li>
+ * </ul>
+ * Imports evict the students they touch as each chunk commits, and once more
+ * {@code cache.student-results.evict-again-after} later. The evictions are
+ * published on {@link #INVALIDATION_CHANNEL} so every node drops its near copy too.
+ * Redis errors are logged and the read goes to the database, so an unavailable
+ * Redis only costs latency.
+ * <p>
+ * Redis keys are {@code studentbatch:results:g<generation>:<studentId>}. {@link #clear}
+ * bumps the generation, which empties the cache for every node at once without
+ * touching a single entry; the entries of older generations are unreachable from
+ * then on and are unlinked in the background by {@link StudentResultCacheCleaner},
+ * or expire.
+ */
+@Component
+public class StudentResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentResultCache.class);
+
+    static final String KEY_PREFIX = "studentbatch:results:";
+    static final String GENERATION_KEY = KEY_PREFIX + "generation";
+    public static final String INVALIDATION_CHANNEL = "studentbatch:results:invalidate";
+    public static final String CLEAR_CHANNEL = "studentbatch:results:clear";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration ttl;
+    private final Duration evictAgainAfter;
+    private final Cache<String, StudentOverallResultDto> nearCache;
+    /** Current key generation, or -1 until read from Redis. */
+    private final AtomicLong generation = new AtomicLong(-1);
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter errors;
+    private final Timer redisLatency;
+
+    public StudentResultCache(RedisTemplate<String, Object> redisTemplate,
+                              StringRedisTemplate stringRedisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${cache.student-results.ttl:PT10M}") Duration ttl,
+                              @Value("${cache.student-results.near.ttl:PT5S}") Duration nearTtl,
+                              @Value("${cache.student-results.near.max-weight:200000}") long nearMaxWeight,
+                              @Value("${cache.student-results.evict-again-after:PT2S}") Duration evictAgainAfter) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = ttl;
+        this.evictAgainAfter = evictAgainAfter;
+        // Weighed by course count, so a few students with long transcripts cannot crowd out the rest
+        this.nearCache = Caffeine.newBuilder()
+            .maximumWeight(nearMaxWeight)
+            .weigher((String studentId, StudentOverallResultDto dto) ->
+                1 + (dto.getCourseResults() != null ? dto.getCourseResults().size() : 0))
+            .expireAfterWrite(nearTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "studentResults.near");
+
+        this.nearHits = requests(meterRegistry, "near", "hit");
+        this.nearMisses = requests(meterRegistry, "near", "miss");
+        this.redisHits = requests(meterRegistry, "redis", "hit");
+        this.redisMisses = requests(meterRegistry, "redis", "miss");
+        this.errors = Counter.builder("studentbatch.cache.errors").tag("tier", "redis").register(meterRegistry);
+        this.redisLatency = Timer.builder("studentbatch.cache.latency").tag("tier", "redis")
+            .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("studentbatch.cache.requests").tag("tier", tier).tag("result", result).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached results for {@code studentId}, loading and caching them on a
+     * miss. Students without results are not cached.
+     */
+    public StudentOverallResultDto get(String studentId, Supplier<StudentOverallResultDto> loader) {
+        StudentOverallResultDto near = nearCache.getIfPresent(studentId);
+        if (near != null) {
+            nearHits.increment();
+            return near;
+        }
+        nearMisses.increment();
+
+        String key = key(generation(), studentId);
+        Object cached = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            cached = redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            errors.increment();
+            log.warn("Redis read failed for {}: {}", key, e.getMessage());
+        } finally {
+            sample.stop(redisLatency);
+        }
+
+        if (cached instanceof StudentOverallResultDto dto) {
+            redisHits.increment();
+            nearCache.put(studentId, dto);
+            return dto;
+        }
+
+        redisMisses.increment();
+        StudentOverallResultDto loaded = loader.get();
+        if (loaded != null) {
+            nearCache.put(studentId, loaded);
+            try {
+                redisTemplate.opsForValue().set(key, loaded, ttl);
+            } catch (Exception e) {
+                errors.increment();
+                log.warn("Redis write failed for {}: {}", key, e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Bulk form of {@link #get}: serves what it can from the near cache, fetches the
+     * rest from Redis in one {@code MGET}, and hands the remaining misses to
+     * {@code loader} in one call. Loaded entries are written back in one pipeline.
+     *
+     * @return the results by student ID, in the order of {@code studentIds}; students
+     * without results are left out
+     */
+    public Map<String, StudentOverallResultDto> getAll(Collection<String> studentIds,
+                                                       Function<List<String>, Map<String, StudentOverallResultDto>> loader) {
+        Map<String, StudentOverallResultDto> found = new HashMap<>(nearCache.getAllPresent(studentIds));
+        nearHits.increment(found.size());
+        List<String> missing = studentIds.stream().filter(studentId -> !found.containsKey(studentId)).toList();
+        nearMisses.increment(missing.size());
+
+        if (!missing.isEmpty()) {
+            List<Object> cached = null;
+            Timer.Sample sample = Timer.start();
+            try {
+                long current = generation();
+                cached = redisTemplate.opsForValue().multiGet(missing.stream().map(studentId -> key(current, studentId)).toList());
+            } catch (Exception e) {
+                errors.increment();
+                log.warn("Redis read failed for {} students: {}", missing.size(), e.getMessage());
+            } finally {
+                sample.stop(redisLatency);
+            }
+
+            List<String> misses = new ArrayList<>();
+            for (int i = 0; i < missing.size(); i++) {
+                if (cached != null && cached.get(i) instanceof StudentOverallResultDto dto) {
+                    found.put(missing.get(i), dto);
+                    nearCache.put(missing.get(i), dto);
+                } else {
+                    misses.add(missing.get(i));
+                }
+            }
+            redisHits.increment(missing.size() - misses.size());
+            redisMisses.increment(misses.size());
+
+            if (!misses.isEmpty()) {
+                Map<String, StudentOverallResultDto> loaded = loader.apply(misses);
+                found.putAll(loaded);
+                nearCache.putAll(loaded);
+                putAll(loaded);
+            }
+        }
+
+        Map<String, StudentOverallResultDto> ordered = new LinkedHashMap<>();
+        for (String studentId : studentIds) {
+            StudentOverallResultDto dto = found.get(studentId);
+            if (dto != null) {
+                ordered.put(studentId, dto);
+            }
+        }
+        return ordered;
+    }
+
+    private void putAll(Map<String, StudentOverallResultDto> loaded) {
+        if (loaded.isEmpty()) {
+            return;
+        }
+        long current = generation();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, Object> values = ((RedisOperations<String, Object>) operations).opsForValue();
+                    loaded.forEach((studentId, dto) -> values.set(key(current, studentId), dto, ttl));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            errors.increment();
+            log.warn("Redis write failed for {} students: {}", loaded.size(), e.getMessage());
+        }
+    }
+
+    public void evict(Collection<String> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        nearCache.invalidateAll(studentIds);
+        long current = generation();
+        List<String> keys = studentIds.stream().map(studentId -> key(current, studentId)).toList();
+        try {
+            redisTemplate.delete(keys);
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join("\n", studentIds));
+        } catch (Exception e) {
+            errors.increment();
+            log.warn("Redis eviction of {} students failed, entries expire within {}: {}", keys.size(), ttl, e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts once the current transaction commits, or immediately outside a transaction,
+     * and again {@code evict-again-after} later. A read that loaded the old results
+     * before the commit can still write them back after the first eviction; the second
+     * one drops them, unless the read took longer than the delay, in which case the old
+     * results are served until they expire.
+     */
+    public void evictAfterCommit(Collection<String> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictTwice(studentIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictTwice(studentIds);
+            }
+        });
+    }
+
+    private void evictTwice(Collection<String> studentIds) {
+        evict(studentIds);
+        if (!evictAgainAfter.isZero()) {
+            CompletableFuture.runAsync(() -> evict(studentIds),
+                CompletableFuture.delayedExecutor(evictAgainAfter.toMillis(), TimeUnit.MILLISECONDS, Thread.ofVirtual()::start));
+        }
+    }
+
+    /**
+     * Empties the cache on every node by moving to the next key generation. Costs one
+     * {@code INCR} however many entries are cached. Throws if Redis is unavailable; the
+     * near cache of this node is cleared either way.
+     *
+     * @return the new generation
+     */
+    public long clear() {
+        nearCache.invalidateAll();
+        Long next = stringRedisTemplate.opsForValue().increment(GENERATION_KEY);
+        if (next == null) {
+            throw new IllegalStateException("Redis did not return the new cache generation");
+        }
+        generation.accumulateAndGet(next, Math::max);
+        // Reads still on the old generation may have refilled the near cache meanwhile
+        nearCache.invalidateAll();
+        stringRedisTemplate.convertAndSend(CLEAR_CHANNEL, Long.toString(next));
+        return next;
+    }
+
+    /**
+     * The key generation in use, read from Redis the first time. Falls back to 0
+     * without remembering it while Redis is unavailable, when no key can be read anyway.
+     */
+    public long generation() {
+        long current = generation.get();
+        if (current >= 0) {
+            return current;
+        }
+        try {
+            String stored = stringRedisTemplate.opsForValue().get(GENERATION_KEY);
+            return generation.accumulateAndGet(stored != null ? Long.parseLong(stored) : 0, Math::max);
+        } catch (Exception e) {
+            errors.increment();
+            log.warn("Redis read failed for {}: {}", GENERATION_KEY, e.getMessage());
+            return 0;
+        }
+    }
+
+    /** Drops near-cache entries evicted by another node; see {@link StudentResultInvalidationListener}. */
+    void invalidateNear(Collection<String> studentIds) {
+        nearCache.invalidateAll(studentIds);
+    }
+
+    /** Moves to a generation another node cleared the cache to. */
+    void cleared(long newGeneration) {
+        generation.accumulateAndGet(newGeneration, Math::max);
+        nearCache.invalidateAll();
+    }
+
+    /** Forgets the generation, so the next access reads it again; for when clears may have been missed. */
+    void resetGeneration() {
+        generation.set(-1);
+    }
+
+    static String key(long generation, String studentId) {
+        return KEY_PREFIX + "g" + generation + ":" + studentId;
+    }
+
+    /**
+     * Whether {@code key} is a cache entry of a generation before {@code current}. Keys
+     * from before generations were introduced have none and are always stale.
+     */
+    static boolean isStale(String key, long current) {
+        if (!key.startsWith(KEY_PREFIX) || key.equals(GENERATION_KEY)) {
+            return false;
+        }
+        int start = KEY_PREFIX.length();
+        int separator = key.indexOf(':', start);
+        if (key.startsWith("g", start) && separator > start + 1) {
+            try {
+                return Long.parseLong(key, start + 1, separator, 10) < current;
+            } catch (NumberFormatException e) {
+                return true;
+            }
+        }
+        return true;
+    }
+}
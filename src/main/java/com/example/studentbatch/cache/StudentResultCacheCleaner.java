@@ -0,0 +1,172 @@
+package com.example.studentbatch.cache;
+
+import com.example.studentbatch.dto.CacheClearStatusDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clears the student results cache and reclaims the Redis memory of the cleared
+ * entries. The clear itself is {@link StudentResultCache#clear}, a generation bump;
+ * the stale entries are then found with {@code SCAN} over this service's key prefix
+ * only, {@code batch-size} keys per call, and removed with {@code UNLINK}, which frees
+ * them off Redis's main thread. No command touches more than one batch of keys, so
+ * other clients never wait behind the cleanup.
+ * <p>
+ * The cleanup runs on a background thread of the node that was asked to clear, and
+ * {@link #status} reports its progress. A clear during a cleanup scans the keyspace
+ * once more when the current pass ends.
+ */
+@Component
+public class StudentResultCacheCleaner implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentResultCacheCleaner.class);
+
+    static final String STATE_RUNNING = "RUNNING";
+    static final String STATE_COMPLETED = "COMPLETED";
+    static final String STATE_FAILED = "FAILED";
+
+    private final StudentResultCache cache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final int batchSize;
+
+    private final AtomicLong keysScanned = new AtomicLong();
+    private final AtomicLong keysUnlinked = new AtomicLong();
+    private volatile long generation;
+    private volatile String state;
+    private volatile LocalDateTime startTime;
+    private volatile LocalDateTime endTime;
+    private volatile String error;
+    private boolean rescan;
+    private Thread cleanup;
+    private volatile boolean running;
+
+    public StudentResultCacheCleaner(StudentResultCache cache,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     @Value("${cache.student-results.cleanup.batch-size:1000}") int batchSize) {
+        this.cache = cache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Clears the cache for every node and starts unlinking the cleared entries.
+     * Throws if Redis is unavailable.
+     */
+    public synchronized CacheClearStatusDto clear() {
+        generation = cache.clear();
+        if (cleanup != null) {
+            rescan = true;
+        } else {
+            rescan = false;
+            keysScanned.set(0);
+            keysUnlinked.set(0);
+            state = STATE_RUNNING;
+            startTime = LocalDateTime.now();
+            endTime = null;
+            error = null;
+            cleanup = Thread.ofVirtual().name("student-results-cache-cleanup").start(this::unlinkStaleEntries);
+        }
+        return status();
+    }
+
+    /** Progress of the latest cleanup on this node, or {@code null} if there has been none. */
+    public CacheClearStatusDto status() {
+        if (state == null) {
+            return null;
+        }
+        return new CacheClearStatusDto(generation, state, keysScanned.get(), keysUnlinked.get(), startTime, endTime, error);
+    }
+
+    private void unlinkStaleEntries() {
+        do {
+            try {
+                scanOnce();
+            } catch (Exception e) {
+                failed(e);
+                return;
+            }
+        } while (!passCompleted());
+    }
+
+    // Under the lock, so that a clear either gets another pass or starts a new cleanup
+    private synchronized boolean passCompleted() {
+        if (rescan && !Thread.currentThread().isInterrupted()) {
+            rescan = false;
+            return false;
+        }
+        state = STATE_COMPLETED;
+        endTime = LocalDateTime.now();
+        cleanup = null;
+        log.info("Unlinked {} of {} scanned cache keys older than generation {}",
+            keysUnlinked.get(), keysScanned.get(), generation);
+        return true;
+    }
+
+    private synchronized void failed(Exception e) {
+        error = e.getMessage();
+        state = STATE_FAILED;
+        endTime = LocalDateTime.now();
+        cleanup = null;
+        log.warn("Cache cleanup stopped after unlinking {} keys; the rest expire within their TTL: {}",
+            keysUnlinked.get(), e.getMessage());
+    }
+
+    private void scanOnce() {
+        ScanOptions options = ScanOptions.scanOptions().match(StudentResultCache.KEY_PREFIX + "*").count(batchSize).build();
+        List<String> stale = new ArrayList<>(batchSize);
+        try (Cursor<String> keys = stringRedisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted");
+                }
+                String key = keys.next();
+                keysScanned.incrementAndGet();
+                if (StudentResultCache.isStale(key, cache.generation())) {
+                    stale.add(key);
+                    if (stale.size() >= batchSize) {
+                        unlink(stale);
+                    }
+                }
+            }
+        }
+        unlink(stale);
+    }
+
+    private void unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Long unlinked = stringRedisTemplate.unlink(keys);
+        keysUnlinked.addAndGet(unlinked != null ? unlinked : 0);
+        keys.clear();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (cleanup != null) {
+            cleanup.interrupt();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.studentbatch.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Receives the student IDs another node evicted and drops them from this node's
+ * near cache. Messages are newline-separated IDs published by
+ * {@link StudentResultCache#evict}. Also follows the cache generation that
+ * {@link StudentResultCache#clear} publishes on another node.
+ * <p>
+ * The subscription is opened in the background and retried until Redis is reachable,
+ * so the application starts without Redis; until then the near-cache TTL bounds
+ * how stale a node can be.
+ */
+@Component
+public class StudentResultInvalidationListener implements MessageListener, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentResultInvalidationListener.class);
+
+    private final StudentResultCache cache;
+    private final RedisMessageListenerContainer container;
+    private final Duration retryInterval;
+    private volatile Thread subscriber;
+
+    public StudentResultInvalidationListener(StudentResultCache cache,
+                                             RedisConnectionFactory connectionFactory,
+                                             @Value("${cache.student-results.invalidation.retry-interval:PT30S}") Duration retryInterval) {
+        this.cache = cache;
+        this.retryInterval = retryInterval;
+        this.container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, List.of(new ChannelTopic(StudentResultCache.INVALIDATION_CHANNEL),
+            new ChannelTopic(StudentResultCache.CLEAR_CHANNEL)));
+        container.afterPropertiesSet();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (StudentResultCache.CLEAR_CHANNEL.equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+            cache.cleared(Long.parseLong(payload));
+        } else if (!payload.isEmpty()) {
+            cache.invalidateNear(Arrays.asList(payload.split("\n")));
+        }
+    }
+
+    @Override
+    public void start() {
+        subscriber = Thread.ofVirtual().name("student-results-invalidation").start(this::subscribe);
+    }
+
+    private void subscribe() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                container.start();
+                // Clears published before the subscription were not heard
+                cache.resetGeneration();
+                log.info("Subscribed to {}", StudentResultCache.INVALIDATION_CHANNEL);
+                return;
+            } catch (Exception e) {
+                log.warn("Could not subscribe to {}, retrying in {}: {}",
+                    StudentResultCache.INVALIDATION_CHANNEL, retryInterval, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread current = subscriber;
+        if (current != null) {
+            current.interrupt();
+            subscriber = null;
+        }
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscriber != null;
+    }
+}
@@ -1,15 +1,49 @@
 package com.example.studentbatch.config;
 
+import com.example.studentbatch.analytics.ResultAnalytics;
+import com.example.studentbatch.cache.StudentResultCache;
+import com.example.studentbatch.delta.DeltaChangeCounter;
+import com.example.studentbatch.delta.DeltaDeleteTasklet;
+import com.example.studentbatch.delta.DeltaImportDecider;
+import com.example.studentbatch.dictionary.StudentCourseDictionary;
+import com.example.studentbatch.launch.BoundedJobExecutor;
 import com.example.studentbatch.listener.CustomSkipListener;
 import com.example.studentbatch.listener.JobCompletionNotificationListener;
+import com.example.studentbatch.metrics.ChunkMetricsListener;
+import com.example.studentbatch.metrics.ImportProgressBroadcaster;
+import com.example.studentbatch.metrics.JobProgressMetrics;
 import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.partition.ByteRangePartitioner;
+import com.example.studentbatch.partition.ImportModeDecider;
 import com.example.studentbatch.processor.StudentResultItemProcessor;
+import com.example.studentbatch.profile.FileProfileTasklet;
+import com.example.studentbatch.reader.MappedStudentResultReader;
+import com.example.studentbatch.rejects.RejectSink;
 import com.example.studentbatch.repository.StudentResultRepository;
 import com.example.studentbatch.service.BatchJobService;
+import com.example.studentbatch.statistics.CourseStatisticsCollector;
+import com.example.studentbatch.statistics.CourseStatisticsRecorder;
+import com.example.studentbatch.upload.StreamingUploadDecider;
+import com.example.studentbatch.upload.UploadSpoolRegistry;
+import com.example.studentbatch.writer.StudentAggregateUpsertWriter;
+import com.example.studentbatch.writer.StudentResultCacheEvictingWriter;
+import com.example.studentbatch.writer.StudentResultCopyWriter;
+import com.example.studentbatch.writer.StudentResultDeltaWriter;
+import com.example.studentbatch.writer.StudentResultJdbcBatchWriter;
+import com.example.studentbatch.writer.StudentResultKeyResolvingWriter;
+import com.example.studentbatch.writer.WriteMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -17,20 +51,21 @@ import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.data.RepositoryItemWriter;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.support.CompositeItemWriter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.io.File;
-import java.nio.file.Files;
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.util.List;
 
 @Configuration
@@ -41,30 +76,81 @@ public class BatchConfig {
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
     private final StudentResultRepository studentResultRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
     private final StudentResultItemProcessor processor;
     private final JobCompletionNotificationListener listener;
+    private final StudentResultCache studentResultCache;
+    private final UploadSpoolRegistry uploadSpools;
+    private final DeltaChangeCounter deltaChangeCounter;
+    private final ResultAnalytics resultAnalytics;
+    private final CourseStatisticsCollector courseStatisticsCollector;
+    private final CourseStatisticsRecorder courseStatisticsRecorder;
+    private final RejectSink rejectSink;
+    private final ChunkMetricsListener chunkMetricsListener;
+    private final JobProgressMetrics jobProgressMetrics;
+    private final ImportProgressBroadcaster importProgressBroadcaster;
+    private final StudentCourseDictionary studentCourseDictionary;
 
     @Value("${batch.chunk.size:100}")
     private int chunkSize;
 
+    @Value("${batch.partition.grid-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int partitionGridSize;
+
+    @Value("${batch.partition.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int partitionPoolSize;
+
+    @Value("${batch.partition.min-file-size:67108864}")
+    private long partitionMinFileSize;
+
+    @Value("${batch.partition.min-lines:100000}")
+    private long partitionMinLines;
+
     public BatchConfig(JobRepository jobRepository,
                        PlatformTransactionManager transactionManager,
                        StudentResultRepository studentResultRepository,
+                       JdbcTemplate jdbcTemplate,
+                       DataSource dataSource,
                        StudentResultItemProcessor processor,
-                       JobCompletionNotificationListener listener) {
+                       JobCompletionNotificationListener listener,
+                       StudentResultCache studentResultCache,
+                       UploadSpoolRegistry uploadSpools,
+                       DeltaChangeCounter deltaChangeCounter,
+                       ResultAnalytics resultAnalytics,
+                       CourseStatisticsCollector courseStatisticsCollector,
+                       CourseStatisticsRecorder courseStatisticsRecorder,
+                       RejectSink rejectSink,
+                       ChunkMetricsListener chunkMetricsListener,
+                       JobProgressMetrics jobProgressMetrics,
+                       ImportProgressBroadcaster importProgressBroadcaster,
+                       StudentCourseDictionary studentCourseDictionary) {
         this.jobRepository = jobRepository;
         this.transactionManager = transactionManager;
         this.studentResultRepository = studentResultRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
         this.processor = processor;
         this.listener = listener;
+        this.studentResultCache = studentResultCache;
+        this.uploadSpools = uploadSpools;
+        this.deltaChangeCounter = deltaChangeCounter;
+        this.resultAnalytics = resultAnalytics;
+        this.courseStatisticsCollector = courseStatisticsCollector;
+        this.courseStatisticsRecorder = courseStatisticsRecorder;
+        this.rejectSink = rejectSink;
+        this.chunkMetricsListener = chunkMetricsListener;
+        this.jobProgressMetrics = jobProgressMetrics;
+        this.importProgressBroadcaster = importProgressBroadcaster;
+        this.studentCourseDictionary = studentCourseDictionary;
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public JobLauncher jobLauncher() throws Exception {
+    public JobLauncher jobLauncher(BoundedJobExecutor importJobExecutor) throws Exception {
         TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
         jobLauncher.setJobRepository(jobRepository);
-        jobLauncher.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        jobLauncher.setTaskExecutor(importJobExecutor);
         jobLauncher.afterPropertiesSet();
         return jobLauncher;
     }
@@ -72,60 +158,106 @@ public class BatchConfig {
 
     @Bean
     @StepScope
-    public FlatFileItemReader<StudentResult> reader(@Value("#{jobParameters['filePath']}") String filePath) {
+    public MappedStudentResultReader reader(@Value("#{jobParameters['filePath']}") String filePath) {
         log.info("Reading file from path: {}", filePath);
+        // Follows the file while a streaming upload is still writing it
+        Path path = Path.of(filePath);
+        return new MappedStudentResultReader("studentResultItemReader", path, 0, -1, true, uploadSpools.find(path));
+    }
 
-        // Check if file exists and log its size
-        File file = new File(filePath);
-        if (file.exists()) {
-            log.info("File exists. Size: {} bytes", file.length());
-
-            // Try to read first few lines to debug
-            try {
-                List<String> lines = Files.readAllLines(file.toPath());
-                log.info("Total lines in file: {}", lines.size());
-
-                for (int i = 0; i < Math.min(5, lines.size()); i++) {
-                    log.info("Line {}: '{}'", i, lines.get(i));
-                }
-
-                // Check for empty lines
-                long emptyLines = lines.stream().filter(line -> line.trim().isEmpty()).count();
-                log.info("Empty lines in file: {}", emptyLines);
-
-            } catch (Exception e) {
-                log.error("Error reading file for debugging", e);
-            }
-        } else {
-            log.error("File does not exist: {}", filePath);
-        }
+    @Bean
+    @StepScope
+    public MappedStudentResultReader partitionReader(@Value("#{jobParameters['filePath']}") String filePath,
+                                                     @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+                                                     @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+                                                     @Value("#{stepExecutionContext['linesBefore']}") Long linesBefore) {
+        log.info("Reading byte range [{}, {}) of {}", startOffset, endOffset, filePath);
+        // Ranges never contain the header line, see ByteRangePartitioner. A range
+        // partitioned without linesBefore, by an older version, numbers lines from its start
+        return new MappedStudentResultReader("studentResultPartitionReader", Path.of(filePath), startOffset, endOffset,
+            linesBefore == null ? 0 : linesBefore);
+    }
+
+    @Bean
+    @StepScope
+    public FileProfileTasklet fileProfileTasklet(@Value("#{jobParameters['filePath']}") String filePath) {
+        return new FileProfileTasklet(Path.of(filePath));
+    }
 
-        return new FlatFileItemReaderBuilder<StudentResult>()
-            .name("studentResultItemReader")
-            .resource(new FileSystemResource(filePath))
-            .delimited()
-            .delimiter(",")
-            .names(new String[]{"studentId", "courseName", "score"})
-            .linesToSkip(1)
-            .strict(true)
-            .fieldSetMapper(new BeanWrapperFieldSetMapper<StudentResult>() {{
-                setTargetType(StudentResult.class);
-                setStrict(false);
-            }})
+    @Bean
+    public Step profileUploadStep(FileProfileTasklet fileProfileTasklet) {
+        return new StepBuilder("profileUploadStep", jobRepository)
+            .tasklet(fileProfileTasklet, transactionManager)
             .build();
     }
 
     @Bean
-    public RepositoryItemWriter<StudentResult> writer() {
+    @StepScope
+    public ByteRangePartitioner partitioner(@Value("#{jobParameters['filePath']}") String filePath,
+                                            @Value("#{jobExecutionContext['fileProfile.lineCount']}") Long lineCount) {
+        // Don't split small files into ranges that are too thin to be worth a thread
+        int maxPartitions = lineCount == null ? partitionGridSize
+            : (int) Math.max(1, Math.min(partitionGridSize, lineCount / partitionMinLines));
+        return new ByteRangePartitioner(Path.of(filePath), maxPartitions);
+    }
+
+    @Bean
+    public TaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(partitionPoolSize);
+        executor.setMaxPoolSize(partitionPoolSize);
+        executor.setThreadNamePrefix("import-partition-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    @StepScope
+    public ItemWriter<StudentResult> writer(@Value("#{jobParameters['writeMode']}") String writeMode,
+                                            @Value("#{stepExecution.jobExecution.jobId}") Long jobInstanceId) {
+        WriteMode mode = WriteMode.fromParameter(writeMode);
+        log.info("Using {} writer", mode);
+
+        // Aggregates are upserted in the chunk transaction; cache eviction is registered there and runs only once it commits
+        ItemWriter<StudentResult> writer = new CompositeItemWriter<>(
+            resultWriter(mode),
+            new StudentAggregateUpsertWriter(jdbcTemplate),
+            new StudentResultCacheEvictingWriter(studentResultCache));
+        if (mode == WriteMode.DELTA) {
+            // Only new and changed results reach the writers above
+            writer = new StudentResultDeltaWriter(jdbcTemplate, jobInstanceId, deltaChangeCounter, writer);
+        }
+        // Every writer stores results by student and course key
+        return new StudentResultKeyResolvingWriter(studentCourseDictionary, writer);
+    }
+
+    private ItemWriter<StudentResult> resultWriter(WriteMode mode) {
+        if (mode == WriteMode.JDBC || mode == WriteMode.DELTA) {
+            return new StudentResultJdbcBatchWriter(jdbcTemplate);
+        }
+        if (mode == WriteMode.COPY) {
+            return new StudentResultCopyWriter(dataSource);
+        }
+
         RepositoryItemWriter<StudentResult> writer = new RepositoryItemWriter<>();
         writer.setRepository(studentResultRepository);
-        writer.setMethodName("save");
+        writer.setMethodName("upsert");
         return writer;
     }
 
     @Bean
-    public Step importStudentResultsStep(FlatFileItemReader<StudentResult> reader, RepositoryItemWriter<StudentResult> writer, CustomSkipListener skipListener) {
-        return new StepBuilder("importStudentResultsStep", jobRepository)
+    public Step importStudentResultsStep(MappedStudentResultReader reader, ItemWriter<StudentResult> writer, CustomSkipListener skipListener) {
+        return importStep("importStudentResultsStep", reader, writer, skipListener);
+    }
+
+    @Bean
+    public Step importStudentResultsWorkerStep(MappedStudentResultReader partitionReader, ItemWriter<StudentResult> writer, CustomSkipListener skipListener) {
+        return importStep("importStudentResultsWorkerStep", partitionReader, writer, skipListener);
+    }
+
+    // The whole-file step and each partition step differ only in their reader
+    private Step importStep(String name, MappedStudentResultReader reader, ItemWriter<StudentResult> writer, CustomSkipListener skipListener) {
+        return new StepBuilder(name, jobRepository)
             .<StudentResult, StudentResult>chunk(chunkSize, transactionManager)
             .reader(reader)
             .processor(processor)
@@ -133,20 +265,97 @@ public class BatchConfig {
             .faultTolerant()
             .skipLimit(1000)
             .skip(Exception.class)
-            .listener(skipListener)
-            .listener(skipListener)
+            .noSkip(ItemStreamException.class)
+            .listener((SkipListener<StudentResult, StudentResult>) skipListener)
+            .listener((ItemProcessListener<StudentResult, StudentResult>) skipListener)
+            .listener(deltaChangeCounter)
+            .listener((StepExecutionListener) courseStatisticsCollector)
+            .listener((ItemWriteListener<StudentResult>) courseStatisticsCollector)
+            .listener((StepExecutionListener) chunkMetricsListener)
+            .listener((ChunkListener) chunkMetricsListener)
+            .listener((ItemReadListener<StudentResult>) chunkMetricsListener)
+            .listener((ItemProcessListener<StudentResult, StudentResult>) chunkMetricsListener)
+            .listener((ItemWriteListener<StudentResult>) chunkMetricsListener)
             .build();
     }
 
+    @Bean
+    public Step importStudentResultsPartitionedStep(ByteRangePartitioner partitioner, Step importStudentResultsWorkerStep, TaskExecutor partitionTaskExecutor) {
+        return new StepBuilder("importStudentResultsPartitionedStep", jobRepository)
+            .partitioner(importStudentResultsWorkerStep.getName(), partitioner)
+            .step(importStudentResultsWorkerStep)
+            .gridSize(partitionGridSize)
+            .taskExecutor(partitionTaskExecutor)
+            .build();
+    }
 
     @Bean
-    public Job importStudentResultsJob(Step importStudentResultsStep) {
-        return new JobBuilder("importStudentResultsJob", jobRepository)
-            .listener(listener)
-            .flow(importStudentResultsStep)
-            .end()
+    public Step deltaDeleteStep() {
+        return new StepBuilder("deltaDeleteStep", jobRepository)
+            .tasklet(new DeltaDeleteTasklet(jdbcTemplate, studentResultCache), transactionManager)
             .build();
     }
 
+    @Bean
+    public ImportModeDecider importModeDecider() {
+        return new ImportModeDecider(partitionMinFileSize);
+    }
+
+    @Bean
+    public StreamingUploadDecider streamingUploadDecider() {
+        return new StreamingUploadDecider();
+    }
+
+    @Bean
+    public DeltaImportDecider deltaImportDecider() {
+        return new DeltaImportDecider();
+    }
 
+    @Bean
+    public Job importStudentResultsJob(StreamingUploadDecider streamingUploadDecider,
+                                       Step profileUploadStep,
+                                       ImportModeDecider importModeDecider,
+                                       Step importStudentResultsStep,
+                                       Step importStudentResultsPartitionedStep,
+                                       DeltaImportDecider deltaImportDecider,
+                                       Step deltaDeleteStep) {
+        String completed = ExitStatus.COMPLETED.getExitCode();
+        JobBuilder builder = new JobBuilder("importStudentResultsJob", jobRepository);
+        jobListeners().forEach(builder::listener);
+        return builder
+            .start(streamingUploadDecider)
+                .on(StreamingUploadDecider.STREAMING).to(importStudentResultsStep)
+            .from(streamingUploadDecider)
+                .on("*").to(profileUploadStep)
+                .next(importModeDecider)
+                    .on(ImportModeDecider.PARTITIONED).to(importStudentResultsPartitionedStep)
+                .from(importModeDecider)
+                    .on("*").to(importStudentResultsStep)
+            .from(importStudentResultsStep)
+                .on(completed).to(deltaImportDecider)
+            .from(importStudentResultsStep)
+                .on("*").fail()
+            .from(importStudentResultsPartitionedStep)
+                .on(completed).to(deltaImportDecider)
+            .from(importStudentResultsPartitionedStep)
+                .on("*").fail()
+            .from(deltaImportDecider)
+                .on(DeltaImportDecider.DELTA).to(deltaDeleteStep)
+            .from(deltaImportDecider)
+                .on("*").end()
+            .end()
+            .build();
+    }
+
+    // afterJob runs in reverse order: the rejects are flushed before anything reports the job done
+    List<JobExecutionListener> jobListeners() {
+        return List.of(
+            studentCourseDictionary,
+            jobProgressMetrics,
+            importProgressBroadcaster,
+            listener,
+            courseStatisticsRecorder,
+            resultAnalytics,
+            rejectSink);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.example.studentbatch.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Gives {@code students} and {@code courses} the unique indexes on their natural IDs
+ * that the dictionary relies on, and {@code student_results} its foreign keys to them.
+ * As with {@link StudentResultKeyMigration}, none of these are declared on the entities.
+ * <p>
+ * A {@code student_results} table from before the dimensions still holds the student ID
+ * and course name of each row. Its IDs are copied into the dimensions, the keys filled
+ * in and the ID columns dropped, in one transaction; the indexes on the old columns go
+ * with them and are re-created on the keys, by this class and by
+ * {@link StudentResultKeyMigration}. Rows without a student ID or course name cannot
+ * be given keys, so they are deleted and counted in a warning. Runs after the schema
+ * update, which adds the key columns.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class StudentResultDictionaryMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentResultDictionaryMigration.class);
+
+    private static final String CREATE_STUDENTS_INDEX_SQL =
+        "CREATE UNIQUE INDEX IF NOT EXISTS uk_students_student_id ON students (student_id)";
+
+    private static final String CREATE_COURSES_INDEX_SQL =
+        "CREATE UNIQUE INDEX IF NOT EXISTS uk_courses_course_name ON courses (course_name)";
+
+    private static final String HAS_NATURAL_ID_COLUMNS_SQL = """
+        SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = 'student_results'
+                         AND column_name = 'student_id')""";
+
+    private static final String DELETE_ROWS_WITHOUT_IDS_SQL =
+        "DELETE FROM student_results WHERE student_id IS NULL OR course_name IS NULL";
+
+    private static final String FILL_STUDENTS_SQL = """
+        INSERT INTO students (student_id)
+        SELECT DISTINCT student_id FROM student_results ORDER BY student_id
+        ON CONFLICT (student_id) DO NOTHING""";
+
+    private static final String FILL_COURSES_SQL = """
+        INSERT INTO courses (course_name)
+        SELECT DISTINCT course_name FROM student_results ORDER BY course_name
+        ON CONFLICT (course_name) DO NOTHING""";
+
+    private static final String FILL_KEYS_SQL = """
+        UPDATE student_results r SET student_key = s.id, course_key = c.id
+        FROM students s, courses c
+        WHERE s.student_id = r.student_id AND c.course_name = r.course_name""";
+
+    private static final String DROP_NATURAL_ID_COLUMNS_SQL =
+        "ALTER TABLE student_results DROP COLUMN student_id, DROP COLUMN course_name";
+
+    private static final String CREATE_COURSE_SCORE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_student_results_course_score ON student_results (course_key, score, student_key)";
+
+    private static final String HAS_NULLABLE_KEYS_SQL = """
+        SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = 'student_results'
+                         AND column_name IN ('student_key', 'course_key') AND is_nullable = 'YES')""";
+
+    private static final String SET_KEYS_NOT_NULL_SQL =
+        "ALTER TABLE student_results ALTER COLUMN student_key SET NOT NULL, ALTER COLUMN course_key SET NOT NULL";
+
+    private static final String ADD_STUDENT_FOREIGN_KEY_SQL = """
+        ALTER TABLE student_results ADD CONSTRAINT fk_student_results_student
+        FOREIGN KEY (student_key) REFERENCES students (id)""";
+
+    private static final String ADD_COURSE_FOREIGN_KEY_SQL = """
+        ALTER TABLE student_results ADD CONSTRAINT fk_student_results_course
+        FOREIGN KEY (course_key) REFERENCES courses (id)""";
+
+    private final DataSource dataSource;
+
+    public StudentResultDictionaryMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STUDENTS_INDEX_SQL);
+            statement.execute(CREATE_COURSES_INDEX_SQL);
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (query(statement, HAS_NATURAL_ID_COLUMNS_SQL)) {
+                    statement.execute("LOCK TABLE student_results IN ACCESS EXCLUSIVE MODE");
+                    int incomplete = statement.executeUpdate(DELETE_ROWS_WITHOUT_IDS_SQL);
+                    int students = statement.executeUpdate(FILL_STUDENTS_SQL);
+                    int courses = statement.executeUpdate(FILL_COURSES_SQL);
+                    int rows = statement.executeUpdate(FILL_KEYS_SQL);
+                    if (incomplete > 0) {
+                        log.warn("Deleted {} student_results rows without a student ID or course name", incomplete);
+                        StudentResultKeyMigration.rebuildAggregates(statement);
+                    }
+                    statement.execute(DROP_NATURAL_ID_COLUMNS_SQL);
+                    log.info("Moved the IDs of {} student_results rows to {} students and {} courses", rows, students, courses);
+                }
+                statement.execute(CREATE_COURSE_SCORE_INDEX_SQL);
+                if (query(statement, HAS_NULLABLE_KEYS_SQL)) {
+                    statement.execute(SET_KEYS_NOT_NULL_SQL);
+                }
+                if (!constraintExists(statement, "fk_student_results_student")) {
+                    statement.execute(ADD_STUDENT_FOREIGN_KEY_SQL);
+                }
+                if (!constraintExists(statement, "fk_student_results_course")) {
+                    statement.execute(ADD_COURSE_FOREIGN_KEY_SQL);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static boolean constraintExists(Statement statement, String name) throws SQLException {
+        return query(statement, "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '" + name + "'"
+            + " AND conrelid = 'student_results'::regclass)");
+    }
+
+    private static boolean query(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.studentbatch.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Gives {@code student_results} its unique {@code (student_key, course_key)} index,
+ * which the upserting writers rely on. The index is not declared on the entity, as
+ * Hibernate's schema update drops and re-creates declared unique keys on every start.
+ * <p>
+ * A table created before the natural key holds a row per upload for re-imported
+ * results, so the newest row of each pair is kept and the rest deleted first, and the
+ * aggregates are rebuilt from what remains. Runs after the schema update and
+ * {@link StudentResultDictionaryMigration}, and does nothing once the index exists.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "studentResultDictionaryMigration"})
+public class StudentResultKeyMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentResultKeyMigration.class);
+
+    static final String INDEX_NAME = "uk_student_results_student_course";
+
+    private static final String DELETE_DUPLICATES_SQL = """
+        DELETE FROM student_results a USING student_results b
+        WHERE a.student_key = b.student_key AND a.course_key = b.course_key AND a.id < b.id""";
+
+    private static final String CREATE_INDEX_SQL =
+        "CREATE UNIQUE INDEX " + INDEX_NAME + " ON student_results (student_key, course_key)";
+
+    private static final String REBUILD_AGGREGATES_SQL = """
+        INSERT INTO student_aggregates (student_id, course_count, score_sum, average_score,
+                                        grade_a, grade_b, grade_c, grade_d, grade_f)
+        SELECT s.student_id, COUNT(*), SUM(r.score), CAST(AVG(r.score) AS DOUBLE PRECISION),
+               COUNT(*) FILTER (WHERE r.grade = 'A'), COUNT(*) FILTER (WHERE r.grade = 'B'),
+               COUNT(*) FILTER (WHERE r.grade = 'C'), COUNT(*) FILTER (WHERE r.grade = 'D'),
+               COUNT(*) FILTER (WHERE r.grade = 'F')
+        FROM student_results r JOIN students s ON s.id = r.student_key
+        GROUP BY s.student_id""";
+
+    private final DataSource dataSource;
+
+    public StudentResultKeyMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (exists(statement, INDEX_NAME)) {
+                return;
+            }
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                statement.execute("LOCK TABLE student_results IN EXCLUSIVE MODE");
+                int deleted = statement.executeUpdate(DELETE_DUPLICATES_SQL);
+                statement.execute(CREATE_INDEX_SQL);
+                if (deleted > 0) {
+                    rebuildAggregates(statement);
+                }
+                connection.commit();
+                log.info("Added {} to student_results, removing {} duplicate rows", INDEX_NAME, deleted);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    static void rebuildAggregates(Statement statement) throws SQLException {
+        statement.execute("DELETE FROM student_aggregates");
+        statement.execute(REBUILD_AGGREGATES_SQL);
+    }
+
+    private static boolean exists(Statement statement, String relation) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT to_regclass('" + relation + "') IS NOT NULL")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+}
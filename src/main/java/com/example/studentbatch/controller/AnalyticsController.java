@@ -0,0 +1,74 @@
+package com.example.studentbatch.controller;
+
+import com.example.studentbatch.analytics.ResultAnalytics;
+import com.example.studentbatch.analytics.ResultSnapshot;
+import com.example.studentbatch.dto.CourseStandingDto;
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Aggregate queries over the in-memory {@link ResultSnapshot}. Answers reflect the
+ * results as of the snapshot's {@code builtAt}, which a completed import refreshes.
+ */
+@RestController
+@RequestMapping("/api/batch/analytics")
+public class AnalyticsController {
+
+    private final ResultAnalytics resultAnalytics;
+
+    public AnalyticsController(ResultAnalytics resultAnalytics) {
+        this.resultAnalytics = resultAnalytics;
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<?> getSnapshot() {
+        ResultSnapshot snapshot = resultAnalytics.snapshot();
+        return ResponseEntity.ok(Map.of(
+            "builtAt", snapshot.getBuiltAt(),
+            "resultCount", snapshot.getResultCount(),
+            "studentCount", snapshot.getStudentCount(),
+            "courseCount", snapshot.getCourseCount(),
+            "columnBytes", snapshot.getColumnBytes()
+        ));
+    }
+
+    @PostMapping("/snapshot/refresh")
+    public ResponseEntity<?> refreshSnapshot() {
+        resultAnalytics.requestRefresh();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Analytics snapshot refresh requested."));
+    }
+
+    @GetMapping("/courses")
+    public ResponseEntity<?> getCourses() {
+        return ResponseEntity.ok(resultAnalytics.snapshot().courseSummaries());
+    }
+
+    @GetMapping("/courses/{courseName}")
+    public ResponseEntity<?> getCourse(@PathVariable String courseName,
+                                       @RequestParam(value = "percentiles", defaultValue = "25,50,75,90") int[] percentiles) {
+        for (int percentile : percentiles) {
+            if (percentile < 0 || percentile > 100) {
+                return ResponseEntity.badRequest().body("percentiles must be between 0 and 100.");
+            }
+        }
+        CourseStatisticsDto statistics = resultAnalytics.snapshot().courseStatistics(courseName, percentiles);
+        if (statistics == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No results found for course: " + courseName));
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    @GetMapping("/courses/{courseName}/students/{studentId}")
+    public ResponseEntity<?> getStanding(@PathVariable String courseName, @PathVariable String studentId) {
+        CourseStandingDto standing = resultAnalytics.snapshot().standing(courseName, studentId);
+        if (standing == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message",
+                "No result found for student ID " + studentId + " in course: " + courseName));
+        }
+        return ResponseEntity.ok(standing);
+    }
+}
@@ -1,40 +1,91 @@
 package com.example.studentbatch.controller;
 
+import com.example.studentbatch.dto.CacheClearStatusDto;
+import com.example.studentbatch.dto.CourseRosterPageDto;
+import com.example.studentbatch.dto.ImportSubmissionDto;
+import com.example.studentbatch.dto.JobHistoryPageDto;
 import com.example.studentbatch.dto.StudentOverallResultDto;
+import com.example.studentbatch.exception.ImportQueueFullException;
 import com.example.studentbatch.exception.JobNotFoundException;
+import com.example.studentbatch.grading.GradeScheme;
+import com.example.studentbatch.grading.GradeSchemes;
+import com.example.studentbatch.grading.GradingEngine;
+import com.example.studentbatch.metrics.ImportProgress;
+import com.example.studentbatch.metrics.ImportProgressBroadcaster;
+import com.example.studentbatch.profile.FileProfile;
 import com.example.studentbatch.service.BatchJobService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.launch.JobExecutionNotRunningException;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api/batch")
 public class BatchController {
 
     private final BatchJobService batchJobService;
+    private final GradingEngine gradingEngine;
+    private final ImportProgressBroadcaster importProgressBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final int bulkMaxStudents;
+    private final int bulkBatchSize;
 
-    public BatchController(BatchJobService batchJobService) {
+    public BatchController(BatchJobService batchJobService,
+                           GradingEngine gradingEngine,
+                           ImportProgressBroadcaster importProgressBroadcaster,
+                           ObjectMapper objectMapper,
+                           @Value("${batch.results.bulk.max-students:500}") int bulkMaxStudents,
+                           @Value("${batch.results.bulk.batch-size:100}") int bulkBatchSize) {
         this.batchJobService = batchJobService;
+        this.gradingEngine = gradingEngine;
+        this.importProgressBroadcaster = importProgressBroadcaster;
+        this.objectMapper = objectMapper;
+        this.bulkMaxStudents = bulkMaxStudents;
+        this.bulkBatchSize = bulkBatchSize;
     }
 
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadFileAndStartJob(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadFileAndStartJob(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(value = "writeMode", required = false) String writeMode,
+                                                   @RequestParam(value = "debug", defaultValue = "false") boolean debug) {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body("Please select a file to upload.");
         }
         try {
-            Long jobExecutionId = batchJobService.startImportJob(file);
-            return ResponseEntity.ok(Map.of("message", "Batch job started successfully!", "jobExecutionId", jobExecutionId));
+            return submitted(batchJobService.startImportJob(file, writeMode, debug));
+        } catch (ImportQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30").body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload file: " + e.getMessage());
         } catch (JobParametersInvalidException | org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException e) {
@@ -44,36 +95,135 @@ public class BatchController {
         }
     }
 
+    /**
+     * Takes the CSV as the raw request body instead of a multipart form, and starts
+     * importing it while it is still being received.
+     */
+    @PostMapping(value = "/upload/stream", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> streamFileAndStartJob(InputStream body,
+                                                   @RequestParam(value = "filename", defaultValue = "upload.csv") String filename,
+                                                   @RequestParam(value = "writeMode", required = false) String writeMode,
+                                                   @RequestParam(value = "debug", defaultValue = "false") boolean debug) {
+        try {
+            return submitted(batchJobService.startStreamingImportJob(body, filename, writeMode, debug));
+        } catch (ImportQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30").body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to upload file: " + e.getMessage());
+        } catch (JobParametersInvalidException | org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error starting job: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> submitted(ImportSubmissionDto submission) {
+        if (submission.isDuplicate()) {
+            return ResponseEntity.ok(Map.of("message", "File already imported.",
+                "jobExecutionId", submission.getJobExecutionId(), "status", "DUPLICATE"));
+        }
+        if (submission.isQueued()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Batch job queued.",
+                "jobExecutionId", submission.getJobExecutionId(), "status", "QUEUED"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Batch job started successfully!",
+            "jobExecutionId", submission.getJobExecutionId(), "status", "STARTED"));
+    }
+
     @GetMapping("/status/{jobExecutionId}")
     public ResponseEntity<?> getJobStatus(@PathVariable Long jobExecutionId) {
         try {
             JobExecution jobExecution = batchJobService.getJobStatus(jobExecutionId);
-            return ResponseEntity.ok(Map.of(
-                "jobExecutionId", jobExecution.getId(),
-                "jobName", jobExecution.getJobInstance().getJobName(),
-                "status", jobExecution.getStatus().name(),
-                "startTime", jobExecution.getStartTime(),
-                "endTime", jobExecution.getEndTime(),
-                "exitStatus", jobExecution.getExitStatus().getExitCode()
-            ));
+            // LinkedHashMap rather than Map.of: endTime and the profile are null while a job is starting
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("jobExecutionId", jobExecution.getId());
+            status.put("jobName", jobExecution.getJobInstance().getJobName());
+            status.put("status", jobExecution.getStatus().name());
+            status.put("startTime", jobExecution.getStartTime());
+            status.put("endTime", jobExecution.getEndTime());
+            status.put("exitStatus", jobExecution.getExitStatus().getExitCode());
+            status.put("fileProfile", FileProfile.from(jobExecution.getExecutionContext()));
+            status.put("progressPercent", batchJobService.getProgressPercent(jobExecution));
+            status.put("rejections", batchJobService.getRejectionCounts(jobExecution));
+            status.put("skips", batchJobService.getSkipCounts(jobExecution));
+            return ResponseEntity.ok(status);
+        } catch (JobNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the progress of an import as Server-Sent Events: a {@code progress} event
+     * whenever it moves and a final {@code done} event. Served from memory on the node
+     * running the job; elsewhere, or once the job has ended, the stream carries a single
+     * snapshot read from the job repository.
+     */
+    @GetMapping("/status/{jobExecutionId}/progress")
+    public ResponseEntity<?> streamJobProgress(@PathVariable Long jobExecutionId) {
+        SseEmitter emitter = importProgressBroadcaster.subscribe(jobExecutionId);
+        if (emitter != null) {
+            return ResponseEntity.ok(emitter);
+        }
+        try {
+            JobExecution jobExecution = batchJobService.getJobStatus(jobExecutionId);
+            emitter = new SseEmitter();
+            emitter.send(SseEmitter.event()
+                .name(jobExecution.isRunning() ? ImportProgressBroadcaster.PROGRESS_EVENT : ImportProgressBroadcaster.DONE_EVENT)
+                .data(ImportProgress.snapshot(jobExecution)));
+            emitter.complete();
+            return ResponseEntity.ok(emitter);
         } catch (JobNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    @GetMapping(value = "/status/{jobExecutionId}/rejects", produces = "text/csv")
+    public ResponseEntity<?> getRejectsReport(@PathVariable Long jobExecutionId) {
+        try {
+            batchJobService.getJobStatus(jobExecutionId);
+        } catch (JobNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            batchJobService.writeRejectsReport(jobExecutionId, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rejects-" + jobExecutionId + ".csv\"")
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .body(body);
+    }
+
     @GetMapping("/history/{jobName}")
-    public ResponseEntity<?> getJobHistory(@PathVariable String jobName) {
-        List<JobExecution> history = batchJobService.getJobHistory(jobName);
-        if (history.isEmpty()) {
+    public ResponseEntity<?> getJobHistory(@PathVariable String jobName,
+                                           @RequestParam(value = "status", required = false) String status,
+                                           @RequestParam(value = "from", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(value = "to", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                           @RequestParam(value = "before", required = false) Long before,
+                                           @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and 1000.");
+        }
+        BatchStatus batchStatus = null;
+        if (status != null) {
+            try {
+                batchStatus = BatchStatus.valueOf(status.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Unknown status: " + status);
+            }
+        }
+        JobHistoryPageDto history = batchJobService.getJobHistory(jobName, batchStatus, from, to, before, limit);
+        if (before == null && history.getExecutions().isEmpty()) {
             return ResponseEntity.ok(Map.of("message", "No history found for job: " + jobName));
         }
-        return ResponseEntity.ok(history.stream().map(jobExecution -> Map.of(
-            "jobExecutionId", jobExecution.getId(),
-            "status", jobExecution.getStatus().name(),
-            "startTime", jobExecution.getStartTime(),
-            "endTime", jobExecution.getEndTime(),
-            "exitStatus", jobExecution.getExitStatus().getExitCode()
-        )).toList());
+        return ResponseEntity.ok(history);
     }
 
     @PostMapping("/stop/{jobExecutionId}")
@@ -94,17 +244,141 @@ public class BatchController {
 
     @PostMapping("/cache/clear")
     public ResponseEntity<?> clearCache() {
-        batchJobService.clearRedisCache();
-        return ResponseEntity.ok(Map.of("message", "Redis cache cleared successfully!"));
+        try {
+            CacheClearStatusDto status = batchJobService.clearCache();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Could not clear the cache: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/cache/clear")
+    public ResponseEntity<?> getCacheClearStatus() {
+        CacheClearStatusDto status = batchJobService.getCacheClearStatus();
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "The cache has not been cleared on this node."));
+        }
+        return ResponseEntity.ok(status);
     }
 
 
     @GetMapping("/student/{studentId}/results")
-    public ResponseEntity<?> getStudentResults(@PathVariable String studentId) {
-        StudentOverallResultDto studentResults = batchJobService.getStudentResults(studentId);
+    public ResponseEntity<?> getStudentResults(@PathVariable String studentId,
+                                               @RequestParam(value = "details", defaultValue = "true") boolean details) {
+        StudentOverallResultDto studentResults = details
+            ? batchJobService.getStudentResults(studentId)
+            : batchJobService.getStudentSummary(studentId);
         if (studentResults == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No results found for student ID: " + studentId));
         }
         return ResponseEntity.ok(studentResults);
     }
-}
\ No newline at end of file
+
+    /**
+     * Results of up to {@code batch.results.bulk.max-students} students as a JSON array,
+     * in request order; students without results are left out. Students are resolved
+     * {@code batch.results.bulk.batch-size} at a time and each batch is written out as
+     * soon as it is resolved, so the response is never held in memory as a whole.
+     */
+    @PostMapping(value = "/students/results", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getStudentsResults(@RequestBody List<String> studentIds) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(studentIds.stream()
+            .filter(studentId -> studentId != null && !studentId.isBlank())
+            .toList()));
+        if (distinctIds.isEmpty() || distinctIds.size() > bulkMaxStudents) {
+            return ResponseEntity.badRequest().body("Between 1 and " + bulkMaxStudents + " student IDs are required.");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (int from = 0; from < distinctIds.size(); from += bulkBatchSize) {
+                    List<String> batch = distinctIds.subList(from, Math.min(from + bulkBatchSize, distinctIds.size()));
+                    for (StudentOverallResultDto studentResults : batchJobService.getStudentResults(batch)) {
+                        generator.writeObject(studentResults);
+                    }
+                    generator.flush();
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/course/{courseName}/results")
+    public ResponseEntity<?> getCourseRoster(@PathVariable String courseName,
+                                             @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                             @RequestParam(value = "after", required = false) String after) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and 1000.");
+        }
+        try {
+            CourseRosterPageDto roster = batchJobService.getCourseRoster(courseName, limit, after);
+            if (after == null && roster.getResults().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No results found for course: " + courseName));
+            }
+            return ResponseEntity.ok(roster);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<?> getLeaderboard(@RequestParam(value = "limit", defaultValue = "10") int limit,
+                                            @RequestParam(value = "minCourses", defaultValue = "1") int minCourses) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and 1000.");
+        }
+        return ResponseEntity.ok(batchJobService.getLeaderboard(limit, minCourses));
+    }
+
+    @GetMapping("/grading/schemes")
+    public ResponseEntity<?> getGradeSchemes() {
+        GradeSchemes schemes = gradingEngine.current();
+        Map<String, String> courses = new TreeMap<>();
+        schemes.getCourseSchemes().forEach((course, scheme) -> courses.put(course, scheme.getCutoffs()));
+        return ResponseEntity.ok(Map.of("institution", schemes.getInstitutionScheme().getCutoffs(), "courses", courses));
+    }
+
+    @PutMapping("/grading/schemes/institution")
+    public ResponseEntity<?> setInstitutionGradeScheme(@RequestParam("cutoffs") String cutoffs) {
+        return saveGradeScheme(GradingEngine.INSTITUTION_SCOPE, cutoffs);
+    }
+
+    @PutMapping("/grading/schemes/courses/{courseName}")
+    public ResponseEntity<?> setCourseGradeScheme(@PathVariable String courseName, @RequestParam("cutoffs") String cutoffs) {
+        return saveGradeScheme(courseName, cutoffs);
+    }
+
+    private ResponseEntity<?> saveGradeScheme(String scope, String cutoffs) {
+        try {
+            GradeScheme scheme = gradingEngine.save(scope, cutoffs);
+            return ResponseEntity.ok(Map.of("scope", scope, "cutoffs", scheme.getCutoffs()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/grading/schemes/institution")
+    public ResponseEntity<?> deleteInstitutionGradeScheme() {
+        return deleteGradeScheme(GradingEngine.INSTITUTION_SCOPE);
+    }
+
+    @DeleteMapping("/grading/schemes/courses/{courseName}")
+    public ResponseEntity<?> deleteCourseGradeScheme(@PathVariable String courseName) {
+        return deleteGradeScheme(courseName);
+    }
+
+    private ResponseEntity<?> deleteGradeScheme(String scope) {
+        if (!gradingEngine.delete(scope)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No grade scheme stored for: " + scope));
+        }
+        return ResponseEntity.ok(Map.of("message", "Grade scheme removed."));
+    }
+
+    @PostMapping("/grading/schemes/reload")
+    public ResponseEntity<?> reloadGradeSchemes() {
+        gradingEngine.reload();
+        return ResponseEntity.ok(Map.of("message", "Grade schemes reloaded."));
+    }
+}
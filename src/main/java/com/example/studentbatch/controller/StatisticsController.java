@@ -0,0 +1,62 @@
+package com.example.studentbatch.controller;
+
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import com.example.studentbatch.statistics.CourseStatisticsStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Course statistics collected while importing, per import. See
+ * {@link AnalyticsController} for statistics over all stored results.
+ */
+@RestController
+@RequestMapping("/api/batch/statistics")
+public class StatisticsController {
+
+    private final CourseStatisticsStore store;
+
+    public StatisticsController(CourseStatisticsStore store) {
+        this.store = store;
+    }
+
+    @GetMapping("/courses")
+    public ResponseEntity<?> getCourses(@RequestParam(value = "jobExecutionId", required = false) Long jobExecutionId,
+                                        @RequestParam(value = "percentiles", defaultValue = "50,90") int[] percentiles) {
+        if (!validPercentiles(percentiles)) {
+            return ResponseEntity.badRequest().body("percentiles must be between 0 and 100.");
+        }
+        Long importId = jobExecutionId != null ? jobExecutionId : store.findLatestJobExecutionId();
+        List<CourseStatisticsDto> statistics = importId == null ? List.of() : store.findByJobExecution(importId, percentiles);
+        if (statistics.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message",
+                jobExecutionId != null ? "No statistics found for job execution: " + jobExecutionId : "No statistics collected yet."));
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    @GetMapping("/courses/{courseName}")
+    public ResponseEntity<?> getCourse(@PathVariable String courseName,
+                                       @RequestParam(value = "percentiles", defaultValue = "50,90") int[] percentiles) {
+        if (!validPercentiles(percentiles)) {
+            return ResponseEntity.badRequest().body("percentiles must be between 0 and 100.");
+        }
+        CourseStatisticsDto statistics = store.findLatest(courseName, percentiles);
+        if (statistics == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No statistics found for course: " + courseName));
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    private static boolean validPercentiles(int[] percentiles) {
+        for (int percentile : percentiles) {
+            if (percentile < 0 || percentile > 100) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
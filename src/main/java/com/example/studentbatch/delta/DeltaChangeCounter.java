@@ -0,0 +1,106 @@
+package com.example.studentbatch.delta;
+
+import com.example.studentbatch.writer.WriteMode;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the rows a delta import inserted, updated and left unchanged. A chunk's
+ * counts only take effect once its transaction commits, so a chunk that rolls back
+ * and is rescanned item by item is not counted twice. The totals are saved in the
+ * step {@link ExecutionContext} at the end of the step, next to the deletions of
+ * {@link DeltaDeleteTasklet}, for {@code JobCompletionNotificationListener} to report.
+ */
+@Component
+@StepScope
+public class DeltaChangeCounter implements StepExecutionListener {
+
+    public static final String INSERTED_KEY = "delta.inserted";
+    public static final String UPDATED_KEY = "delta.updated";
+    public static final String UNCHANGED_KEY = "delta.unchanged";
+    public static final String DELETED_KEY = "delta.deleted";
+
+    private final boolean delta;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+
+    public DeltaChangeCounter(@Value("#{jobParameters['writeMode']}") String writeMode) {
+        this.delta = WriteMode.fromParameter(writeMode) == WriteMode.DELTA;
+    }
+
+    /** Counts a chunk's changes once the surrounding transaction, if any, commits. */
+    public void record(int inserted, int updated, int unchanged) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(inserted, updated, unchanged);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(inserted, updated, unchanged);
+            }
+        });
+    }
+
+    private void add(int inserted, int updated, int unchanged) {
+        this.inserted += inserted;
+        this.updated += updated;
+        this.unchanged += unchanged;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        // A restarted step carries on from the counts of its committed chunks
+        ExecutionContext context = stepExecution.getExecutionContext();
+        inserted = context.getLong(INSERTED_KEY, 0L);
+        updated = context.getLong(UPDATED_KEY, 0L);
+        unchanged = context.getLong(UNCHANGED_KEY, 0L);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        // Saved for every delta import step, even one whose lines were all rejected
+        if (!delta) {
+            return null;
+        }
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(INSERTED_KEY, inserted);
+        context.putLong(UPDATED_KEY, updated);
+        context.putLong(UNCHANGED_KEY, unchanged);
+        return null;
+    }
+
+    /**
+     * Rows inserted, updated, unchanged and deleted by a delta import, summed over its
+     * steps; empty for an import in any other write mode.
+     */
+    public static Map<String, Long> totals(JobExecution jobExecution) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            ExecutionContext context = stepExecution.getExecutionContext();
+            add(totals, "inserted", context, INSERTED_KEY);
+            add(totals, "updated", context, UPDATED_KEY);
+            add(totals, "unchanged", context, UNCHANGED_KEY);
+            add(totals, "deleted", context, DELETED_KEY);
+        }
+        return totals;
+    }
+
+    private static void add(Map<String, Long> totals, String name, ExecutionContext context, String key) {
+        if (context.containsKey(key)) {
+            totals.merge(name, context.getLong(key), Long::sum);
+        }
+    }
+}
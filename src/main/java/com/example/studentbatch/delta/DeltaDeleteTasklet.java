@@ -0,0 +1,93 @@
+package com.example.studentbatch.delta;
+
+import com.example.studentbatch.cache.StudentResultCache;
+import com.example.studentbatch.diagnostics.ProcessingDiagnostics;
+import com.example.studentbatch.writer.StudentAggregateUpsertWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Last step of a delta import: deletes the stored results of the upload's courses
+ * that the upload no longer contains, then refreshes the aggregates and evicts the
+ * cached results of the students concerned.
+ * <p>
+ * A line the import rejected or skipped never reached {@code delta_import_keys}, so
+ * its stored result would look deleted. Deletions are therefore left out altogether
+ * when any line of the upload was rejected or skipped. The recorded keys are cleared
+ * either way; those of a failed import stay until it is restarted.
+ */
+public class DeltaDeleteTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(DeltaDeleteTasklet.class);
+
+    static final String DELETE_SQL = """
+        DELETE FROM student_results r
+        USING students s, courses c
+        WHERE s.id = r.student_key AND c.id = r.course_key
+          AND c.course_name IN (SELECT k.course_name FROM delta_import_keys k WHERE k.job_instance_id = ?)
+          AND NOT EXISTS (SELECT 1 FROM delta_import_keys k
+                          WHERE k.job_instance_id = ? AND k.student_id = s.student_id AND k.course_name = c.course_name)
+        RETURNING s.student_id""";
+
+    static final String CLEAR_KEYS_SQL = "DELETE FROM delta_import_keys WHERE job_instance_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentAggregateUpsertWriter aggregateWriter;
+    private final StudentResultCache cache;
+
+    public DeltaDeleteTasklet(JdbcTemplate jdbcTemplate, StudentResultCache cache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aggregateWriter = new StudentAggregateUpsertWriter(jdbcTemplate);
+        this.cache = cache;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        JobExecution jobExecution = stepExecution.getJobExecution();
+        long jobInstanceId = jobExecution.getJobId();
+
+        long incompleteLines = incompleteLines(jobExecution);
+        long deleted = 0;
+        if (incompleteLines > 0) {
+            log.warn("{} lines of the upload were rejected or skipped, keeping stored results missing from it",
+                incompleteLines);
+        } else {
+            List<String> studentIds = jdbcTemplate.queryForList(DELETE_SQL, String.class, jobInstanceId, jobInstanceId);
+            Set<String> changedStudentIds = new HashSet<>(studentIds);
+            aggregateWriter.refresh(changedStudentIds);
+            cache.evictAfterCommit(changedStudentIds);
+            deleted = studentIds.size();
+            log.info("Deleted {} results missing from the upload, for {} students", deleted, changedStudentIds.size());
+        }
+
+        jdbcTemplate.update(CLEAR_KEYS_SQL, jobInstanceId);
+        stepExecution.getExecutionContext().putLong(DeltaChangeCounter.DELETED_KEY, deleted);
+        contribution.incrementWriteCount(deleted);
+        return RepeatStatus.FINISHED;
+    }
+
+    // Only the delta import steps themselves carry change counts; the partition manager step does not
+    private static long incompleteLines(JobExecution jobExecution) {
+        long lines = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            ExecutionContext context = stepExecution.getExecutionContext();
+            if (context.containsKey(DeltaChangeCounter.INSERTED_KEY)) {
+                lines += context.getLong(ProcessingDiagnostics.REJECTED_COUNT_KEY, 0L) + stepExecution.getSkipCount();
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.studentbatch.delta;
+
+import com.example.studentbatch.writer.WriteMode;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+/**
+ * Sends a completed delta import on to {@link DeltaDeleteTasklet}; imports in the
+ * other write modes end after the import step.
+ */
+public class DeltaImportDecider implements JobExecutionDecider {
+
+    public static final String DELTA = "DELTA";
+    public static final String UPSERT = "UPSERT";
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        WriteMode mode = WriteMode.fromParameter(jobExecution.getJobParameters().getString("writeMode"));
+        return new FlowExecutionStatus(mode == WriteMode.DELTA ? DELTA : UPSERT);
+    }
+}
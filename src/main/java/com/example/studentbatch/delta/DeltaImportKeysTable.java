@@ -0,0 +1,35 @@
+package com.example.studentbatch.delta;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates {@code delta_import_keys}, which is not an entity. The table is unlogged:
+ * its rows only live for the length of an import, and are cheaper to write without WAL.
+ */
+@Component
+public class DeltaImportKeysTable implements InitializingBean {
+
+    static final String CREATE_TABLE_SQL = """
+        CREATE UNLOGGED TABLE IF NOT EXISTS delta_import_keys (
+            job_instance_id BIGINT NOT NULL,
+            student_id VARCHAR(255) NOT NULL,
+            course_name VARCHAR(255) NOT NULL
+        )""";
+
+    static final String CREATE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_delta_import_keys ON delta_import_keys (job_instance_id, course_name, student_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeltaImportKeysTable(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.execute(CREATE_INDEX_SQL);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.studentbatch.diagnostics;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-step processing counters, kept in plain longs on the chunk thread and
+ * published to the step {@link ExecutionContext} at each chunk boundary. The
+ * {@code processedCount}/{@code rejectedCount} keys are the ones
+ * {@code JobCompletionNotificationListener} reports.
+ * <p>
+ * The counts of a chunk are dropped if its transaction rolls back, as the records are
+ * processed again when the chunk is retried or rescanned. The step saves its context
+ * in the chunk's transaction, so the counts published there include the chunk.
+ */
+public class ProcessingDiagnostics {
+
+    public static final String PROCESSED_COUNT_KEY = "processedCount";
+    public static final String REJECTED_COUNT_KEY = "rejectedCount";
+    private static final String REJECTED_PREFIX = "rejected.";
+
+    private static final RejectionReason[] REASONS = RejectionReason.values();
+
+    private final long sampleRate;
+    private long processed;
+    private long rejected;
+    private final long[] rejectedByReason = new long[REASONS.length];
+
+    // Counts of the chunk whose transaction is still open
+    private long pendingProcessed;
+    private long pendingRejected;
+    private final long[] pendingRejectedByReason = new long[REASONS.length];
+    private boolean pendingRegistered;
+
+    /**
+     * @param sampleRate dump one record in this many; {@code 0} disables sampling
+     */
+    public ProcessingDiagnostics(long sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /** Counts an accepted record and returns whether it falls on the sampling grid. */
+    public boolean accepted() {
+        pendingProcessed++;
+        return settle();
+    }
+
+    /** Counts a rejected record and returns whether it falls on the sampling grid. */
+    public boolean rejected(RejectionReason reason) {
+        pendingProcessed++;
+        pendingRejected++;
+        pendingRejectedByReason[reason.ordinal()]++;
+        return settle();
+    }
+
+    private boolean settle() {
+        boolean sampled = sampleRate > 0 && getProcessed() % sampleRate == 0;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitPending();
+        } else if (!pendingRegistered) {
+            pendingRegistered = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        commitPending();
+                    } else {
+                        discardPending();
+                    }
+                }
+            });
+        }
+        return sampled;
+    }
+
+    private void commitPending() {
+        processed += pendingProcessed;
+        rejected += pendingRejected;
+        for (int i = 0; i < rejectedByReason.length; i++) {
+            rejectedByReason[i] += pendingRejectedByReason[i];
+        }
+        discardPending();
+    }
+
+    private void discardPending() {
+        pendingProcessed = 0;
+        pendingRejected = 0;
+        Arrays.fill(pendingRejectedByReason, 0L);
+        pendingRegistered = false;
+    }
+
+    /** Records processed so far, including those of the open chunk. */
+    public long getProcessed() {
+        return processed + pendingProcessed;
+    }
+
+    /** Records rejected so far, including those of the open chunk. */
+    public long getRejected() {
+        return rejected + pendingRejected;
+    }
+
+    public void restoreFrom(ExecutionContext context) {
+        discardPending();
+        processed = context.getLong(PROCESSED_COUNT_KEY, 0L);
+        rejected = context.getLong(REJECTED_COUNT_KEY, 0L);
+        for (RejectionReason reason : REASONS) {
+            rejectedByReason[reason.ordinal()] = context.getLong(REJECTED_PREFIX + reason.name(), 0L);
+        }
+    }
+
+    public void writeTo(ExecutionContext context) {
+        context.putLong(PROCESSED_COUNT_KEY, getProcessed());
+        context.putLong(REJECTED_COUNT_KEY, getRejected());
+        for (RejectionReason reason : REASONS) {
+            int i = reason.ordinal();
+            context.putLong(REJECTED_PREFIX + reason.name(), rejectedByReason[i] + pendingRejectedByReason[i]);
+        }
+    }
+
+    /** Adds the per-reason counts stored in {@code context} to {@code totals}. */
+    public static void addRejections(ExecutionContext context, Map<RejectionReason, Long> totals) {
+        for (RejectionReason reason : REASONS) {
+            long count = context.getLong(REJECTED_PREFIX + reason.name(), 0L);
+            if (count > 0) {
+                totals.merge(reason, count, Long::sum);
+            }
+        }
+    }
+
+    public static Map<RejectionReason, Long> emptyRejections() {
+        return new EnumMap<>(RejectionReason.class);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.studentbatch.diagnostics;
+
+/**
+ * Why a parsed record was filtered out by validation.
+ */
+public enum RejectionReason {
+    NULL_RECORD,
+    INVALID_STUDENT_ID,
+    INVALID_COURSE_NAME,
+    INVALID_SCORE
+}
@@ -0,0 +1,24 @@
+package com.example.studentbatch.diagnostics;
+
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Why the fault-tolerant import step skipped a record, as opposed to a
+ * {@link RejectionReason} for one that validation filtered out.
+ */
+public enum SkipReason {
+    MALFORMED_LINE,
+    READ_ERROR,
+    PROCESS_ERROR,
+    CONSTRAINT_VIOLATION,
+    WRITE_ERROR;
+
+    public static SkipReason ofRead(Throwable t) {
+        return t instanceof FlatFileParseException ? MALFORMED_LINE : READ_ERROR;
+    }
+
+    public static SkipReason ofWrite(Throwable t) {
+        return t instanceof DataIntegrityViolationException ? CONSTRAINT_VIOLATION : WRITE_ERROR;
+    }
+}
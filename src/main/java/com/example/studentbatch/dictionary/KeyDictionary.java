@@ -0,0 +1,135 @@
+package com.example.studentbatch.dictionary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the natural IDs of one dimension table, such as {@code students}, to their int
+ * keys, adding the IDs that have none yet. Known keys are held in a bounded on-heap
+ * cache, so a warm import resolves a chunk without touching the database; the misses
+ * of a chunk are looked up in one query, and only those still missing are inserted,
+ * in one statement, then read back.
+ * <p>
+ * Keys looked up or added inside a transaction are only cached once it commits: a
+ * rolled back chunk must not leave behind keys whose rows were never committed.
+ */
+public class KeyDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String selectSql;
+    private final String insertSql;
+    private final String preloadSql;
+    private final Cache<String, Integer> keys;
+
+    /**
+     * @param table  the dimension table, with a generated {@code id} key
+     * @param column its natural ID column, which has a unique index
+     */
+    KeyDictionary(JdbcTemplate jdbcTemplate, String table, String column, long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.selectSql = "SELECT id, " + column + " FROM " + table + " WHERE " + column + " = ANY(?)";
+        // Inserted in name order, so that concurrent chunks adding the same names wait on each other instead of deadlocking
+        this.insertSql = "INSERT INTO " + table + " (" + column + ") SELECT name FROM unnest(?) AS n(name) ORDER BY name"
+            + " ON CONFLICT (" + column + ") DO NOTHING";
+        this.preloadSql = "SELECT id, " + column + " FROM " + table + " ORDER BY id DESC LIMIT ?";
+        this.keys = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * The keys of the given names, adding rows for the names that have none.
+     * Expected to run in the transaction that writes rows referring to the keys.
+     */
+    public Map<String, Integer> resolve(Collection<String> names) {
+        Map<String, Integer> resolved = new HashMap<>(names.size() * 2);
+        List<String> misses = new ArrayList<>();
+        for (String name : names) {
+            Integer key = keys.getIfPresent(name);
+            if (key != null) {
+                resolved.put(name, key);
+            } else {
+                misses.add(name);
+            }
+        }
+        if (misses.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, Integer> loaded = select(misses.toArray(String[]::new));
+        if (loaded.size() < misses.size()) {
+            String[] unknown = misses.stream().filter(name -> !loaded.containsKey(name)).sorted().toArray(String[]::new);
+            jdbcTemplate.update(insertSql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", unknown)));
+            loaded.putAll(select(unknown));
+            if (loaded.size() < misses.size()) {
+                throw new IllegalStateException("Could not add " + (misses.size() - loaded.size()) + " keys to the dictionary");
+            }
+        }
+        remember(loaded);
+        resolved.putAll(loaded);
+        return resolved;
+    }
+
+    /** The key of a name, or null if it has none. Never adds a row. */
+    public Integer find(String name) {
+        Integer key = keys.getIfPresent(name);
+        if (key != null) {
+            return key;
+        }
+        key = select(new String[] {name}).get(name);
+        if (key != null) {
+            remember(Map.of(name, key));
+        }
+        return key;
+    }
+
+    /** Caches the keys of the latest rows, up to {@code limit} of them. Returns how many were read. */
+    int preload(long limit) {
+        int[] count = {0};
+        jdbcTemplate.query(preloadSql, resultSet -> {
+            keys.put(resultSet.getString(2), resultSet.getInt(1));
+            count[0]++;
+        }, limit);
+        return count[0];
+    }
+
+    long size() {
+        return keys.estimatedSize();
+    }
+
+    Cache<String, Integer> cache() {
+        return keys;
+    }
+
+    private Map<String, Integer> select(String[] names) {
+        Map<String, Integer> found = new HashMap<>(names.length * 2);
+        jdbcTemplate.query(selectSql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", names)),
+            resultSet -> {
+                found.put(resultSet.getString(2), resultSet.getInt(1));
+            });
+        return found;
+    }
+
+    private void remember(Map<String, Integer> found) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            keys.putAll(found);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keys.putAll(found);
+            }
+        });
+    }
+}
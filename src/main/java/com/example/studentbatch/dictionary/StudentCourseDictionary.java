@@ -0,0 +1,60 @@
+package com.example.studentbatch.dictionary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@link KeyDictionary dictionaries} of the {@code students} and {@code courses}
+ * dimensions, through which the import turns natural IDs into the int keys that
+ * {@code student_results} stores. Each holds at most
+ * {@code batch.dictionary.students.max-size} or {@code batch.dictionary.courses.max-size}
+ * keys; an empty dictionary, as after a restart, is filled with the latest keys of its
+ * table when an import starts, so the first chunks do not each pay for a lookup.
+ */
+@Component
+public class StudentCourseDictionary implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentCourseDictionary.class);
+
+    private final KeyDictionary students;
+    private final KeyDictionary courses;
+    private final long studentsMaxSize;
+    private final long coursesMaxSize;
+
+    public StudentCourseDictionary(JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${batch.dictionary.students.max-size:200000}") long studentsMaxSize,
+                                   @Value("${batch.dictionary.courses.max-size:10000}") long coursesMaxSize) {
+        this.students = new KeyDictionary(jdbcTemplate, "students", "student_id", studentsMaxSize);
+        this.courses = new KeyDictionary(jdbcTemplate, "courses", "course_name", coursesMaxSize);
+        this.studentsMaxSize = studentsMaxSize;
+        this.coursesMaxSize = coursesMaxSize;
+        CaffeineCacheMetrics.monitor(meterRegistry, students.cache(), "dictionary.students");
+        CaffeineCacheMetrics.monitor(meterRegistry, courses.cache(), "dictionary.courses");
+    }
+
+    public KeyDictionary students() {
+        return students;
+    }
+
+    public KeyDictionary courses() {
+        return courses;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (students.size() == 0) {
+            log.info("Preloaded {} student keys", students.preload(studentsMaxSize));
+        }
+        if (courses.size() == 0) {
+            log.info("Preloaded {} course keys", courses.preload(coursesMaxSize));
+        }
+    }
+}
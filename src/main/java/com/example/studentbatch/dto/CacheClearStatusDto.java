@@ -0,0 +1,24 @@
+package com.example.studentbatch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CacheClearStatusDto {
+    /** Key generation the cache was cleared to; entries of earlier ones are being unlinked. */
+    private long generation;
+    /** RUNNING, COMPLETED or FAILED. */
+    private String state;
+    private long keysScanned;
+    private long keysUnlinked;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String error;
+}
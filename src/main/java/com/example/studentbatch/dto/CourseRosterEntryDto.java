@@ -0,0 +1,14 @@
+package com.example.studentbatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseRosterEntryDto {
+    private String studentId;
+    private Integer score;
+    private String grade;
+}
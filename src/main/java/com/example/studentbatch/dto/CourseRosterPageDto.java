@@ -0,0 +1,18 @@
+package com.example.studentbatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseRosterPageDto {
+    private String courseName;
+    /** Best score first; ties by when the student was first imported, latest first. */
+    private List<CourseRosterEntryDto> results;
+    /** Pass as {@code after} to get the next page; null on the last page. */
+    private String nextCursor;
+}
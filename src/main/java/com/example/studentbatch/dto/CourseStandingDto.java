@@ -0,0 +1,20 @@
+package com.example.studentbatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseStandingDto {
+    private String studentId;
+    private String courseName;
+    private int score;
+    private String grade;
+    /** 1 + the number of results in the course with a higher score. */
+    private long rank;
+    private long resultCount;
+    /** Share of the course's results that scored lower, in percent. */
+    private double percentileRank;
+}
@@ -0,0 +1,29 @@
+package com.example.studentbatch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CourseStatisticsDto {
+    private String courseName;
+    /** The import the statistics were collected from; null for statistics of all stored results. */
+    private Long jobExecutionId;
+    private long resultCount;
+    private double averageScore;
+    private double standardDeviation;
+    private int minScore;
+    private int maxScore;
+    /** Number of results per grade, A to F. */
+    private Map<String, Long> gradeDistribution;
+    /** Number of results per ten-point score band ("0-9" to "90-100"); null in course lists. */
+    private Map<String, Long> scoreHistogram;
+    /** Score at each requested percentile, by nearest rank; null in course lists. */
+    private Map<String, Integer> percentiles;
+}
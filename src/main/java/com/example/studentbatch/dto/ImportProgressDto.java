@@ -0,0 +1,25 @@
+package com.example.studentbatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Progress of an import, as pushed by {@code GET /api/batch/status/{jobExecutionId}/progress}. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressDto {
+    private Long jobExecutionId;
+    private String status;
+    private long rowsRead;
+    private long rowsWritten;
+    private long rowsFiltered;
+    private long rowsSkipped;
+    private long bytesConsumed;
+    /** Size of the upload; null until it has been profiled, and for streamed uploads. */
+    private Long bytesTotal;
+    private Double percent;
+    private double rowsPerSecond;
+    /** Estimated seconds left at the current rate; null while unknown. */
+    private Long etaSeconds;
+}
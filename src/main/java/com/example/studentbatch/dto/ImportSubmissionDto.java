@@ -0,0 +1,16 @@
+package com.example.studentbatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportSubmissionDto {
+    private Long jobExecutionId;
+    /** True when every import slot was busy and the job is waiting in the queue. */
+    private boolean queued;
+    /** True when the upload's content was already imported successfully by {@link #jobExecutionId}; nothing was run. */
+    private boolean duplicate;
+}
@@ -0,0 +1,18 @@
+package com.example.studentbatch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobHistoryPageDto {
+    private String jobName;
+    /** Latest first. */
+    private List<JobHistoryEntryDto> executions;
+    /** Pass as {@code before} to get the next page; null on the last page. */
+    private Long nextCursor;
+}
@@ -1,18 +1,25 @@
 package com.example.studentbatch.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class StudentOverallResultDto {
     private String studentId;
+    /** Null when only the summary was requested. */
     private List<StudentResultDetail> courseResults;
     private Double overallAverageScore;
+    private Integer courseCount;
+    /** Number of courses per grade, A to F. */
+    private Map<String, Integer> gradeDistribution;
 
     @Data
     @NoArgsConstructor
@@ -22,4 +29,4 @@ public class StudentOverallResultDto {
         private Integer score;
         private String grade;
     }
-}
\ No newline at end of file
+}
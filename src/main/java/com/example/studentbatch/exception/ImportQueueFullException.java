@@ -0,0 +1,11 @@
+package com.example.studentbatch.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ImportQueueFullException extends RuntimeException {
+    public ImportQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.studentbatch.grading;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Grade cutoffs compiled into a lookup table with an entry for every score from 0 to
+ * {@value #MAX_SCORE}, so grading a result is a single array read with no comparisons.
+ * Every entry is one of the shared {@link #GRADES} constants, so graded results do not
+ * each carry a String of their own.
+ */
+public final class GradeScheme {
+
+    public static final int MAX_SCORE = 100;
+
+    /** Grades a scheme may hand out; the ones {@code student_aggregates} counts. */
+    public static final List<String> GRADES = List.of("A", "B", "C", "D", "F");
+
+    public static final GradeScheme STANDARD = parse("A:90,B:80,C:70,D:60,F:0");
+
+    private final String cutoffs;
+    private final String[] table;
+
+    private GradeScheme(String cutoffs, String[] table) {
+        this.cutoffs = cutoffs;
+        this.table = table;
+    }
+
+    /**
+     * Parses cutoffs such as {@code A:90,B:80,C:70,D:60,F:0}. Each grade applies from
+     * its minimum score up to the next higher cutoff, and one grade has to start at 0.
+     *
+     * @throws IllegalArgumentException if the cutoffs are malformed or leave scores ungraded
+     */
+    public static GradeScheme parse(String cutoffs) {
+        if (cutoffs == null || cutoffs.isBlank()) {
+            throw new IllegalArgumentException("Grade cutoffs must not be empty");
+        }
+        TreeMap<Integer, String> gradeByMinimum = new TreeMap<>();
+        for (String cutoff : cutoffs.split(",")) {
+            String[] parts = cutoff.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed grade cutoff '" + cutoff.trim() + "', expected GRADE:MINIMUM");
+            }
+            String grade = constant(parts[0].trim());
+            int minimum;
+            try {
+                minimum = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed minimum score in grade cutoff '" + cutoff.trim() + "'", e);
+            }
+            if (minimum < 0 || minimum > MAX_SCORE) {
+                throw new IllegalArgumentException("Minimum score " + minimum + " is outside 0-" + MAX_SCORE);
+            }
+            if (gradeByMinimum.put(minimum, grade) != null) {
+                throw new IllegalArgumentException("More than one grade starts at " + minimum);
+            }
+        }
+        if (!gradeByMinimum.containsKey(0)) {
+            throw new IllegalArgumentException("No grade starts at 0, so low scores would be ungraded");
+        }
+
+        String[] table = new String[MAX_SCORE + 1];
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            table[score] = gradeByMinimum.floorEntry(score).getValue();
+        }
+        StringBuilder canonical = new StringBuilder();
+        for (Map.Entry<Integer, String> cutoff : gradeByMinimum.descendingMap().entrySet()) {
+            canonical.append(canonical.isEmpty() ? "" : ",").append(cutoff.getValue()).append(':').append(cutoff.getKey());
+        }
+        return new GradeScheme(canonical.toString(), table);
+    }
+
+    // The shared constant, never the parsed String
+    private static String constant(String grade) {
+        int index = GRADES.indexOf(grade);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown grade '" + grade + "', expected one of " + GRADES);
+        }
+        return GRADES.get(index);
+    }
+
+    /** The grade for a score between 0 and {@value #MAX_SCORE}, as validation guarantees. */
+    public String grade(int score) {
+        return table[score];
+    }
+
+    /** The cutoffs in canonical form, highest first. */
+    public String getCutoffs() {
+        return cutoffs;
+    }
+
+    @Override
+    public String toString() {
+        return cutoffs;
+    }
+}
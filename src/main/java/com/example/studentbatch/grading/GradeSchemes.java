@@ -0,0 +1,34 @@
+package com.example.studentbatch.grading;
+
+import java.util.Map;
+
+/**
+ * An immutable set of grade schemes: one for the institution and any number of
+ * per-course overrides. An import grades with the set that was current when its
+ * step started, so a reload never splits one upload across two sets of cutoffs.
+ */
+public final class GradeSchemes {
+
+    public static final GradeSchemes STANDARD = new GradeSchemes(GradeScheme.STANDARD, Map.of());
+
+    private final GradeScheme institutionScheme;
+    private final Map<String, GradeScheme> courseSchemes;
+
+    public GradeSchemes(GradeScheme institutionScheme, Map<String, GradeScheme> courseSchemes) {
+        this.institutionScheme = institutionScheme;
+        this.courseSchemes = Map.copyOf(courseSchemes);
+    }
+
+    public String grade(String courseName, int score) {
+        GradeScheme scheme = courseSchemes.isEmpty() ? institutionScheme : courseSchemes.getOrDefault(courseName, institutionScheme);
+        return scheme.grade(score);
+    }
+
+    public GradeScheme getInstitutionScheme() {
+        return institutionScheme;
+    }
+
+    public Map<String, GradeScheme> getCourseSchemes() {
+        return courseSchemes;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.studentbatch.grading;
+
+import com.example.studentbatch.model.GradeSchemeDefinition;
+import com.example.studentbatch.repository.GradeSchemeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the current {@link GradeSchemes}. The institution scheme comes from
+ * {@code grading.default-scheme} unless {@code grade_schemes} has a row for scope
+ * {@value #INSTITUTION_SCOPE}; any other row is a per-course scheme keyed by course name.
+ * <p>
+ * Rows are re-read every {@code grading.reload-interval} and after every change made
+ * here, so a scheme changed on one node reaches the others without a restart. The
+ * schemes are swapped as a whole; imports already running keep the set they started with.
+ */
+@Component
+public class GradingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GradingEngine.class);
+
+    public static final String INSTITUTION_SCOPE = "*";
+
+    private final GradeSchemeRepository repository;
+    private final GradeScheme defaultScheme;
+    private volatile GradeSchemes current;
+
+    public GradingEngine(GradeSchemeRepository repository,
+                         @Value("${grading.default-scheme:A:90,B:80,C:70,D:60,F:0}") String defaultScheme) {
+        this.repository = repository;
+        this.defaultScheme = GradeScheme.parse(defaultScheme);
+        this.current = new GradeSchemes(this.defaultScheme, Map.of());
+    }
+
+    public GradeSchemes current() {
+        return current;
+    }
+
+    /**
+     * Re-reads the stored schemes. A row that no longer parses is skipped with a warning,
+     * and if the table cannot be read at all the previous schemes stay in use.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${grading.reload-interval:PT1M}")
+    public void reload() {
+        Map<String, GradeScheme> courseSchemes = new HashMap<>();
+        GradeScheme institutionScheme = defaultScheme;
+        try {
+            for (GradeSchemeDefinition definition : repository.findAll()) {
+                GradeScheme scheme;
+                try {
+                    scheme = GradeScheme.parse(definition.getCutoffs());
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring grade scheme for scope '{}': {}", definition.getScope(), e.getMessage());
+                    continue;
+                }
+                if (INSTITUTION_SCOPE.equals(definition.getScope())) {
+                    institutionScheme = scheme;
+                } else {
+                    courseSchemes.put(definition.getScope(), scheme);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reload grade schemes, keeping the current ones: {}", e.getMessage());
+            return;
+        }
+        current = new GradeSchemes(institutionScheme, courseSchemes);
+    }
+
+    /**
+     * Stores the cutoffs for a scope and applies them to imports started from now on.
+     * Results already stored keep their grade until they are imported again.
+     *
+     * @throws IllegalArgumentException if the cutoffs do not parse
+     */
+    public GradeScheme save(String scope, String cutoffs) {
+        GradeScheme scheme = GradeScheme.parse(cutoffs);
+        repository.save(new GradeSchemeDefinition(scope, scheme.getCutoffs(), LocalDateTime.now()));
+        log.info("Grade scheme for scope '{}' set to {}", scope, scheme);
+        reload();
+        return scheme;
+    }
+
+    /**
+     * Removes the scheme stored for a scope, which falls back to the institution scheme
+     * (or, for the institution itself, to {@code grading.default-scheme}).
+     *
+     * @return whether a scheme was stored for the scope
+     */
+    public boolean delete(String scope) {
+        if (!repository.existsById(scope)) {
+            return false;
+        }
+        repository.deleteById(scope);
+        log.info("Grade scheme for scope '{}' removed", scope);
+        reload();
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.studentbatch.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the batch metadata tables small by deleting the history of jobs that ended
+ * more than {@code batch.history.retention.max-age} ago, on the
+ * {@code batch.history.retention.cron} schedule ({@code -} disables it). Instances
+ * are deleted a batch per transaction, so a large backlog never holds locks for long
+ * or blocks imports. A failed import older than the retention can no longer be
+ * restarted, and an upload imported by it is no longer recognised as a duplicate.
+ */
+@Component
+public class JobHistoryRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(JobHistoryRetention.class);
+
+    private final JobHistoryStore jobHistoryStore;
+    private final Duration maxAge;
+    private final int batchSize;
+
+    public JobHistoryRetention(JobHistoryStore jobHistoryStore,
+                               @Value("${batch.history.retention.max-age:P90D}") Duration maxAge,
+                               @Value("${batch.history.retention.batch-size:100}") int batchSize) {
+        this.jobHistoryStore = jobHistoryStore;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${batch.history.retention.cron:0 30 3 * * *}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        long purged = 0;
+        try {
+            int batch;
+            do {
+                batch = jobHistoryStore.purgeBefore(cutoff, batchSize);
+                purged += batch;
+            } while (batch == batchSize);
+        } catch (DataAccessException e) {
+            // Typically an old failed instance being restarted right now; the next run retries
+            log.warn("Job history purge stopped after {} instances: {}", purged, e.getMessage());
+            return;
+        }
+        if (purged > 0) {
+            log.info("Purged {} job instances that ended before {}", purged, cutoff);
+        }
+    }
+}
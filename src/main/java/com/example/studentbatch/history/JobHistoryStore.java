@@ -0,0 +1,168 @@
+package com.example.studentbatch.history;
+
+import com.example.studentbatch.dto.JobHistoryEntryDto;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and prunes job history straight from the Spring Batch metadata tables.
+ * <p>
+ * {@code JobExplorer} loads every execution with its parameters, step executions and
+ * contexts; a history page only needs a few columns of {@code BATCH_JOB_EXECUTION}, so
+ * it is one query, filtered and keyset-paged by execution ID. The batch schema has no
+ * indexes on its foreign keys, so the ones history, pruning and the explorer's own
+ * step lookups need are added at startup.
+ */
+@Component
+public class JobHistoryStore implements InitializingBean {
+
+    static final String[] CREATE_INDEX_SQL = {
+        "CREATE INDEX IF NOT EXISTS idx_batch_job_execution_instance ON %PREFIX%JOB_EXECUTION (JOB_INSTANCE_ID, JOB_EXECUTION_ID)",
+        "CREATE INDEX IF NOT EXISTS idx_batch_job_execution_create_time ON %PREFIX%JOB_EXECUTION (CREATE_TIME)",
+        "CREATE INDEX IF NOT EXISTS idx_batch_job_execution_params_execution ON %PREFIX%JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID)",
+        "CREATE INDEX IF NOT EXISTS idx_batch_step_execution_execution ON %PREFIX%STEP_EXECUTION (JOB_EXECUTION_ID)"
+    };
+
+    private static final String HISTORY_SQL = """
+        SELECT e.JOB_EXECUTION_ID, e.JOB_INSTANCE_ID, e.STATUS, e.EXIT_CODE, e.CREATE_TIME, e.START_TIME, e.END_TIME
+        FROM %PREFIX%JOB_EXECUTION e
+        JOIN %PREFIX%JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID
+        WHERE i.JOB_NAME = ?""";
+
+    /** Instances none of whose executions is still running or ended after the cutoff. */
+    private static final String PURGEABLE_INSTANCES_SQL = """
+        SELECT i.JOB_INSTANCE_ID
+        FROM %PREFIX%JOB_INSTANCE i
+        WHERE NOT EXISTS (SELECT 1 FROM %PREFIX%JOB_EXECUTION e
+                          WHERE e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID AND (e.END_TIME IS NULL OR e.END_TIME >= ?))
+        ORDER BY i.JOB_INSTANCE_ID
+        LIMIT ?""";
+
+    private static final String INSTANCE_EXECUTIONS_SQL =
+        "SELECT JOB_EXECUTION_ID FROM %PREFIX%JOB_EXECUTION WHERE JOB_INSTANCE_ID = ANY(?)";
+
+    /** Children first; the batch schema has no cascading deletes. */
+    private static final String[] DELETE_EXECUTIONS_SQL = {
+        "DELETE FROM import_rejects WHERE job_execution_id = ANY(?)",
+        "DELETE FROM upload_imports WHERE job_execution_id = ANY(?)",
+        """
+        DELETE FROM %PREFIX%STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN
+            (SELECT STEP_EXECUTION_ID FROM %PREFIX%STEP_EXECUTION WHERE JOB_EXECUTION_ID = ANY(?))""",
+        "DELETE FROM %PREFIX%STEP_EXECUTION WHERE JOB_EXECUTION_ID = ANY(?)",
+        "DELETE FROM %PREFIX%JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID = ANY(?)",
+        "DELETE FROM %PREFIX%JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID = ANY(?)",
+        "DELETE FROM %PREFIX%JOB_EXECUTION WHERE JOB_EXECUTION_ID = ANY(?)"
+    };
+
+    private static final String[] DELETE_INSTANCES_SQL = {
+        "DELETE FROM delta_import_keys WHERE job_instance_id = ANY(?)",
+        "DELETE FROM %PREFIX%JOB_INSTANCE WHERE JOB_INSTANCE_ID = ANY(?)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String tablePrefix;
+
+    public JobHistoryStore(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${spring.batch.jdbc.table-prefix:BATCH_}") String tablePrefix) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tablePrefix = tablePrefix;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String sql : CREATE_INDEX_SQL) {
+            jdbcTemplate.execute(prefixed(sql));
+        }
+    }
+
+    /**
+     * Executions of a job, latest first, optionally only those with a status or created
+     * within {@code [from, to)}.
+     *
+     * @param before only executions with a lower ID, to page on from the last one seen
+     */
+    public List<JobHistoryEntryDto> findExecutions(String jobName, BatchStatus status, LocalDateTime from,
+                                                   LocalDateTime to, Long before, int limit) {
+        StringBuilder sql = new StringBuilder(prefixed(HISTORY_SQL));
+        List<Object> args = new ArrayList<>();
+        args.add(jobName);
+        if (status != null) {
+            sql.append(" AND e.STATUS = ?");
+            args.add(status.name());
+        }
+        if (from != null) {
+            sql.append(" AND e.CREATE_TIME >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND e.CREATE_TIME < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (before != null) {
+            sql.append(" AND e.JOB_EXECUTION_ID < ?");
+            args.add(before);
+        }
+        // Execution IDs come from a sequence, so they are in creation order
+        sql.append(" ORDER BY e.JOB_EXECUTION_ID DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (resultSet, rowNum) -> entry(resultSet), args.toArray());
+    }
+
+    /**
+     * Deletes up to {@code maxInstances} job instances whose executions all ended before
+     * {@code cutoff}, with everything stored under their executions, in one transaction.
+     * Returns the number of instances deleted; fewer than asked means none are left.
+     */
+    public int purgeBefore(LocalDateTime cutoff, int maxInstances) {
+        Integer purged = transactionTemplate.execute(status -> {
+            Long[] instanceIds = jdbcTemplate.queryForList(prefixed(PURGEABLE_INSTANCES_SQL), Long.class,
+                Timestamp.valueOf(cutoff), maxInstances).toArray(Long[]::new);
+            if (instanceIds.length == 0) {
+                return 0;
+            }
+            Long[] executionIds = jdbcTemplate.query(prefixed(INSTANCE_EXECUTIONS_SQL),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", instanceIds)),
+                (resultSet, rowNum) -> resultSet.getLong(1)).toArray(Long[]::new);
+            deleteAll(DELETE_EXECUTIONS_SQL, executionIds);
+            deleteAll(DELETE_INSTANCES_SQL, instanceIds);
+            return instanceIds.length;
+        });
+        return purged == null ? 0 : purged;
+    }
+
+    private void deleteAll(String[] statements, Long[] ids) {
+        for (String sql : statements) {
+            jdbcTemplate.update(prefixed(sql), ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        }
+    }
+
+    private String prefixed(String sql) {
+        return sql.replace("%PREFIX%", tablePrefix);
+    }
+
+    private static JobHistoryEntryDto entry(ResultSet resultSet) throws SQLException {
+        return new JobHistoryEntryDto(
+            resultSet.getLong(1),
+            resultSet.getLong(2),
+            resultSet.getString(3),
+            resultSet.getString(4),
+            resultSet.getObject(5, LocalDateTime.class),
+            resultSet.getObject(6, LocalDateTime.class),
+            resultSet.getObject(7, LocalDateTime.class));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.studentbatch.launch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs import jobs on virtual threads, at most {@code batch.jobs.max-concurrent} at a
+ * time per node. Further jobs wait in a queue of {@code batch.jobs.queue-capacity};
+ * beyond that {@link #execute} rejects the job instead of starting yet another thread
+ * that would compete for the connection pool.
+ */
+@Component
+public class BoundedJobExecutor implements TaskExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedJobExecutor.class);
+
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("import-job-", 0).factory();
+    private final Counter rejected;
+
+    public BoundedJobExecutor(MeterRegistry meterRegistry,
+                              @Value("${batch.jobs.max-concurrent:4}") int maxConcurrent,
+                              @Value("${batch.jobs.queue-capacity:50}") int queueCapacity) {
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new Semaphore(maxConcurrent);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("studentbatch.jobs.queued", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("studentbatch.jobs.running", this, BoundedJobExecutor::getRunningCount).register(meterRegistry);
+        this.rejected = Counter.builder("studentbatch.jobs.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!queue.offer(task)) {
+            rejected.increment();
+            throw new TaskRejectedException("Import queue is full (" + queue.size() + " jobs waiting)");
+        }
+        dispatch();
+    }
+
+    // Called on submission and whenever a job finishes; a slot is only kept while there is a job to run in it
+    private void dispatch() {
+        while (!queue.isEmpty() && slots.tryAcquire()) {
+            Runnable next = queue.poll();
+            if (next == null) {
+                slots.release();
+                continue;
+            }
+            threadFactory.newThread(() -> run(next)).start();
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            log.error("Import job thread failed", t);
+        } finally {
+            slots.release();
+            dispatch();
+        }
+    }
+
+    /** Whether a job submitted now would have to wait for a running one to finish. */
+    public boolean isSaturated() {
+        return slots.availablePermits() == 0 || !queue.isEmpty();
+    }
+
+    /** Whether a job submitted now would be rejected. Advisory only; {@link #execute} has the final say. */
+    public boolean isQueueFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public int getRunningCount() {
+        return maxConcurrent - slots.availablePermits();
+    }
+}
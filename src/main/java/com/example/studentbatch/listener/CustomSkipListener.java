@@ -1,30 +1,148 @@
 package com.example.studentbatch.listener;
 
+import com.example.studentbatch.diagnostics.SkipReason;
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.rejects.RejectSink;
+import com.example.studentbatch.rejects.RejectedRecord;
+import com.example.studentbatch.util.ValidationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ItemProcessListener;
 import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes the lines an import drops to the {@link RejectSink}: those the step skipped
+ * after an exception and those validation filtered out. Skips are counted per
+ * {@link SkipReason} in the step execution context under {@code skipped.<reason>}.
+ * Nothing is logged per line beyond DEBUG; the rejects report has the details.
+ * <p>
+ * Validation runs again when a chunk is retried or rescanned, so the lines it filters
+ * out are held per chunk transaction and only offered once that transaction commits.
+ */
 @Component
-public class CustomSkipListener implements SkipListener<Object, Object> {
+public class CustomSkipListener implements SkipListener<StudentResult, StudentResult>,
+    ItemProcessListener<StudentResult, StudentResult> {
 
     private static final Logger log = LoggerFactory.getLogger(CustomSkipListener.class);
 
+    private static final String SKIPPED_PREFIX = "skipped.";
+    private static final SkipReason[] REASONS = SkipReason.values();
+
+    private final RejectSink rejectSink;
+
+    public CustomSkipListener(RejectSink rejectSink) {
+        this.rejectSink = rejectSink;
+    }
+
     @Override
     public void onSkipInRead(Throwable t) {
-        log.error("🚨 SKIP IN READ - Exception: {}, Message: {}",
-            t.getClass().getSimpleName(), t.getMessage(), t);
+        Long lineNumber = t instanceof FlatFileParseException parseException ? (long) parseException.getLineNumber() : null;
+        String line = t instanceof FlatFileParseException parseException ? parseException.getInput() : null;
+        skipped(RejectedRecord.READ, SkipReason.ofRead(t), lineNumber, line, t);
+    }
+
+    @Override
+    public void onSkipInProcess(StudentResult item, Throwable t) {
+        skipped(RejectedRecord.PROCESS, SkipReason.PROCESS_ERROR, lineNumber(item), format(item), t);
     }
 
     @Override
-    public void onSkipInWrite(Object item, Throwable t) {
-        log.error("🚨 SKIP IN WRITE - Item: {}, Exception: {}, Message: {}",
-            item, t.getClass().getSimpleName(), t.getMessage(), t);
+    public void onSkipInWrite(StudentResult item, Throwable t) {
+        skipped(RejectedRecord.WRITE, SkipReason.ofWrite(t), lineNumber(item), format(item), t);
     }
 
     @Override
-    public void onSkipInProcess(Object item, Throwable t) {
-        log.error("🚨 SKIP IN PROCESS - Item: {}, Exception: {}, Message: {}",
-            item, t.getClass().getSimpleName(), t.getMessage(), t);
+    public void afterProcess(StudentResult item, StudentResult result) {
+        // Counted per reason by the processor already
+        if (result == null) {
+            StepExecution stepExecution = currentStep();
+            if (stepExecution != null) {
+                offerAfterCommit(new RejectedRecord(stepExecution.getJobExecutionId(), stepExecution.getStepName(),
+                    RejectedRecord.VALIDATION, String.valueOf(ValidationUtils.validate(item)), lineNumber(item), format(item), null));
+            }
+        }
+    }
+
+    // The listener is shared by concurrent steps, so the rejects of a chunk are bound to its transaction
+    @SuppressWarnings("unchecked")
+    private void offerAfterCommit(RejectedRecord record) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rejectSink.offer(record);
+            return;
+        }
+        List<RejectedRecord> pending = (List<RejectedRecord>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<RejectedRecord> chunkRejects = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, chunkRejects);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    chunkRejects.forEach(rejectSink::offer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CustomSkipListener.this);
+                }
+            });
+            pending = chunkRejects;
+        }
+        pending.add(record);
+    }
+
+    private void skipped(String phase, SkipReason reason, Long lineNumber, String record, Throwable t) {
+        log.debug("Skipped in {} ({}): {}", phase, reason, t.getMessage());
+        StepExecution stepExecution = currentStep();
+        if (stepExecution == null) {
+            return;
+        }
+        ExecutionContext context = stepExecution.getExecutionContext();
+        String key = SKIPPED_PREFIX + reason.name();
+        context.putLong(key, context.getLong(key, 0L) + 1);
+        rejectSink.offer(new RejectedRecord(stepExecution.getJobExecutionId(), stepExecution.getStepName(),
+            phase, reason.name(), lineNumber, record, t.getClass().getSimpleName() + ": " + t.getMessage()));
+    }
+
+    private static StepExecution currentStep() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null : context.getStepExecution();
+    }
+
+    private static Long lineNumber(StudentResult item) {
+        return item == null ? null : item.getLineNumber();
+    }
+
+    private static String format(StudentResult item) {
+        if (item == null) {
+            return null;
+        }
+        return item.getStudentId() + "," + item.getCourseName() + "," + (item.getScore() == null ? "" : item.getScore());
+    }
+
+    /** Adds the per-reason skip counts stored in {@code context} to {@code totals}. */
+    public static void addSkips(ExecutionContext context, Map<SkipReason, Long> totals) {
+        for (SkipReason reason : REASONS) {
+            long count = context.getLong(SKIPPED_PREFIX + reason.name(), 0L);
+            if (count > 0) {
+                totals.merge(reason, count, Long::sum);
+            }
+        }
+    }
+
+    public static Map<SkipReason, Long> emptySkips() {
+        return new EnumMap<>(SkipReason.class);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package com.example.studentbatch.listener;
 
-import com.example.studentbatch.repository.StudentResultRepository;
+import com.example.studentbatch.delta.DeltaChangeCounter;
+import com.example.studentbatch.diagnostics.ProcessingDiagnostics;
+import com.example.studentbatch.diagnostics.RejectionReason;
+import com.example.studentbatch.diagnostics.SkipReason;
+import com.example.studentbatch.metrics.ImportProgress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.BatchStatus;
@@ -9,17 +13,14 @@ import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Component
 public class JobCompletionNotificationListener implements JobExecutionListener {
 
     private static final Logger log = LoggerFactory.getLogger(JobCompletionNotificationListener.class);
 
-    private final StudentResultRepository repository;
-
-    public JobCompletionNotificationListener(StudentResultRepository repository) {
-        this.repository = repository;
-    }
-
     @Override
     public void afterJob(JobExecution jobExecution) {
         log.info("=== JOB EXECUTION SUMMARY ===");
@@ -37,24 +38,45 @@ public class JobCompletionNotificationListener implements JobExecutionListener {
             log.info("Filter Count: {}", stepExecution.getFilterCount());
             log.info("Commit Count: {}", stepExecution.getCommitCount());
             log.info("Rollback Count: {}", stepExecution.getRollbackCount());
+            if (stepExecution.getStartTime() != null && stepExecution.getEndTime() != null) {
+                long elapsedMillis = Math.max(1, Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime()).toMillis());
+                log.info("Write Throughput: {} rows/sec", stepExecution.getWriteCount() * 1000L / elapsedMillis);
+            }
 
             // Custom counts from processor
-            Integer processedCount = stepExecution.getExecutionContext().getInt("processedCount", 0);
-            Integer rejectedCount = stepExecution.getExecutionContext().getInt("rejectedCount", 0);
+            long processedCount = stepExecution.getExecutionContext().getLong(ProcessingDiagnostics.PROCESSED_COUNT_KEY, 0L);
+            long rejectedCount = stepExecution.getExecutionContext().getLong(ProcessingDiagnostics.REJECTED_COUNT_KEY, 0L);
             log.info("Processed Count: {}", processedCount);
             log.info("Rejected Count: {}", rejectedCount);
+            Map<RejectionReason, Long> rejections = ProcessingDiagnostics.emptyRejections();
+            ProcessingDiagnostics.addRejections(stepExecution.getExecutionContext(), rejections);
+            if (!rejections.isEmpty()) {
+                log.info("Rejections by reason: {}", rejections);
+            }
+            Map<SkipReason, Long> skips = CustomSkipListener.emptySkips();
+            CustomSkipListener.addSkips(stepExecution.getExecutionContext(), skips);
+            if (!skips.isEmpty()) {
+                log.info("Skips by reason: {}", skips);
+            }
         }
 
-        // Database verification
-        try {
-            long totalRecords = repository.count();
-            log.info("📊 Total records in database: {}", totalRecords);
+        Map<String, Long> changes = DeltaChangeCounter.totals(jobExecution);
+        if (!changes.isEmpty()) {
+            log.info("Delta changes: {}", changes);
+        }
 
-            if (totalRecords == 0) {
-                log.error("🚨 NO RECORDS FOUND IN DATABASE! This indicates a problem.");
+        // Totals of the import steps rather than a count of the whole table
+        long rowsRead = 0;
+        long rowsWritten = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (ImportProgress.isImportStep(stepExecution)) {
+                rowsRead += stepExecution.getReadCount();
+                rowsWritten += stepExecution.getWriteCount();
             }
-        } catch (Exception e) {
-            log.error("Error checking database count", e);
+        }
+        log.info("📊 Rows read: {}, rows written: {}", rowsRead, rowsWritten);
+        if (jobExecution.getStatus() == BatchStatus.COMPLETED && rowsRead > 0 && rowsWritten == 0) {
+            log.warn("Import read {} rows but wrote none", rowsRead);
         }
 
         if (jobExecution.getStatus() == BatchStatus.COMPLETED) {
@@ -0,0 +1,200 @@
+package com.example.studentbatch.metrics;
+
+import com.example.studentbatch.diagnostics.SkipReason;
+import com.example.studentbatch.listener.CustomSkipListener;
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.writer.WriteMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes per-chunk timings and item counts of an import step, tagged with the step
+ * (partitions share their worker step's name) and the write mode:
+ * <ul>
+ *     <li>{@code studentbatch.chunk.read}, {@code .process}, {@code .write}: time spent in
+ *     each stage per chunk;</li>
+ *     <li>{@code studentbatch.chunk.commit}: from the end of the write to the commit,
+ *     which includes the skip listeners and the job repository update;</li>
+ *     <li>{@code studentbatch.chunk.duration}: the whole chunk, by outcome;</li>
+ *     <li>{@code studentbatch.items.read}, {@code .written}, {@code .filtered} and
+ *     {@code .skipped} by reason: counted from the step execution once a chunk has
+ *     committed, so a rolled back chunk is not counted twice.</li>
+ * </ul>
+ */
+@Component
+@StepScope
+public class ChunkMetricsListener implements StepExecutionListener, ChunkListener, ItemReadListener<StudentResult>,
+    ItemProcessListener<StudentResult, StudentResult>, ItemWriteListener<StudentResult> {
+
+    private final MeterRegistry meterRegistry;
+    private final String mode;
+
+    private Tags tags;
+    private Timer readTimer;
+    private Timer processTimer;
+    private Timer writeTimer;
+    private Timer commitTimer;
+    private Timer committedChunks;
+    private Timer rolledBackChunks;
+    private Counter read;
+    private Counter written;
+    private Counter filtered;
+    private final Map<SkipReason, Counter> skipped = new EnumMap<>(SkipReason.class);
+
+    private long chunkStart;
+    private long stageStart;
+    private long readNanos;
+    private long processNanos;
+    private long writeEnd;
+
+    private long lastReadCount;
+    private long lastWriteCount;
+    private long lastFilterCount;
+    private Map<SkipReason, Long> lastSkips = CustomSkipListener.emptySkips();
+
+    public ChunkMetricsListener(MeterRegistry meterRegistry, @Value("#{jobParameters['writeMode']}") String writeMode) {
+        this.meterRegistry = meterRegistry;
+        this.mode = WriteMode.fromParameter(writeMode).name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        String stepName = stepExecution.getStepName();
+        int partitionSeparator = stepName.indexOf(':');
+        tags = Tags.of("step", partitionSeparator < 0 ? stepName : stepName.substring(0, partitionSeparator), "mode", mode);
+
+        readTimer = Timer.builder("studentbatch.chunk.read").tags(tags).register(meterRegistry);
+        processTimer = Timer.builder("studentbatch.chunk.process").tags(tags).register(meterRegistry);
+        writeTimer = Timer.builder("studentbatch.chunk.write").tags(tags).register(meterRegistry);
+        commitTimer = Timer.builder("studentbatch.chunk.commit").tags(tags).publishPercentileHistogram().register(meterRegistry);
+        committedChunks = chunkTimer("committed");
+        rolledBackChunks = chunkTimer("rolled_back");
+        read = Counter.builder("studentbatch.items.read").tags(tags).register(meterRegistry);
+        written = Counter.builder("studentbatch.items.written").tags(tags).register(meterRegistry);
+        filtered = Counter.builder("studentbatch.items.filtered").tags(tags).register(meterRegistry);
+
+        // A restarted step only publishes what it adds to the counts it carries over
+        lastReadCount = stepExecution.getReadCount();
+        lastWriteCount = stepExecution.getWriteCount();
+        lastFilterCount = stepExecution.getFilterCount();
+        lastSkips = skips(stepExecution);
+    }
+
+    private Timer chunkTimer(String outcome) {
+        return Timer.builder("studentbatch.chunk.duration").tags(tags).tag("outcome", outcome)
+            .publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart = System.nanoTime();
+        readNanos = 0;
+        processNanos = 0;
+        writeEnd = 0;
+    }
+
+    @Override
+    public void beforeRead() {
+        stageStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterRead(StudentResult item) {
+        readNanos += System.nanoTime() - stageStart;
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        readNanos += System.nanoTime() - stageStart;
+    }
+
+    @Override
+    public void beforeProcess(StudentResult item) {
+        stageStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterProcess(StudentResult item, StudentResult result) {
+        processNanos += System.nanoTime() - stageStart;
+    }
+
+    @Override
+    public void onProcessError(StudentResult item, Exception e) {
+        processNanos += System.nanoTime() - stageStart;
+    }
+
+    @Override
+    public void beforeWrite(Chunk<? extends StudentResult> items) {
+        stageStart = System.nanoTime();
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends StudentResult> items) {
+        writeEnd = System.nanoTime();
+        writeTimer.record(writeEnd - stageStart, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<? extends StudentResult> items) {
+        writeTimer.record(System.nanoTime() - stageStart, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        long now = System.nanoTime();
+        committedChunks.record(now - chunkStart, TimeUnit.NANOSECONDS);
+        readTimer.record(readNanos, TimeUnit.NANOSECONDS);
+        processTimer.record(processNanos, TimeUnit.NANOSECONDS);
+        if (writeEnd != 0) {
+            commitTimer.record(now - writeEnd, TimeUnit.NANOSECONDS);
+        }
+
+        // The step execution counts include this chunk once it has committed
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        read.increment(stepExecution.getReadCount() - lastReadCount);
+        written.increment(stepExecution.getWriteCount() - lastWriteCount);
+        filtered.increment(stepExecution.getFilterCount() - lastFilterCount);
+        lastReadCount = stepExecution.getReadCount();
+        lastWriteCount = stepExecution.getWriteCount();
+        lastFilterCount = stepExecution.getFilterCount();
+
+        Map<SkipReason, Long> skips = skips(stepExecution);
+        skips.forEach((reason, count) -> {
+            long added = count - lastSkips.getOrDefault(reason, 0L);
+            if (added > 0) {
+                skipped.computeIfAbsent(reason, r -> Counter.builder("studentbatch.items.skipped").tags(tags)
+                    .tag("reason", r.name()).register(meterRegistry)).increment(added);
+            }
+        });
+        lastSkips = skips;
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        rolledBackChunks.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+    }
+
+    private static Map<SkipReason, Long> skips(StepExecution stepExecution) {
+        Map<SkipReason, Long> skips = CustomSkipListener.emptySkips();
+        CustomSkipListener.addSkips(stepExecution.getExecutionContext(), skips);
+        return skips;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.studentbatch.metrics;
+
+import com.example.studentbatch.dto.ImportProgressDto;
+import com.example.studentbatch.partition.ByteRangePartitioner;
+import com.example.studentbatch.profile.FileProfile;
+import com.example.studentbatch.reader.MappedStudentResultReader;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * How far an import has got, from the upload's line count and the read counts of its
+ * import steps. Shared by the job status endpoint, the progress gauge and the
+ * progress stream.
+ */
+public final class ImportProgress {
+
+    private ImportProgress() {
+    }
+
+    /** Percent of the upload's lines consumed, or {@code null} while it has not been profiled. */
+    public static Double percent(JobExecution jobExecution) {
+        FileProfile profile = FileProfile.from(jobExecution.getExecutionContext());
+        if (profile == null) {
+            return null;
+        }
+        if (jobExecution.getStatus() == BatchStatus.COMPLETED || profile.getDataLineCount() == 0) {
+            return 100.0;
+        }
+
+        long linesConsumed = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (isImportStep(stepExecution)) {
+                linesConsumed += stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+            }
+        }
+        return Math.min(100.0, linesConsumed * 100.0 / profile.getDataLineCount());
+    }
+
+    /**
+     * Rows and bytes an import has got through, from the in-memory step executions
+     * its chunks update. Bytes come from the readers' saved offsets, so they advance
+     * once per committed chunk; the ETA extrapolates the byte rate since the first
+     * import step started.
+     */
+    public static ImportProgressDto snapshot(JobExecution jobExecution) {
+        long rowsRead = 0;
+        long rowsWritten = 0;
+        long rowsFiltered = 0;
+        long rowsSkipped = 0;
+        long bytesConsumed = 0;
+        LocalDateTime started = null;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (!isImportStep(stepExecution)) {
+                continue;
+            }
+            rowsRead += stepExecution.getReadCount();
+            rowsWritten += stepExecution.getWriteCount();
+            rowsFiltered += stepExecution.getFilterCount();
+            rowsSkipped += stepExecution.getSkipCount();
+            bytesConsumed += bytesConsumed(stepExecution.getExecutionContext());
+            if (stepExecution.getStartTime() != null && (started == null || stepExecution.getStartTime().isBefore(started))) {
+                started = stepExecution.getStartTime();
+            }
+        }
+
+        FileProfile profile = FileProfile.from(jobExecution.getExecutionContext());
+        Long bytesTotal = profile == null ? null : profile.getByteSize();
+        Double percent = percent(jobExecution);
+        double seconds = started == null ? 0 : Duration.between(started, LocalDateTime.now()).toMillis() / 1000.0;
+        double rowsPerSecond = seconds > 0 ? (rowsRead + rowsSkipped) / seconds : 0;
+        Long etaSeconds = null;
+        if (!jobExecution.isRunning()) {
+            etaSeconds = 0L;
+        } else if (bytesTotal != null && bytesConsumed > 0 && seconds > 0) {
+            etaSeconds = Math.round(Math.max(0, bytesTotal - bytesConsumed) * seconds / bytesConsumed);
+        }
+        return new ImportProgressDto(jobExecution.getId(), jobExecution.getStatus().name(), rowsRead, rowsWritten,
+            rowsFiltered, rowsSkipped, bytesConsumed, bytesTotal, percent, rowsPerSecond, etaSeconds);
+    }
+
+    // A partition reads from its start offset; the single-threaded step reads from the start of the file
+    private static long bytesConsumed(ExecutionContext context) {
+        long startOffset = context.getLong(ByteRangePartitioner.START_OFFSET_KEY, 0L);
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (entry.getKey().endsWith(MappedStudentResultReader.BYTE_OFFSET_SUFFIX) && entry.getValue() instanceof Long offset) {
+                return Math.max(0, offset - startOffset);
+            }
+        }
+        return 0;
+    }
+
+    // The partition manager step only aggregates its workers once they are all done, so count workers instead
+    public static boolean isImportStep(StepExecution stepExecution) {
+        String stepName = stepExecution.getStepName();
+        return stepName.equals("importStudentResultsStep") || stepName.startsWith("importStudentResultsWorkerStep");
+    }
+}
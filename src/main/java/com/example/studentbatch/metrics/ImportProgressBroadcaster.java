@@ -0,0 +1,148 @@
+package com.example.studentbatch.metrics;
+
+import com.example.studentbatch.dto.ImportProgressDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the progress of the imports running on this node to Server-Sent Event
+ * subscribers. Progress is an {@link ImportProgress#snapshot} of the in-memory job
+ * execution, taken once per job every {@code batch.progress.interval} and sent to all
+ * of its subscribers when it has moved, so watchers cost neither the chunk threads nor
+ * the database anything. When the job ends, subscribers get a final {@code done}
+ * event and the stream is closed.
+ */
+@Component
+public class ImportProgressBroadcaster implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportProgressBroadcaster.class);
+
+    public static final String PROGRESS_EVENT = "progress";
+    public static final String DONE_EVENT = "done";
+
+    private final Map<Long, JobExecution> running = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, ImportProgressDto> lastSent = new ConcurrentHashMap<>();
+    private final Duration emitterTimeout;
+    private final long heartbeatTicks;
+    private long ticks;
+
+    public ImportProgressBroadcaster(MeterRegistry meterRegistry,
+                                     @Value("${batch.progress.emitter-timeout:PT30M}") Duration emitterTimeout,
+                                     @Value("${batch.progress.interval:PT1S}") Duration interval,
+                                     @Value("${batch.progress.heartbeat:PT15S}") Duration heartbeat) {
+        this.emitterTimeout = emitterTimeout;
+        this.heartbeatTicks = Math.max(1, heartbeat.toMillis() / Math.max(1, interval.toMillis()));
+        Gauge.builder("studentbatch.progress.subscribers", this, ImportProgressBroadcaster::getSubscriberCount).register(meterRegistry);
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        running.put(jobExecution.getId(), jobExecution);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        running.remove(jobExecution.getId());
+        lastSent.remove(jobExecution.getId());
+        Set<SseEmitter> emitters = subscribers.remove(jobExecution.getId());
+        if (emitters == null) {
+            return;
+        }
+        ImportProgressDto progress = ImportProgress.snapshot(jobExecution);
+        for (SseEmitter emitter : emitters) {
+            if (send(emitter, DONE_EVENT, progress)) {
+                emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Subscribes to the progress of a job running on this node, starting with its
+     * current progress. Returns {@code null} if the job is not running here.
+     */
+    public SseEmitter subscribe(long jobExecutionId) {
+        JobExecution jobExecution = running.get(jobExecutionId);
+        if (jobExecution == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Set<SseEmitter> emitters = subscribers.computeIfAbsent(jobExecutionId, id -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+        Runnable unsubscribe = () -> emitters.remove(emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        // The job may have ended between the lookup and the registration, after its subscribers were told
+        if (!running.containsKey(jobExecutionId)) {
+            emitters.remove(emitter);
+            subscribers.computeIfPresent(jobExecutionId, (id, remaining) -> remaining.isEmpty() ? null : remaining);
+            return null;
+        }
+        send(emitter, PROGRESS_EVENT, ImportProgress.snapshot(jobExecution));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${batch.progress.interval:PT1S}")
+    public void broadcast() {
+        boolean heartbeat = ++ticks % heartbeatTicks == 0;
+        subscribers.forEach((jobExecutionId, emitters) -> {
+            JobExecution jobExecution = running.get(jobExecutionId);
+            if (jobExecution == null || emitters.isEmpty()) {
+                return;
+            }
+            ImportProgressDto progress = ImportProgress.snapshot(jobExecution);
+            ImportProgressDto previous = lastSent.put(jobExecutionId, progress);
+            boolean moved = previous == null || previous.getRowsRead() != progress.getRowsRead()
+                || previous.getRowsSkipped() != progress.getRowsSkipped()
+                || !previous.getStatus().equals(progress.getStatus());
+            for (SseEmitter emitter : emitters) {
+                if (moved) {
+                    send(emitter, PROGRESS_EVENT, progress);
+                } else if (heartbeat) {
+                    // Keeps proxies from closing a stream that has been quiet for a while
+                    sendComment(emitter);
+                }
+            }
+        });
+    }
+
+    /** Open progress streams of all running jobs. */
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private static boolean send(SseEmitter emitter, String name, ImportProgressDto progress) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(progress));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping progress subscriber: {}", e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static void sendComment(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
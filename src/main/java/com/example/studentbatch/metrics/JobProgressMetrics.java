@@ -0,0 +1,50 @@
+package com.example.studentbatch.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes {@code studentbatch.job.progress}, the percent of its upload a running
+ * import has consumed, tagged with the job execution ID. The gauge reads the
+ * in-memory job execution the steps update, so a scrape costs no query; it is
+ * removed when the job ends. NaN until the upload has been profiled, and for
+ * streamed uploads, which are not.
+ */
+@Component
+public class JobProgressMetrics implements JobExecutionListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Gauge> gauges = new ConcurrentHashMap<>();
+
+    public JobProgressMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        gauges.put(jobExecution.getId(), Gauge.builder("studentbatch.job.progress", jobExecution, JobProgressMetrics::percent)
+            .tag("job_execution_id", String.valueOf(jobExecution.getId()))
+            .baseUnit("percent")
+            .strongReference(true)
+            .register(meterRegistry));
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Gauge gauge = gauges.remove(jobExecution.getId());
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    private static double percent(JobExecution jobExecution) {
+        Double percent = ImportProgress.percent(jobExecution);
+        return percent == null ? Double.NaN : percent;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.studentbatch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A course name and the int key that {@code student_results} refers to it by. Rows are
+ * only ever added, by {@link com.example.studentbatch.dictionary.StudentCourseDictionary};
+ * the unique index on the name is created by
+ * {@link com.example.studentbatch.config.StudentResultDictionaryMigration}.
+ */
+@Entity
+@Table(name = "courses")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Course {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "course_name", nullable = false)
+    private String courseName;
+}
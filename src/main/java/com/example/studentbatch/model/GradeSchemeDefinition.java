@@ -0,0 +1,29 @@
+package com.example.studentbatch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Grade cutoffs stored for the institution ({@code scope = '*'}) or for one course
+ * (the course name), see {@link com.example.studentbatch.grading.GradingEngine}.
+ */
+@Entity
+@Table(name = "grade_schemes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeSchemeDefinition {
+    @Id
+    @Column(name = "scope")
+    private String scope;
+
+    @Column(name = "cutoffs", nullable = false)
+    private String cutoffs;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
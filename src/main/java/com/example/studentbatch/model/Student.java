@@ -0,0 +1,26 @@
+package com.example.studentbatch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A student ID and the int key that {@code student_results} refers to it by. Rows are
+ * only ever added, by {@link com.example.studentbatch.dictionary.StudentCourseDictionary};
+ * the unique index on the ID is created by
+ * {@link com.example.studentbatch.config.StudentResultDictionaryMigration}.
+ */
+@Entity
+@Table(name = "students")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Student {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+}
@@ -0,0 +1,46 @@
+package com.example.studentbatch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-student totals maintained by the import job alongside {@code student_results},
+ * see {@link com.example.studentbatch.writer.StudentAggregateUpsertWriter}. Read-only
+ * from the application's side.
+ */
+@Entity
+@Table(name = "student_aggregates", indexes = @Index(name = "idx_student_aggregates_average", columnList = "average_score"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentAggregate {
+    @Id
+    @Column(name = "student_id")
+    private String studentId;
+
+    @Column(name = "course_count", nullable = false)
+    private int courseCount;
+
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Column(name = "average_score", nullable = false)
+    private double averageScore;
+
+    @Column(name = "grade_a", nullable = false)
+    private int gradeA;
+
+    @Column(name = "grade_b", nullable = false)
+    private int gradeB;
+
+    @Column(name = "grade_c", nullable = false)
+    private int gradeC;
+
+    @Column(name = "grade_d", nullable = false)
+    private int gradeD;
+
+    @Column(name = "grade_f", nullable = false)
+    private int gradeF;
+}
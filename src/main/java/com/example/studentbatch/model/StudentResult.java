@@ -1,33 +1,51 @@
 package com.example.studentbatch.model;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * A result as read from an upload and written by the import. The student and course
+ * are stored as the int keys of their {@link Student} and {@link Course} rows, which
+ * {@link com.example.studentbatch.writer.StudentResultKeyResolvingWriter} fills in from
+ * the natural IDs before a chunk is written; the natural IDs themselves are not columns.
+ * <p>
+ * The unique {@code (student_key, course_key)} index is created by
+ * {@link com.example.studentbatch.config.StudentResultKeyMigration}; it also serves
+ * lookups by student. The course index backs roster pages ordered by score.
+ */
 @Entity
-@Table(name = "student_results")
+@Table(name = "student_results", indexes = @Index(name = "idx_student_results_course_score", columnList = "course_key, score, student_key"))
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class StudentResult {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "student_id")
+    @Column(name = "student_key")
+    private Integer studentKey;
+
+    @Column(name = "course_key")
+    private Integer courseKey;
+
+    @Transient
     private String studentId;
 
-    @Column(name = "course_name")
+    @Transient
     private String courseName;
 
     private Integer score;
     private String grade;
 
+    // Line of the upload the result was read from, for the rejects report
+    @Transient
+    private Long lineNumber;
+
     public StudentResult(String studentId, String courseName, Integer score, String grade) {
         this.studentId = studentId;
         this.courseName = courseName;
         this.score = score;
         this.grade = grade;
     }
-}
\ No newline at end of file
+}
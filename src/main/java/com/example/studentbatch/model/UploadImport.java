@@ -0,0 +1,32 @@
+package com.example.studentbatch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest import of an upload with a given SHA-256 content hash, used to answer
+ * a re-upload of an already imported file with the earlier job.
+ */
+@Entity
+@Table(name = "upload_imports")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadImport {
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "job_execution_id", nullable = false)
+    private Long jobExecutionId;
+
+    @Column(name = "byte_size", nullable = false)
+    private long byteSize;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
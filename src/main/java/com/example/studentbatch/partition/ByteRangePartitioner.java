@@ -0,0 +1,123 @@
+package com.example.studentbatch.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits an uploaded CSV into line-aligned byte ranges, one per worker step. The
+ * header line is excluded from every range, and each boundary is moved forward to
+ * the start of the next line so no record is split between two partitions. Each
+ * range also carries the number of lines before it, header included, so that its
+ * reader numbers lines from the start of the file; counting them reads the whole file.
+ */
+public class ByteRangePartitioner implements Partitioner {
+
+    public static final String START_OFFSET_KEY = "startOffset";
+    public static final String END_OFFSET_KEY = "endOffset";
+    public static final String LINES_BEFORE_KEY = "linesBefore";
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+    private static final int COUNT_BUFFER_SIZE = 1024 * 1024;
+
+    private final Path file;
+    private final int maxPartitions;
+
+    public ByteRangePartitioner(Path file) {
+        this(file, Integer.MAX_VALUE);
+    }
+
+    public ByteRangePartitioner(Path file, int maxPartitions) {
+        this.file = file;
+        this.maxPartitions = maxPartitions;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int requestedGridSize) {
+        int gridSize = Math.min(requestedGridSize, maxPartitions);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = nextLineStart(channel, 0, size);
+
+            Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+            long rangeSize = Math.max(1, (size - dataStart) / Math.max(1, gridSize));
+            long start = dataStart;
+            long linesBefore = countLines(channel, 0, dataStart);
+            for (int i = 0; i < gridSize && start < size; i++) {
+                long end = i == gridSize - 1 ? size : nextLineStart(channel, start + rangeSize - 1, size);
+                partitions.put("partition" + i, range(start, end, linesBefore));
+                linesBefore += countLines(channel, start, end);
+                start = end;
+            }
+
+            // Always hand out at least one (possibly empty) range so the step runs and reports zero counts
+            if (partitions.isEmpty()) {
+                partitions.put("partition0", range(dataStart, size, linesBefore));
+            }
+            return partitions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to partition file " + file, e);
+        }
+    }
+
+    private static ExecutionContext range(long start, long end, long linesBefore) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(START_OFFSET_KEY, start);
+        context.putLong(END_OFFSET_KEY, end);
+        context.putLong(LINES_BEFORE_KEY, linesBefore);
+        return context;
+    }
+
+    /** Counts the line feeds in {@code [from, to)}. */
+    static long countLines(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COUNT_BUFFER_SIZE, Math.max(1, to - from)));
+        byte[] bytes = buffer.array();
+        long lines = 0;
+        long position = from;
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    lines++;
+                }
+            }
+            position += read;
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the offset just past the first line feed at or after {@code from}, or
+     * {@code size} when the rest of the file holds no line feed.
+     */
+    static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.studentbatch.partition;
+
+import com.example.studentbatch.profile.FileProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+import java.io.File;
+
+/**
+ * Routes an import to the partitioned step when the upload is large enough for the
+ * split to pay off, and to the single-threaded step otherwise.
+ */
+public class ImportModeDecider implements JobExecutionDecider {
+
+    public static final String PARTITIONED = "PARTITIONED";
+    public static final String SINGLE = "SINGLE";
+
+    private static final Logger log = LoggerFactory.getLogger(ImportModeDecider.class);
+
+    private final long minPartitionedFileBytes;
+
+    public ImportModeDecider(long minPartitionedFileBytes) {
+        this.minPartitionedFileBytes = minPartitionedFileBytes;
+    }
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        FileProfile profile = FileProfile.from(jobExecution.getExecutionContext());
+        long fileBytes;
+        if (profile != null) {
+            fileBytes = profile.getByteSize();
+        } else {
+            String filePath = jobExecution.getJobParameters().getString("filePath");
+            fileBytes = filePath != null ? new File(filePath).length() : 0;
+        }
+
+        if (minPartitionedFileBytes > 0 && fileBytes >= minPartitionedFileBytes) {
+            log.info("File is {} bytes, using partitioned import", fileBytes);
+            return new FlowExecutionStatus(PARTITIONED);
+        }
+        return new FlowExecutionStatus(SINGLE);
+    }
+}
@@ -1,49 +1,102 @@
 package com.example.studentbatch.processor;
 
+import com.example.studentbatch.diagnostics.ProcessingDiagnostics;
+import com.example.studentbatch.diagnostics.RejectionReason;
+import com.example.studentbatch.grading.GradeSchemes;
+import com.example.studentbatch.grading.GradingEngine;
 import com.example.studentbatch.model.StudentResult;
 import com.example.studentbatch.util.ValidationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Validates and grades each record. The per-record path does not log: counts per
+ * rejection reason are kept in {@link ProcessingDiagnostics} and saved with each
+ * chunk, one record in {@code batch.diagnostics.sample-rate} is dumped at INFO, and
+ * a job launched with {@code debug=true} dumps every record.
+ * <p>
+ * Grades are looked up in the {@link GradeSchemes} that were current when the step
+ * started.
+ */
 @Component
-public class StudentResultItemProcessor implements ItemProcessor<StudentResult, StudentResult> {
+@StepScope
+public class StudentResultItemProcessor implements ItemProcessor<StudentResult, StudentResult>, ItemStream {
 
     private static final Logger log = LoggerFactory.getLogger(StudentResultItemProcessor.class);
 
+    private final ProcessingDiagnostics diagnostics;
+    private final boolean debug;
+    private final GradeSchemes gradeSchemes;
+
+    public StudentResultItemProcessor() {
+        this(GradeSchemes.STANDARD);
+    }
+
+    public StudentResultItemProcessor(GradeSchemes gradeSchemes) {
+        this(0, false, gradeSchemes);
+    }
+
+    @Autowired
+    public StudentResultItemProcessor(@Value("${batch.diagnostics.sample-rate:10000}") long sampleRate,
+                                      @Value("#{jobParameters['debug']}") String debug,
+                                      GradingEngine gradingEngine) {
+        this(sampleRate, Boolean.parseBoolean(debug), gradingEngine.current());
+    }
+
+    StudentResultItemProcessor(long sampleRate, boolean debug, GradeSchemes gradeSchemes) {
+        this.diagnostics = new ProcessingDiagnostics(sampleRate);
+        this.debug = debug;
+        this.gradeSchemes = gradeSchemes;
+    }
+
     @Override
     public StudentResult process(StudentResult studentResult) throws Exception {
-        log.info("Processing student result: {}", studentResult);
-
-        log.info("Student ID: '{}', Course: '{}', Score: {}, Grade: '{}'",
-            studentResult.getStudentId(),
-            studentResult.getCourseName(),
-            studentResult.getScore(),
-            studentResult.getGrade());
-
-        boolean isValid = ValidationUtils.isValidStudentResult(studentResult);
-        log.info("Validation result: {}", isValid);
-
-        if (isValid) {
-            // Grade calculation logic
-            if (studentResult.getScore() >= 90) {
-                studentResult.setGrade("A");
-            } else if (studentResult.getScore() >= 80) {
-                studentResult.setGrade("B");
-            } else if (studentResult.getScore() >= 70) {
-                studentResult.setGrade("C");
-            } else if (studentResult.getScore() >= 60) {
-                studentResult.setGrade("D");
-            } else {
-                studentResult.setGrade("F");
-            }
+        RejectionReason rejection = ValidationUtils.validate(studentResult);
+
+        if (rejection == null) {
+            // Validation has checked the score is within 0-100
+            studentResult.setGrade(gradeSchemes.grade(studentResult.getCourseName(), studentResult.getScore()));
 
-            log.info("Successfully processed and returning: {}", studentResult);
+            if (diagnostics.accepted() || debug) {
+                dump("Accepted", studentResult, null);
+            }
             return studentResult;
         } else {
-            log.warn("REJECTING record due to validation failure: {}", studentResult);
+            if (diagnostics.rejected(rejection) || debug) {
+                dump("Rejected", studentResult, rejection);
+            }
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private void dump(String outcome, StudentResult studentResult, RejectionReason rejection) {
+        if (studentResult == null) {
+            log.info("{} record #{}: null ({})", outcome, diagnostics.getProcessed(), rejection);
+            return;
+        }
+        log.info("{} record #{}: studentId='{}', courseName='{}', score={}, grade='{}'{}",
+            outcome, diagnostics.getProcessed(), studentResult.getStudentId(), studentResult.getCourseName(),
+            studentResult.getScore(), studentResult.getGrade(), rejection != null ? " (" + rejection + ")" : "");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        diagnostics.restoreFrom(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        diagnostics.writeTo(executionContext);
+    }
+
+    public ProcessingDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.studentbatch.profile;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * One-pass summary of an upload, stored in the job {@link ExecutionContext} under
+ * {@code fileProfile.*} keys.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileProfile {
+
+    private static final String PREFIX = "fileProfile.";
+
+    private long byteSize;
+    private long lineCount;
+    private long emptyLineCount;
+    private boolean headerValid;
+    private String sha256;
+
+    /** Lines the import step will read: everything after the header, blank lines included. */
+    public long getDataLineCount() {
+        return Math.max(0, lineCount - 1);
+    }
+
+    public void writeTo(ExecutionContext context) {
+        context.putLong(PREFIX + "byteSize", byteSize);
+        context.putLong(PREFIX + "lineCount", lineCount);
+        context.putLong(PREFIX + "emptyLineCount", emptyLineCount);
+        context.put(PREFIX + "headerValid", headerValid);
+        context.putString(PREFIX + "sha256", sha256);
+    }
+
+    /** Returns the profile stored in {@code context}, or {@code null} if the upload was not profiled. */
+    public static FileProfile from(ExecutionContext context) {
+        if (!context.containsKey(PREFIX + "byteSize")) {
+            return null;
+        }
+        return new FileProfile(
+            context.getLong(PREFIX + "byteSize"),
+            context.getLong(PREFIX + "lineCount"),
+            context.getLong(PREFIX + "emptyLineCount"),
+            Boolean.TRUE.equals(context.get(PREFIX + "headerValid")),
+            context.getString(PREFIX + "sha256"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.studentbatch.profile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.nio.file.Path;
+
+/**
+ * Profiles the upload in a single streaming pass and publishes the result to the
+ * job execution context, where the partitioner and the status API pick it up.
+ */
+public class FileProfileTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(FileProfileTasklet.class);
+
+    private final Path file;
+
+    public FileProfileTasklet(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        FileProfile profile = FileProfiler.profile(file);
+        log.info("Profiled {}: {} bytes, {} lines ({} empty), header valid: {}, sha256: {}",
+            file.getFileName(), profile.getByteSize(), profile.getLineCount(), profile.getEmptyLineCount(),
+            profile.isHeaderValid(), profile.getSha256());
+        if (!profile.isHeaderValid()) {
+            log.warn("File {} does not start with the expected header '{}'", file.getFileName(), FileProfiler.EXPECTED_HEADER);
+        }
+
+        profile.writeTo(chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext());
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.studentbatch.profile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Computes a {@link FileProfile} incrementally, so it can be fed either from a file
+ * on disk or from the bytes of an upload as they arrive. Memory use is constant: only
+ * the header line is buffered, and only up to {@link #MAX_HEADER_BYTES}.
+ */
+public class FileProfiler {
+
+    public static final String EXPECTED_HEADER = "studentId,courseName,score";
+
+    private static final int MAX_HEADER_BYTES = 1024;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    private final MessageDigest digest;
+    private final byte[] header = new byte[MAX_HEADER_BYTES];
+    private int headerLength;
+    private boolean headerComplete;
+
+    private long byteSize;
+    private long lineCount;
+    private long emptyLineCount;
+    private boolean inLine;
+    private boolean lineBlank = true;
+
+    public FileProfiler() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static FileProfile profile(Path file) throws IOException {
+        FileProfiler profiler = new FileProfiler();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                profiler.update(buffer);
+                buffer.clear();
+            }
+        }
+        return profiler.finish();
+    }
+
+    /** Consumes the remaining bytes of {@code buffer}, leaving its position at the limit. */
+    public void update(ByteBuffer buffer) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        for (int i = start; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                lineCount++;
+                if (lineBlank) {
+                    emptyLineCount++;
+                }
+                inLine = false;
+                lineBlank = true;
+                headerComplete = true;
+            } else {
+                inLine = true;
+                if ((b & 0xff) > ' ') {
+                    lineBlank = false;
+                }
+                if (!headerComplete && headerLength < MAX_HEADER_BYTES) {
+                    header[headerLength++] = b;
+                }
+            }
+        }
+        byteSize += limit - start;
+        digest.update(buffer);
+    }
+
+    public FileProfile finish() {
+        // A last line without a trailing line feed still counts, as with Files.readAllLines
+        if (inLine) {
+            lineCount++;
+            if (lineBlank) {
+                emptyLineCount++;
+            }
+            inLine = false;
+        }
+        String headerLine = new String(Arrays.copyOf(header, headerLength), StandardCharsets.UTF_8).strip();
+        // Spreadsheet exports often start with a UTF-8 byte order mark
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        return new FileProfile(byteSize, lineCount, emptyLineCount,
+            EXPECTED_HEADER.equals(headerLine), HexFormat.of().formatHex(digest.digest()));
+    }
+}
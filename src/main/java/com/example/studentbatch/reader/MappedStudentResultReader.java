@@ -0,0 +1,374 @@
+package com.example.studentbatch.reader;
+
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.upload.UploadSpool;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads {@code studentId,courseName,score} records from a byte range of an upload
+ * through {@link FileChannel#map}. Fields are sliced straight out of the mapped
+ * buffer and the score is parsed from its bytes, so a record costs two Strings and
+ * the entity instead of a line String, a {@code FieldSet} and a reflective bind.
+ * <p>
+ * Behaves like the strict {@code FlatFileItemReader} it replaces: a line without
+ * exactly three fields, or with a non-numeric score, raises a
+ * {@link FlatFileParseException} that the step's skip policy handles, and an empty
+ * score maps to {@code null}. Lines containing a quote character are rare and fall
+ * back to {@link DelimitedLineTokenizer}. The byte offset of the next record is
+ * saved in the {@link ExecutionContext}, so a restart resumes where the last
+ * committed chunk ended.
+ * <p>
+ * Given the {@link UploadSpool} of a streaming upload, the reader follows the file as
+ * it grows: it reads up to the bytes written so far and waits for more instead of
+ * treating that point as the end, until the upload completes.
+ */
+public class MappedStudentResultReader implements ItemStreamReader<StudentResult> {
+
+    /** Suffix of the execution context key holding the offset of the next record, after the reader's name. */
+    public static final String BYTE_OFFSET_SUFFIX = ".byte.offset";
+
+    static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final String[] FIELD_NAMES = {"studentId", "courseName", "score"};
+
+    private final String name;
+    private final Path file;
+    private final long startOffset;
+    private final long requestedEndOffset;
+    private final boolean skipHeader;
+    private final long linesBefore;
+    private final long windowSize;
+    private final UploadSpool spool;
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long endOffset;
+    private long position;
+    private int lineNumber;
+    private byte[] scratch = new byte[256];
+
+    private DelimitedLineTokenizer quotedLineTokenizer;
+    private BeanWrapperFieldSetMapper<StudentResult> quotedLineMapper;
+
+    /**
+     * @param startOffset first byte to read
+     * @param endOffset   byte just past the range, or {@code -1} for the end of the file
+     * @param skipHeader  whether the line at {@code startOffset} is a header
+     */
+    public MappedStudentResultReader(String name, Path file, long startOffset, long endOffset, boolean skipHeader) {
+        this(name, file, startOffset, endOffset, skipHeader, null);
+    }
+
+    /**
+     * Reads a range of a complete file that holds no header line, numbering its lines
+     * after the {@code linesBefore} lines that precede {@code startOffset}.
+     */
+    public MappedStudentResultReader(String name, Path file, long startOffset, long endOffset, long linesBefore) {
+        this(name, file, startOffset, endOffset, false, linesBefore, DEFAULT_WINDOW_SIZE, null);
+    }
+
+    /**
+     * @param spool the upload still being written to {@code file}, or {@code null} if
+     *              the file is complete; a followed file is always read to its end
+     */
+    public MappedStudentResultReader(String name, Path file, long startOffset, long endOffset, boolean skipHeader, UploadSpool spool) {
+        this(name, file, startOffset, endOffset, skipHeader, DEFAULT_WINDOW_SIZE, spool);
+    }
+
+    MappedStudentResultReader(String name, Path file, long startOffset, long endOffset, boolean skipHeader, long windowSize) {
+        this(name, file, startOffset, endOffset, skipHeader, windowSize, null);
+    }
+
+    MappedStudentResultReader(String name, Path file, long startOffset, long endOffset, boolean skipHeader, long windowSize,
+                              UploadSpool spool) {
+        this(name, file, startOffset, endOffset, skipHeader, 0, windowSize, spool);
+    }
+
+    private MappedStudentResultReader(String name, Path file, long startOffset, long endOffset, boolean skipHeader,
+                                      long linesBefore, long windowSize, UploadSpool spool) {
+        this.name = name;
+        this.file = file;
+        this.startOffset = startOffset;
+        this.requestedEndOffset = spool != null ? -1 : endOffset;
+        this.skipHeader = skipHeader;
+        this.linesBefore = linesBefore;
+        this.windowSize = windowSize;
+        this.spool = spool;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            if (spool != null) {
+                endOffset = spool.length();
+            } else {
+                endOffset = requestedEndOffset < 0 ? channel.size() : Math.min(requestedEndOffset, channel.size());
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open " + file, e);
+        }
+
+        if (executionContext.containsKey(offsetKey())) {
+            position = executionContext.getLong(offsetKey());
+            lineNumber = executionContext.getInt(lineKey(), 0);
+        } else {
+            position = startOffset;
+            lineNumber = Math.toIntExact(linesBefore);
+            if (skipHeader && (position < endOffset || awaitMore())) {
+                position = nextLineStart();
+                lineNumber = 1;
+            }
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(offsetKey(), position);
+        executionContext.putInt(lineKey(), lineNumber);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to close " + file, e);
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    @Override
+    public StudentResult read() {
+        if (position >= endOffset && !awaitMore()) {
+            return null;
+        }
+
+        long lineStart = position;
+        long lineEnd = lineEnd(lineStart);
+        position = lineEnd < endOffset ? lineEnd + 1 : endOffset;
+        lineNumber++;
+
+        if (lineEnd > lineStart && byteAt(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+
+        int first = -1;
+        int second = -1;
+        int commas = 0;
+        int length = (int) (lineEnd - lineStart);
+        int base = (int) (lineStart - windowStart);
+        for (int i = 0; i < length; i++) {
+            byte b = window.get(base + i);
+            if (b == ',') {
+                if (commas == 0) {
+                    first = i;
+                } else if (commas == 1) {
+                    second = i;
+                }
+                commas++;
+            } else if (b == '"') {
+                return readQuotedLine(lineStart, length);
+            }
+        }
+
+        if (commas != 2) {
+            throw new FlatFileParseException("Incorrect number of tokens found in record: expected 3 actual " + (commas + 1)
+                + " at line " + lineNumber + " in " + file, lineAsString(lineStart, length), lineNumber);
+        }
+
+        StudentResult result = new StudentResult();
+        result.setStudentId(decode(base, first));
+        result.setCourseName(decode(base + first + 1, second - first - 1));
+        result.setScore(parseScore(base + second + 1, length - second - 1, lineStart, length));
+        result.setLineNumber((long) lineNumber);
+        return result;
+    }
+
+    private StudentResult readQuotedLine(long lineStart, int length) {
+        String line = lineAsString(lineStart, length);
+        if (quotedLineTokenizer == null) {
+            quotedLineTokenizer = new DelimitedLineTokenizer(",");
+            quotedLineTokenizer.setNames(FIELD_NAMES);
+            quotedLineTokenizer.setStrict(true);
+            quotedLineMapper = new BeanWrapperFieldSetMapper<>();
+            quotedLineMapper.setTargetType(StudentResult.class);
+            quotedLineMapper.setStrict(false);
+        }
+        StudentResult result;
+        try {
+            result = quotedLineMapper.mapFieldSet(quotedLineTokenizer.tokenize(line));
+        } catch (Exception e) {
+            throw new FlatFileParseException("Parsing error at line " + lineNumber + " in " + file, e, line, lineNumber);
+        }
+        result.setLineNumber((long) lineNumber);
+        return result;
+    }
+
+    /**
+     * Parses a decimal int from the window without materialising a String. Returns
+     * {@code null} for a blank field, the same as the bean-wrapper mapping.
+     */
+    private Integer parseScore(int from, int length, long lineStart, int lineLength) {
+        int i = from;
+        int to = from + length;
+        while (i < to && isBlank(window.get(i))) {
+            i++;
+        }
+        while (to > i && isBlank(window.get(to - 1))) {
+            to--;
+        }
+        if (i == to) {
+            return null;
+        }
+
+        boolean negative = false;
+        byte sign = window.get(i);
+        if (sign == '-' || sign == '+') {
+            negative = sign == '-';
+            i++;
+        }
+
+        long value = 0;
+        int digits = to - i;
+        if (digits == 0 || digits > 10) {
+            throw invalidScore(lineStart, lineLength);
+        }
+        for (; i < to; i++) {
+            int digit = window.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidScore(lineStart, lineLength);
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalidScore(lineStart, lineLength);
+        }
+        return (int) value;
+    }
+
+    private FlatFileParseException invalidScore(long lineStart, int length) {
+        return new FlatFileParseException("Invalid score at line " + lineNumber + " in " + file,
+            lineAsString(lineStart, length), lineNumber);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private String decode(int from, int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String lineAsString(long lineStart, int length) {
+        return decode((int) (lineStart - windowStart), length);
+    }
+
+    private long nextLineStart() {
+        long lineEnd = lineEnd(position);
+        return lineEnd < endOffset ? lineEnd + 1 : endOffset;
+    }
+
+    /**
+     * Returns the offset of the line feed ending the line at {@code lineStart}, or
+     * {@code endOffset} for an unterminated last line. Leaves the whole line mapped.
+     */
+    private long lineEnd(long lineStart) {
+        map(lineStart);
+        while (true) {
+            int base = (int) (lineStart - windowStart);
+            int limit = (int) (windowEnd - windowStart);
+            for (int i = base; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i;
+                }
+            }
+            if (windowEnd >= endOffset && !awaitMore()) {
+                return endOffset;
+            }
+            if (lineStart == windowStart && windowEnd - windowStart == windowSize) {
+                throw new FlatFileParseException("Line longer than " + windowSize + " bytes at line " + lineNumber
+                    + " in " + file, "", lineNumber);
+            }
+            // The line runs past the window: remap so that it starts at the beginning of one
+            map(lineStart, true);
+        }
+    }
+
+    /**
+     * Waits for a followed upload to grow past {@code endOffset} and extends the range
+     * to the bytes written by then. Returns {@code false} once the upload is complete,
+     * and straight away when not following an upload.
+     */
+    private boolean awaitMore() {
+        if (spool == null) {
+            return false;
+        }
+        try {
+            long available = spool.awaitBeyond(endOffset);
+            if (available <= endOffset) {
+                return false;
+            }
+            endOffset = available;
+            return true;
+        } catch (IOException e) {
+            throw new ItemStreamException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ItemStreamException("Interrupted while waiting for upload data for " + file, e);
+        }
+    }
+
+    private byte byteAt(long offset) {
+        return window.get((int) (offset - windowStart));
+    }
+
+    private void map(long offset) {
+        map(offset, false);
+    }
+
+    private void map(long offset, boolean force) {
+        if (!force && window != null && offset >= windowStart && offset < windowEnd) {
+            return;
+        }
+        try {
+            long length = Math.min(windowSize, endOffset - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            windowStart = offset;
+            windowEnd = offset + length;
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to map " + file + " at offset " + offset, e);
+        }
+    }
+
+    private String offsetKey() {
+        return name + BYTE_OFFSET_SUFFIX;
+    }
+
+    private String lineKey() {
+        return name + ".line.count";
+    }
+}
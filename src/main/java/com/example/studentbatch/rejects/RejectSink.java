@@ -0,0 +1,272 @@
+package com.example.studentbatch.rejects;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind store of skipped and rejected import lines in {@code import_rejects}.
+ * <p>
+ * {@link #offer} only enqueues, so a dirty upload costs the chunk thread no I/O; one
+ * background thread drains the queue and inserts {@code batch.rejects.batch-size} rows
+ * per statement. When the queue is full further records are dropped and counted
+ * rather than blocking the import; the per-reason counts in the step execution context
+ * stay exact either way. Each job is flushed before it completes, so its report is
+ * whole once the job status says it is done.
+ */
+@Component
+public class RejectSink implements InitializingBean, SmartLifecycle, JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RejectSink.class);
+
+    static final String CREATE_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS import_rejects (
+            id BIGSERIAL PRIMARY KEY,
+            job_execution_id BIGINT NOT NULL,
+            step_name VARCHAR(100) NOT NULL,
+            phase VARCHAR(20) NOT NULL,
+            reason VARCHAR(40) NOT NULL,
+            line_number BIGINT,
+            record TEXT,
+            message TEXT,
+            created_at TIMESTAMP NOT NULL
+        )""";
+
+    static final String CREATE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_import_rejects_job ON import_rejects (job_execution_id, id)";
+
+    static final String INSERT_SQL = """
+        INSERT INTO import_rejects (job_execution_id, step_name, phase, reason, line_number, record, message, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String REPORT_SQL = """
+        SELECT step_name, phase, reason, line_number, record, message
+        FROM import_rejects
+        WHERE job_execution_id = ?
+        ORDER BY id""";
+
+    private static final String REPORT_HEADER = "step,phase,reason,line,record,message\n";
+
+    // A mangled line can be as long as the reader's window; the start of it is enough to find it
+    static final int MAX_TEXT_LENGTH = 1000;
+
+    private static final int REPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BlockingQueue<RejectedRecord> queue;
+    private final int batchSize;
+    private final Duration flushTimeout;
+
+    /** Records offered and not yet written or given up on. */
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong droppedSinceLastWrite = new AtomicLong();
+    private final Counter written;
+    private final Counter dropped;
+    private volatile Thread writer;
+
+    public RejectSink(JdbcTemplate jdbcTemplate,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${batch.rejects.queue-capacity:10000}") int queueCapacity,
+                      @Value("${batch.rejects.batch-size:500}") int batchSize,
+                      @Value("${batch.rejects.flush-timeout:PT30S}") Duration flushTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushTimeout = flushTimeout;
+        this.written = Counter.builder("studentbatch.rejects.written").register(meterRegistry);
+        this.dropped = Counter.builder("studentbatch.rejects.dropped").register(meterRegistry);
+        Gauge.builder("studentbatch.rejects.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.execute(CREATE_INDEX_SQL);
+    }
+
+    /** Queues a record for writing; never blocks. Returns false if the queue was full and the record was dropped. */
+    public boolean offer(RejectedRecord record) {
+        pending.incrementAndGet();
+        if (queue.offer(record)) {
+            return true;
+        }
+        pending.decrementAndGet();
+        droppedSinceLastWrite.incrementAndGet();
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Waits until every record offered so far has been written, for at most
+     * {@code timeout}. Returns whether the queue was drained in time.
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (pending) {
+            while (pending.get() > 0) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                pending.wait(remainingMillis);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        try {
+            if (!flush(flushTimeout)) {
+                log.warn("Rejects of job {} are still being written after {}", jobExecution.getId(), flushTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Writes the stored rejects of a job as CSV, in the order they were recorded. */
+    public void writeReport(long jobExecutionId, Writer out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                out.write(REPORT_HEADER);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Fetched REPORT_FETCH_SIZE rows at a time, as the statement runs in a transaction
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(REPORT_SQL);
+                statement.setFetchSize(REPORT_FETCH_SIZE);
+                statement.setLong(1, jobExecutionId);
+                return statement;
+            }, resultSet -> {
+                long lineNumber = resultSet.getLong(4);
+                String lineColumn = resultSet.wasNull() ? "" : String.valueOf(lineNumber);
+                String line = String.join(",",
+                    csv(resultSet.getString(1)),
+                    csv(resultSet.getString(2)),
+                    csv(resultSet.getString(3)),
+                    lineColumn,
+                    csv(resultSet.getString(5)),
+                    csv(resultSet.getString(6)));
+                try {
+                    out.write(line);
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void drain() {
+        List<RejectedRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<RejectedRecord> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+                ps.setLong(1, record.getJobExecutionId());
+                ps.setString(2, record.getStepName());
+                ps.setString(3, record.getPhase());
+                ps.setString(4, record.getReason());
+                ps.setObject(5, record.getLineNumber());
+                ps.setString(6, truncate(record.getRecord()));
+                ps.setString(7, truncate(record.getMessage()));
+                ps.setTimestamp(8, now);
+            });
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not store {} rejected records: {}", batch.size(), e.getMessage());
+        } finally {
+            synchronized (pending) {
+                pending.addAndGet(-batch.size());
+                pending.notifyAll();
+            }
+        }
+
+        long droppedCount = droppedSinceLastWrite.getAndSet(0);
+        if (droppedCount > 0) {
+            log.warn("Rejects queue was full, {} rejected records were not stored", droppedCount);
+        }
+    }
+
+    private static String truncate(String text) {
+        return text == null || text.length() <= MAX_TEXT_LENGTH ? text : text.substring(0, MAX_TEXT_LENGTH);
+    }
+
+    @Override
+    public void start() {
+        writer = Thread.ofVirtual().name("import-rejects-writer").start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        try {
+            flush(flushTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread.interrupt();
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.studentbatch.rejects;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A line of an import that was skipped or rejected, as stored in {@code import_rejects}. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedRecord {
+
+    public static final String READ = "READ";
+    public static final String PROCESS = "PROCESS";
+    public static final String WRITE = "WRITE";
+    public static final String VALIDATION = "VALIDATION";
+
+    private long jobExecutionId;
+    private String stepName;
+    /** Where the record was dropped: {@link #READ}, {@link #PROCESS}, {@link #WRITE} or {@link #VALIDATION}. */
+    private String phase;
+    private String reason;
+    /** Line in the upload, when the reader knows it. */
+    private Long lineNumber;
+    private String record;
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.example.studentbatch.repository;
+
+import com.example.studentbatch.model.GradeSchemeDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GradeSchemeRepository extends JpaRepository<GradeSchemeDefinition, String> {
+}
@@ -0,0 +1,13 @@
+package com.example.studentbatch.repository;
+
+import com.example.studentbatch.model.StudentAggregate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StudentAggregateRepository extends JpaRepository<StudentAggregate, String> {
+    List<StudentAggregate> findByCourseCountGreaterThanEqualOrderByAverageScoreDescStudentIdAsc(int minCourseCount, Pageable pageable);
+}
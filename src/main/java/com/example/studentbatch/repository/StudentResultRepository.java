@@ -1,12 +1,79 @@
 package com.example.studentbatch.repository;
 
+import com.example.studentbatch.dto.CourseRosterEntryDto;
+import com.example.studentbatch.dto.StudentOverallResultDto;
 import com.example.studentbatch.model.StudentResult;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+/**
+ * Results are stored by student and course key; the queries join {@code students} and
+ * {@code courses} to take and return natural IDs.
+ */
 @Repository
 public interface StudentResultRepository extends JpaRepository<StudentResult, Long> {
-    List<StudentResult> findByStudentId(String studentId);
-}
\ No newline at end of file
+    /** A student's results by course name, read through the {@code (student_key, course_key)} index. */
+    @Query("""
+        SELECT new com.example.studentbatch.dto.StudentOverallResultDto$StudentResultDetail(c.courseName, r.score, r.grade)
+        FROM StudentResult r
+        JOIN Student s ON s.id = r.studentKey
+        JOIN Course c ON c.id = r.courseKey
+        WHERE s.studentId = :studentId
+        ORDER BY c.courseName""")
+    List<StudentOverallResultDto.StudentResultDetail> findDetailsByStudentId(@Param("studentId") String studentId);
+
+    /**
+     * The results of several students in one query, by student and course name. The IDs
+     * are bound as a single array, so the statement is the same for any number of them.
+     */
+    @Query(value = """
+        SELECT s.student_id AS "studentId", c.course_name AS "courseName", r.score, r.grade
+        FROM students s
+        JOIN student_results r ON r.student_key = s.id
+        JOIN courses c ON c.id = r.course_key
+        WHERE s.student_id = ANY(:studentIds)
+        ORDER BY s.student_id, c.course_name""", nativeQuery = true)
+    List<StudentResultRow> findRowsByStudentIds(@Param("studentIds") String[] studentIds);
+
+    /**
+     * The first page of a course roster, best score first, read through {@code idx_student_results_course_score}.
+     * The course key is looked up first, so that the index scan itself yields the rows in order.
+     */
+    @Query("""
+        SELECT new com.example.studentbatch.dto.CourseRosterEntryDto(s.studentId, r.score, r.grade)
+        FROM StudentResult r
+        JOIN Student s ON s.id = r.studentKey
+        WHERE r.courseKey = (SELECT c.id FROM Course c WHERE c.courseName = :courseName)
+        ORDER BY r.score DESC, r.studentKey DESC""")
+    List<CourseRosterEntryDto> findRoster(@Param("courseName") String courseName, Limit limit);
+
+    /**
+     * The roster page following the given score and student key: the index scan starts
+     * right after that entry, so a page costs the same however deep it is.
+     */
+    @Query("""
+        SELECT new com.example.studentbatch.dto.CourseRosterEntryDto(s.studentId, r.score, r.grade)
+        FROM StudentResult r
+        JOIN Student s ON s.id = r.studentKey
+        WHERE r.courseKey = (SELECT c.id FROM Course c WHERE c.courseName = :courseName)
+          AND (r.score, r.studentKey) < (:score, :studentKey)
+        ORDER BY r.score DESC, r.studentKey DESC""")
+    List<CourseRosterEntryDto> findRosterAfter(@Param("courseName") String courseName, @Param("score") int score,
+                                               @Param("studentKey") int studentKey, Limit limit);
+
+    /** Inserts or replaces the result for its {@code (student_key, course_key)}; unchanged results are not rewritten. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO student_results (student_key, course_key, score, grade)
+        VALUES (:#{#result.studentKey}, :#{#result.courseKey}, :#{#result.score}, :#{#result.grade})
+        ON CONFLICT (student_key, course_key) DO UPDATE SET score = EXCLUDED.score, grade = EXCLUDED.grade
+        WHERE student_results.score IS DISTINCT FROM EXCLUDED.score
+           OR student_results.grade IS DISTINCT FROM EXCLUDED.grade""", nativeQuery = true)
+    int upsert(@Param("result") StudentResult result);
+}
@@ -0,0 +1,12 @@
+package com.example.studentbatch.repository;
+
+/** A stored result, with its student; projection of the bulk lookup in {@link StudentResultRepository}. */
+public interface StudentResultRow {
+    String getStudentId();
+
+    String getCourseName();
+
+    Integer getScore();
+
+    String getGrade();
+}
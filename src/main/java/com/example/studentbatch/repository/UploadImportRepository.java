@@ -0,0 +1,9 @@
+package com.example.studentbatch.repository;
+
+import com.example.studentbatch.model.UploadImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UploadImportRepository extends JpaRepository<UploadImport, String> {
+}
@@ -1,9 +1,36 @@
 package com.example.studentbatch.service;
 
+import com.example.studentbatch.cache.StudentResultCache;
+import com.example.studentbatch.cache.StudentResultCacheCleaner;
+import com.example.studentbatch.diagnostics.ProcessingDiagnostics;
+import com.example.studentbatch.dictionary.StudentCourseDictionary;
+import com.example.studentbatch.diagnostics.RejectionReason;
+import com.example.studentbatch.diagnostics.SkipReason;
+import com.example.studentbatch.dto.CacheClearStatusDto;
+import com.example.studentbatch.dto.CourseRosterEntryDto;
+import com.example.studentbatch.dto.CourseRosterPageDto;
+import com.example.studentbatch.dto.ImportSubmissionDto;
+import com.example.studentbatch.dto.JobHistoryEntryDto;
+import com.example.studentbatch.dto.JobHistoryPageDto;
 import com.example.studentbatch.dto.StudentOverallResultDto;
+import com.example.studentbatch.exception.ImportQueueFullException;
 import com.example.studentbatch.exception.JobNotFoundException;
-import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.history.JobHistoryStore;
+import com.example.studentbatch.launch.BoundedJobExecutor;
+import com.example.studentbatch.listener.CustomSkipListener;
+import com.example.studentbatch.metrics.ImportProgress;
+import com.example.studentbatch.model.StudentAggregate;
+import com.example.studentbatch.model.UploadImport;
+import com.example.studentbatch.profile.FileProfile;
+import com.example.studentbatch.rejects.RejectSink;
+import com.example.studentbatch.repository.StudentAggregateRepository;
 import com.example.studentbatch.repository.StudentResultRepository;
+import com.example.studentbatch.repository.StudentResultRow;
+import com.example.studentbatch.repository.UploadImportRepository;
+import com.example.studentbatch.upload.StreamingUploadDecider;
+import com.example.studentbatch.upload.UploadSpool;
+import com.example.studentbatch.upload.UploadSpoolRegistry;
+import com.example.studentbatch.writer.WriteMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.*;
@@ -12,47 +39,90 @@ import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.JobOperator;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Date;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalDouble;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class BatchJobService {
 
     private static final Logger log = LoggerFactory.getLogger(BatchJobService.class);
+    private static final long STREAM_TRANSFER_SIZE = 1024 * 1024;
     private final StudentResultRepository studentResultRepository;
+    private final StudentAggregateRepository studentAggregateRepository;
     private final JobLauncher jobLauncher;
     private final Job importStudentResultsJob;
     private final JobExplorer jobExplorer;
     private final JobOperator jobOperator;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final StudentResultCache studentResultCache;
+    private final StudentResultCacheCleaner studentResultCacheCleaner;
+    private final BoundedJobExecutor importJobExecutor;
+    private final UploadSpoolRegistry uploadSpools;
+    private final UploadImportRepository uploadImportRepository;
+    private final RejectSink rejectSink;
+    private final JobHistoryStore jobHistoryStore;
+    private final StudentCourseDictionary dictionary;
 
     @Value("${batch.upload.directory:/tmp/batch-uploads}")
     private String uploadDirectory;
 
+    @Value("${batch.write.mode:jpa}")
+    private String defaultWriteMode;
+
     public BatchJobService(JobLauncher jobLauncher,
                            Job importStudentResultsJob,
                            JobExplorer jobExplorer,
                            JobOperator jobOperator,
-                           RedisTemplate<String, Object> redisTemplate,StudentResultRepository studentResultRepository) {
+                           StudentResultRepository studentResultRepository,
+                           StudentAggregateRepository studentAggregateRepository,
+                           StudentResultCache studentResultCache,
+                           StudentResultCacheCleaner studentResultCacheCleaner,
+                           BoundedJobExecutor importJobExecutor,
+                           UploadSpoolRegistry uploadSpools,
+                           UploadImportRepository uploadImportRepository,
+                           RejectSink rejectSink,
+                           JobHistoryStore jobHistoryStore,
+                           StudentCourseDictionary dictionary) {
         this.jobLauncher = jobLauncher;
         this.importStudentResultsJob = importStudentResultsJob;
         this.jobExplorer = jobExplorer;
         this.jobOperator = jobOperator;
-        this.redisTemplate = redisTemplate;
         this.studentResultRepository = studentResultRepository;
+        this.studentAggregateRepository = studentAggregateRepository;
+        this.studentResultCache = studentResultCache;
+        this.studentResultCacheCleaner = studentResultCacheCleaner;
+        this.importJobExecutor = importJobExecutor;
+        this.uploadSpools = uploadSpools;
+        this.uploadImportRepository = uploadImportRepository;
+        this.rejectSink = rejectSink;
+        this.jobHistoryStore = jobHistoryStore;
+        this.dictionary = dictionary;
     }
 
     @PostConstruct
@@ -79,7 +149,122 @@ public class BatchJobService {
         }
     }
 
-    public Long startImportJob(MultipartFile file) throws IOException, JobExecutionException {
+    public ImportSubmissionDto startImportJob(MultipartFile file, String writeMode, boolean debug) throws IOException, JobExecutionException {
+        WriteMode mode = admit(writeMode);
+
+        Path filePath = newUploadPath(file.getOriginalFilename());
+        MessageDigest digest = newContentDigest();
+        long size;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            size = Files.copy(in, filePath);
+        }
+
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        Long previousJobExecutionId = findCompletedImport(contentHash);
+        if (previousJobExecutionId != null) {
+            Files.deleteIfExists(filePath);
+            log.info("Upload {} has the same content as completed job {}, not importing it again",
+                file.getOriginalFilename(), previousJobExecutionId);
+            return new ImportSubmissionDto(previousJobExecutionId, false, true);
+        }
+
+        log.info("Starting job for file: {} (writeMode={})", filePath.toAbsolutePath(), mode.parameterValue());
+        ImportSubmissionDto submission = launch(filePath, mode, debug, false);
+        recordImport(contentHash, submission.getJobExecutionId(), size);
+        return submission;
+    }
+
+    /**
+     * Spools a raw request body to the upload directory and starts the import before
+     * the body has fully arrived: the job's reader follows the spool file as it grows.
+     * The body is transferred straight into the file channel, without a multipart
+     * temp file or a second copy. Returns once the whole body has been written.
+     * <p>
+     * The content hash is only known at that point, so a body that turns out to
+     * repeat a completed import has its job stopped and reports the earlier one.
+     */
+    public ImportSubmissionDto startStreamingImportJob(InputStream body, String filename, String writeMode, boolean debug)
+        throws IOException, JobExecutionException {
+        WriteMode mode = admit(writeMode);
+
+        Path filePath = newUploadPath(filename);
+        MessageDigest digest = newContentDigest();
+        try (FileChannel out = FileChannel.open(filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             ReadableByteChannel in = Channels.newChannel(new DigestInputStream(body, digest))) {
+            UploadSpool spool = uploadSpools.register(filePath);
+            ImportSubmissionDto submission;
+            try {
+                log.info("Starting streaming job for file: {} (writeMode={})", filePath.toAbsolutePath(), mode.parameterValue());
+                submission = launch(filePath, mode, debug, true);
+            } catch (Exception e) {
+                uploadSpools.remove(spool);
+                throw e;
+            }
+
+            try {
+                long written = 0;
+                long transferred;
+                // A blocking source only transfers 0 bytes at end of stream
+                while ((transferred = out.transferFrom(in, written, STREAM_TRANSFER_SIZE)) > 0) {
+                    written += transferred;
+                    spool.advance(written);
+                }
+                spool.complete(written);
+                log.info("Received {} bytes for job {}", written, submission.getJobExecutionId());
+
+                String contentHash = HexFormat.of().formatHex(digest.digest());
+                Long previousJobExecutionId = findCompletedImport(contentHash);
+                if (previousJobExecutionId != null) {
+                    log.info("Streamed upload for job {} has the same content as completed job {}, stopping it",
+                        submission.getJobExecutionId(), previousJobExecutionId);
+                    abandonStreamingImport(submission.getJobExecutionId(), filePath);
+                    return new ImportSubmissionDto(previousJobExecutionId, false, true);
+                }
+                recordImport(contentHash, submission.getJobExecutionId(), written);
+                return submission;
+            } catch (IOException e) {
+                spool.fail(e);
+                abandonStreamingImport(submission.getJobExecutionId(), filePath);
+                throw e;
+            } finally {
+                uploadSpools.remove(spool);
+            }
+        }
+    }
+
+    // Resolve the write mode and check for queue room up front, so a bad request is rejected before the file is stored
+    private WriteMode admit(String writeMode) {
+        WriteMode mode = WriteMode.fromParameter(writeMode != null ? writeMode : defaultWriteMode);
+        if (importJobExecutor.isQueueFull()) {
+            throw new ImportQueueFullException("Too many imports in progress, try again later.");
+        }
+        return mode;
+    }
+
+    private static MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** The job that last imported this content, if it completed; a failed or stopped import does not count. */
+    private Long findCompletedImport(String contentHash) {
+        return uploadImportRepository.findById(contentHash)
+            .map(UploadImport::getJobExecutionId)
+            .filter(jobExecutionId -> {
+                JobExecution jobExecution = jobExplorer.getJobExecution(jobExecutionId);
+                return jobExecution != null && jobExecution.getStatus() == BatchStatus.COMPLETED;
+            })
+            .orElse(null);
+    }
+
+    private void recordImport(String contentHash, Long jobExecutionId, long byteSize) {
+        uploadImportRepository.save(new UploadImport(contentHash, jobExecutionId, byteSize, LocalDateTime.now()));
+    }
+
+    private Path newUploadPath(String originalFilename) throws IOException {
         // Ensure the upload directory exists (double-check)
         Path uploadPath = Paths.get(uploadDirectory);
         if (!Files.exists(uploadPath)) {
@@ -87,25 +272,37 @@ public class BatchJobService {
         }
 
         // Create a unique file name to avoid conflicts if multiple files with the same name are uploaded
-        String originalFilename = file.getOriginalFilename();
         if (originalFilename == null || originalFilename.trim().isEmpty()) {
             originalFilename = "uploaded_file";
         }
-        String uniqueFilename = System.currentTimeMillis() + "_" + originalFilename;
-        Path filePath = Paths.get(uploadDirectory, uniqueFilename);
-        Files.copy(file.getInputStream(), filePath);
-
-        log.info("Starting job for file: {}", filePath.toAbsolutePath());
+        // Keep only the last path segment so a client-supplied name cannot point outside the upload directory
+        String uniqueFilename = System.currentTimeMillis() + "_" + Paths.get(originalFilename).getFileName();
+        return Paths.get(uploadDirectory, uniqueFilename);
+    }
 
-        JobParameters jobParameters = new JobParametersBuilder()
+    private ImportSubmissionDto launch(Path filePath, WriteMode mode, boolean debug, boolean streaming)
+        throws IOException, JobExecutionException {
+        JobParametersBuilder parameters = new JobParametersBuilder()
             .addString("filePath", filePath.toAbsolutePath().toString())
+            .addString("writeMode", mode.parameterValue())
+            .addString("debug", Boolean.toString(debug));
+        if (streaming) {
+            parameters.addString(StreamingUploadDecider.STREAMING_PARAMETER, "true");
+        }
+        JobParameters jobParameters = parameters
             .addLong("time", System.currentTimeMillis())
             .toJobParameters();
 
         try {
+            boolean queued = importJobExecutor.isSaturated();
             JobExecution jobExecution = jobLauncher.run(importStudentResultsJob, jobParameters);
-            log.info("Job started with ID: {}", jobExecution.getId());
-            return jobExecution.getId();
+            // The launcher marks a job the executor rejected as FAILED without ever starting it
+            if (jobExecution.getStatus() == BatchStatus.FAILED && jobExecution.getStartTime() == null) {
+                Files.deleteIfExists(filePath);
+                throw new ImportQueueFullException("Too many imports in progress, try again later.");
+            }
+            log.info("Job {} with ID: {}", queued ? "queued" : "started", jobExecution.getId());
+            return new ImportSubmissionDto(jobExecution.getId(), queued, false);
         } catch (JobInstanceAlreadyCompleteException e) {
             log.warn("Job for file {} already completed: {}", filePath.getFileName(), e.getMessage());
             throw e;
@@ -115,6 +312,24 @@ public class BatchJobService {
         }
     }
 
+    /**
+     * Makes sure an import whose upload broke off, or turned out to be a duplicate,
+     * does not run on to the end: a waiting reader fails through its spool, and a
+     * queued job is stopped and finds no file should it start anyway.
+     */
+    private void abandonStreamingImport(Long jobExecutionId, Path filePath) {
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            log.warn("Could not delete partial upload {}: {}", filePath, e.getMessage());
+        }
+        try {
+            jobOperator.stop(jobExecutionId);
+        } catch (Exception e) {
+            log.debug("Job {} could not be stopped: {}", jobExecutionId, e.getMessage());
+        }
+    }
+
     public JobExecution getJobStatus(Long jobExecutionId) {
         JobExecution jobExecution = jobExplorer.getJobExecution(jobExecutionId);
         if (jobExecution == null) {
@@ -123,12 +338,59 @@ public class BatchJobService {
         return jobExecution;
     }
 
-    public List<JobExecution> getJobHistory(String jobName) {
-        List<JobInstance> jobInstances = jobExplorer.getJobInstances(jobName, 0, 100);
-        return jobInstances.stream()
-            .flatMap(instance -> jobExplorer.getJobExecutions(instance).stream())
-            .sorted((je1, je2) -> je2.getCreateTime().compareTo(je1.getCreateTime()))
-            .collect(Collectors.toList());
+    /**
+     * Estimates how far an import has got from the upload's line count and the read
+     * counts of its import steps. Returns {@code null} when the upload has not been
+     * profiled yet.
+     */
+    public Double getProgressPercent(JobExecution jobExecution) {
+        return ImportProgress.percent(jobExecution);
+    }
+
+    /** Validation rejections of an import so far, by reason. */
+    public Map<RejectionReason, Long> getRejectionCounts(JobExecution jobExecution) {
+        Map<RejectionReason, Long> rejections = ProcessingDiagnostics.emptyRejections();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (ImportProgress.isImportStep(stepExecution)) {
+                ProcessingDiagnostics.addRejections(stepExecution.getExecutionContext(), rejections);
+            }
+        }
+        return rejections;
+    }
+
+    /** Skipped lines of an import so far, by reason. */
+    public Map<SkipReason, Long> getSkipCounts(JobExecution jobExecution) {
+        Map<SkipReason, Long> skips = CustomSkipListener.emptySkips();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (ImportProgress.isImportStep(stepExecution)) {
+                CustomSkipListener.addSkips(stepExecution.getExecutionContext(), skips);
+            }
+        }
+        return skips;
+    }
+
+    /**
+     * Writes the lines an import skipped or rejected as CSV. While the job runs, lines
+     * still queued for the rejects table are not included yet.
+     */
+    public void writeRejectsReport(Long jobExecutionId, Writer out) {
+        rejectSink.writeReport(jobExecutionId, out);
+    }
+
+    /**
+     * A page of a job's executions, latest first, optionally filtered by status and by
+     * creation time within {@code [from, to)}.
+     */
+    public JobHistoryPageDto getJobHistory(String jobName, BatchStatus status, LocalDateTime from, LocalDateTime to,
+                                           Long before, int limit) {
+        // One row more than the page tells whether another page follows
+        List<JobHistoryEntryDto> executions = jobHistoryStore.findExecutions(jobName, status, from, to, before, limit + 1);
+        Long nextCursor = null;
+        if (executions.size() > limit) {
+            executions = executions.subList(0, limit);
+            nextCursor = executions.get(limit - 1).getJobExecutionId();
+        }
+        return new JobHistoryPageDto(jobName, executions, nextCursor);
     }
 
     public String stopJob(Long jobExecutionId) throws JobExecutionException, JobNotFoundException {
@@ -145,47 +407,146 @@ public class BatchJobService {
         }
     }
 
-    public void clearRedisCache() {
-        try {
-            Set<String> keys = redisTemplate.keys("*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.info("Cleared {} keys from Redis cache.", keys.size());
-            } else {
-                log.info("Redis cache is already empty.");
-            }
-        } catch (Exception e) {
-            log.error("Error clearing Redis cache", e);
-            throw new RuntimeException("Failed to clear Redis cache", e);
-        }
+    /** Clears the student results cache on every node and starts reclaiming its Redis memory. */
+    public CacheClearStatusDto clearCache() {
+        return studentResultCacheCleaner.clear();
     }
 
+    /** Progress of the latest cache cleanup started on this node, or {@code null}. */
+    public CacheClearStatusDto getCacheClearStatus() {
+        return studentResultCacheCleaner.status();
+    }
 
     public StudentOverallResultDto getStudentResults(String studentId) {
-        List<StudentResult> results = studentResultRepository.findByStudentId(studentId);
+        return studentResultCache.get(studentId, () -> loadStudentResults(studentId));
+    }
+
+    /** The student's aggregate only, without the per-course rows; a single primary-key read. */
+    public StudentOverallResultDto getStudentSummary(String studentId) {
+        return studentAggregateRepository.findById(studentId)
+            .map(aggregate -> toDto(aggregate, null))
+            .orElse(null);
+    }
+
+    /** Students with at least {@code minCourseCount} courses, best average first. */
+    public List<StudentOverallResultDto> getLeaderboard(int limit, int minCourseCount) {
+        return studentAggregateRepository
+            .findByCourseCountGreaterThanEqualOrderByAverageScoreDescStudentIdAsc(minCourseCount, PageRequest.of(0, limit))
+            .stream()
+            .map(aggregate -> toDto(aggregate, null))
+            .toList();
+    }
+
+    /**
+     * Results of several students, resolved together: one pass through the cache, and one
+     * query each for the results and aggregates of the students it misses.
+     *
+     * @return the results in the order of {@code studentIds}; students without results are left out
+     */
+    public Collection<StudentOverallResultDto> getStudentResults(Collection<String> studentIds) {
+        return studentResultCache.getAll(studentIds, this::loadStudentResults).values();
+    }
+
+    private StudentOverallResultDto loadStudentResults(String studentId) {
+        List<StudentOverallResultDto.StudentResultDetail> courseDetails = studentResultRepository.findDetailsByStudentId(studentId);
 
-        if (results.isEmpty()) {
+        if (courseDetails.isEmpty()) {
             return null;
         }
+        return toDto(studentId, courseDetails, studentAggregateRepository.findById(studentId).orElse(null));
+    }
+
+    private Map<String, StudentOverallResultDto> loadStudentResults(List<String> studentIds) {
+        Map<String, List<StudentOverallResultDto.StudentResultDetail>> courseDetails = new LinkedHashMap<>();
+        for (StudentResultRow row : studentResultRepository.findRowsByStudentIds(studentIds.toArray(String[]::new))) {
+            courseDetails.computeIfAbsent(row.getStudentId(), studentId -> new ArrayList<>())
+                .add(new StudentOverallResultDto.StudentResultDetail(row.getCourseName(), row.getScore(), row.getGrade()));
+        }
+        if (courseDetails.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, StudentAggregate> aggregates = new HashMap<>();
+        studentAggregateRepository.findAllById(courseDetails.keySet())
+            .forEach(aggregate -> aggregates.put(aggregate.getStudentId(), aggregate));
 
-        // Map StudentResult entities to StudentResultDetail DTOs
-        List<StudentOverallResultDto.StudentResultDetail> courseDetails = results.stream()
-            .map(sr -> new StudentOverallResultDto.StudentResultDetail(
-                sr.getCourseName(),
-                sr.getScore(),
-                sr.getGrade()
-            ))
-            .collect(Collectors.toList());
+        Map<String, StudentOverallResultDto> loaded = new LinkedHashMap<>();
+        courseDetails.forEach((studentId, details) -> loaded.put(studentId, toDto(studentId, details, aggregates.get(studentId))));
+        return loaded;
+    }
 
-        // Calculate overall average score
-        OptionalDouble averageScore = results.stream()
-            .mapToInt(StudentResult::getScore)
+    private static StudentOverallResultDto toDto(String studentId,
+                                                 List<StudentOverallResultDto.StudentResultDetail> courseDetails,
+                                                 StudentAggregate aggregate) {
+        if (aggregate != null) {
+            return toDto(aggregate, courseDetails);
+        }
+
+        // Rows imported before student_aggregates existed have no aggregate yet
+        OptionalDouble averageScore = courseDetails.stream()
+            .mapToInt(StudentOverallResultDto.StudentResultDetail::getScore)
             .average();
 
         return new StudentOverallResultDto(
             studentId,
             courseDetails,
-            averageScore.isPresent() ? averageScore.getAsDouble() : 0.0
+            averageScore.isPresent() ? averageScore.getAsDouble() : 0.0,
+            courseDetails.size(),
+            null
+        );
+    }
+
+    /**
+     * One page of a course's results, best score first. {@code after} is the
+     * {@code nextCursor} of the previous page, or null for the first page.
+     *
+     * @throws IllegalArgumentException if {@code after} is not a cursor of this roster
+     */
+    public CourseRosterPageDto getCourseRoster(String courseName, int limit, String after) {
+        // One row more than the page tells whether another page follows
+        Limit pageAndOne = Limit.of(limit + 1);
+        List<CourseRosterEntryDto> results;
+        if (after == null) {
+            results = studentResultRepository.findRoster(courseName, pageAndOne);
+        } else {
+            int separator = after.indexOf(':');
+            int score;
+            try {
+                score = Integer.parseInt(after.substring(0, Math.max(separator, 0)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed roster cursor: " + after);
+            }
+            // Rows are ordered by student key; the cursor keeps the student ID so that it stays readable
+            Integer studentKey = dictionary.students().find(after.substring(separator + 1));
+            if (studentKey == null) {
+                throw new IllegalArgumentException("Unknown student in roster cursor: " + after);
+            }
+            results = studentResultRepository.findRosterAfter(courseName, score, studentKey, pageAndOne);
+        }
+
+        String nextCursor = null;
+        if (results.size() > limit) {
+            results = results.subList(0, limit);
+            CourseRosterEntryDto last = results.get(limit - 1);
+            nextCursor = last.getScore() + ":" + last.getStudentId();
+        }
+        return new CourseRosterPageDto(courseName, results, nextCursor);
+    }
+
+    private static StudentOverallResultDto toDto(StudentAggregate aggregate,
+                                                 List<StudentOverallResultDto.StudentResultDetail> courseDetails) {
+        Map<String, Integer> gradeDistribution = new LinkedHashMap<>();
+        gradeDistribution.put("A", aggregate.getGradeA());
+        gradeDistribution.put("B", aggregate.getGradeB());
+        gradeDistribution.put("C", aggregate.getGradeC());
+        gradeDistribution.put("D", aggregate.getGradeD());
+        gradeDistribution.put("F", aggregate.getGradeF());
+        return new StudentOverallResultDto(
+            aggregate.getStudentId(),
+            courseDetails,
+            aggregate.getAverageScore(),
+            aggregate.getCourseCount(),
+            gradeDistribution
         );
     }
-}
\ No newline at end of file
+}
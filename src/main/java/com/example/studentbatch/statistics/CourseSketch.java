@@ -0,0 +1,189 @@
+package com.example.studentbatch.statistics;
+
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import com.example.studentbatch.grading.GradeScheme;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact score and grade counts of one course: a counter per score from 0 to
+ * {@value GradeScheme#MAX_SCORE} and one per grade. Sketches of any split of the
+ * results merge by adding counters, and mean, standard deviation and percentiles all
+ * follow from the counts, so no result has to be read twice.
+ */
+public final class CourseSketch {
+
+    public static final int SCORE_BANDS = 10;
+
+    private final long[] scoreCounts;
+    private final long[] gradeCounts;
+
+    public CourseSketch() {
+        this(new long[GradeScheme.MAX_SCORE + 1], new long[GradeScheme.GRADES.size()]);
+    }
+
+    private CourseSketch(long[] scoreCounts, long[] gradeCounts) {
+        this.scoreCounts = scoreCounts;
+        this.gradeCounts = gradeCounts;
+    }
+
+    /** A sketch over the given counters, as returned by {@link #getScoreCounts} and {@link #getGradeCounts}. */
+    public static CourseSketch of(long[] scoreCounts, long[] gradeCounts) {
+        if (scoreCounts.length != GradeScheme.MAX_SCORE + 1 || gradeCounts.length != GradeScheme.GRADES.size()) {
+            throw new IllegalArgumentException("Expected " + (GradeScheme.MAX_SCORE + 1) + " score and "
+                + GradeScheme.GRADES.size() + " grade counters");
+        }
+        return new CourseSketch(scoreCounts.clone(), gradeCounts.clone());
+    }
+
+    /**
+     * Counts one result. A grade outside {@link GradeScheme#GRADES} only counts its score.
+     *
+     * @param gradeIndex index of the grade in {@link GradeScheme#GRADES}, or -1
+     */
+    public void add(int score, int gradeIndex) {
+        scoreCounts[score]++;
+        if (gradeIndex >= 0) {
+            gradeCounts[gradeIndex]++;
+        }
+    }
+
+    public void add(int score, String grade) {
+        add(score, GradeScheme.GRADES.indexOf(grade));
+    }
+
+    public void merge(CourseSketch other) {
+        for (int i = 0; i < scoreCounts.length; i++) {
+            scoreCounts[i] += other.scoreCounts[i];
+        }
+        for (int i = 0; i < gradeCounts.length; i++) {
+            gradeCounts[i] += other.gradeCounts[i];
+        }
+    }
+
+    public long count() {
+        long count = 0;
+        for (long scoreCount : scoreCounts) {
+            count += scoreCount;
+        }
+        return count;
+    }
+
+    public double mean() {
+        long count = 0;
+        long sum = 0;
+        for (int score = 0; score < scoreCounts.length; score++) {
+            count += scoreCounts[score];
+            sum += scoreCounts[score] * score;
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Population standard deviation of the scores. */
+    public double standardDeviation() {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        double mean = mean();
+        double squares = 0;
+        for (int score = 0; score < scoreCounts.length; score++) {
+            squares += scoreCounts[score] * (score - mean) * (score - mean);
+        }
+        return Math.sqrt(squares / count);
+    }
+
+    /** The score at a percentile from 0 to 100, by nearest rank; 0 for an empty sketch. */
+    public int scoreAtPercentile(int percentile) {
+        return scoreAtRank(Math.max(1, (long) Math.ceil(percentile / 100.0 * count())));
+    }
+
+    // The rank-th lowest score, counting from 1
+    private int scoreAtRank(long rank) {
+        long seen = 0;
+        for (int score = 0; score < scoreCounts.length; score++) {
+            seen += scoreCounts[score];
+            if (seen >= rank) {
+                return score;
+            }
+        }
+        return 0;
+    }
+
+    private int maxScore() {
+        for (int score = scoreCounts.length - 1; score > 0; score--) {
+            if (scoreCounts[score] > 0) {
+                return score;
+            }
+        }
+        return 0;
+    }
+
+    public long[] getScoreCounts() {
+        return scoreCounts.clone();
+    }
+
+    public long[] getGradeCounts() {
+        return gradeCounts.clone();
+    }
+
+    /**
+     * Summary statistics of the sketch. Given percentiles, the score histogram in
+     * {@value #SCORE_BANDS} bands and the score at each percentile are included too.
+     */
+    public CourseStatisticsDto toStatistics(String courseName, int[] percentiles) {
+        Map<String, Long> gradeDistribution = new LinkedHashMap<>();
+        for (int grade = 0; grade < gradeCounts.length; grade++) {
+            gradeDistribution.put(GradeScheme.GRADES.get(grade), gradeCounts[grade]);
+        }
+        CourseStatisticsDto statistics = new CourseStatisticsDto(courseName, null, count(), mean(), standardDeviation(),
+            scoreAtRank(1), maxScore(), gradeDistribution, null, null);
+        if (percentiles != null) {
+            statistics.setScoreHistogram(scoreBands());
+            Map<String, Integer> scoresAtPercentiles = new LinkedHashMap<>();
+            for (int percentile : percentiles) {
+                scoresAtPercentiles.put("p" + percentile, scoreAtPercentile(percentile));
+            }
+            statistics.setPercentiles(scoresAtPercentiles);
+        }
+        return statistics;
+    }
+
+    private Map<String, Long> scoreBands() {
+        Map<String, Long> bands = new LinkedHashMap<>();
+        for (int band = 0; band < SCORE_BANDS; band++) {
+            int from = band * 10;
+            int to = band == SCORE_BANDS - 1 ? GradeScheme.MAX_SCORE : from + 9;
+            long count = 0;
+            for (int score = from; score <= to; score++) {
+                count += scoreCounts[score];
+            }
+            bands.put(from + "-" + to, count);
+        }
+        return bands;
+    }
+
+    /** The counters as a comma-separated string, scores first, for an execution context. */
+    public String encode() {
+        StringBuilder encoded = new StringBuilder(4 * (scoreCounts.length + gradeCounts.length));
+        for (long scoreCount : scoreCounts) {
+            encoded.append(scoreCount).append(',');
+        }
+        for (long gradeCount : gradeCounts) {
+            encoded.append(gradeCount).append(',');
+        }
+        encoded.setLength(encoded.length() - 1);
+        return encoded.toString();
+    }
+
+    public static CourseSketch decode(String encoded) {
+        long[] counts = Arrays.stream(encoded.split(",")).mapToLong(Long::parseLong).toArray();
+        int scores = GradeScheme.MAX_SCORE + 1;
+        if (counts.length != scores + GradeScheme.GRADES.size()) {
+            throw new IllegalArgumentException("Malformed course sketch with " + counts.length + " counters");
+        }
+        return new CourseSketch(Arrays.copyOf(counts, scores), Arrays.copyOfRange(counts, scores, counts.length));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.studentbatch.statistics;
+
+import com.example.studentbatch.model.StudentResult;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts every written result into a {@link CourseSketch} of its course, as the import
+ * goes. Like {@link com.example.studentbatch.delta.DeltaChangeCounter}, a chunk only
+ * counts once its transaction commits. The sketches are saved in the step
+ * {@link ExecutionContext} at the end of the step, one entry per course, and
+ * {@link #merged} adds up those of all (partition) steps of an import.
+ */
+@Component
+@StepScope
+public class CourseStatisticsCollector implements ItemWriteListener<StudentResult>, StepExecutionListener {
+
+    public static final String KEY_PREFIX = "courseStatistics.";
+
+    private final Map<String, CourseSketch> sketches = new HashMap<>();
+
+    @Override
+    public void afterWrite(Chunk<? extends StudentResult> items) {
+        Map<String, CourseSketch> chunkSketches = new HashMap<>();
+        for (StudentResult result : items) {
+            chunkSketches.computeIfAbsent(result.getCourseName(), course -> new CourseSketch())
+                .add(result.getScore(), result.getGrade());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            merge(sketches, chunkSketches);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                merge(sketches, chunkSketches);
+            }
+        });
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        sketches.clear();
+        sketches.putAll(read(stepExecution.getExecutionContext()));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        sketches.forEach((course, sketch) -> context.putString(KEY_PREFIX + course, sketch.encode()));
+        return null;
+    }
+
+    /** The sketches of all steps of an import, by course name. */
+    public static Map<String, CourseSketch> merged(JobExecution jobExecution) {
+        Map<String, CourseSketch> merged = new TreeMap<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            merge(merged, read(stepExecution.getExecutionContext()));
+        }
+        return merged;
+    }
+
+    private static Map<String, CourseSketch> read(ExecutionContext context) {
+        Map<String, CourseSketch> read = new HashMap<>();
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (entry.getKey().startsWith(KEY_PREFIX)) {
+                read.put(entry.getKey().substring(KEY_PREFIX.length()), CourseSketch.decode((String) entry.getValue()));
+            }
+        }
+        return read;
+    }
+
+    private static void merge(Map<String, CourseSketch> into, Map<String, CourseSketch> sketches) {
+        sketches.forEach((course, sketch) -> into.computeIfAbsent(course, key -> new CourseSketch()).merge(sketch));
+    }
+}
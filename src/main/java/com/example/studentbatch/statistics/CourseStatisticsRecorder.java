@@ -0,0 +1,43 @@
+package com.example.studentbatch.statistics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Merges the course sketches collected by the steps of a completed import and stores
+ * them; no results are read back from the database.
+ */
+@Component
+public class CourseStatisticsRecorder implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CourseStatisticsRecorder.class);
+
+    private final CourseStatisticsStore store;
+
+    public CourseStatisticsRecorder(CourseStatisticsStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            return;
+        }
+        Map<String, CourseSketch> sketches = CourseStatisticsCollector.merged(jobExecution);
+        if (sketches.isEmpty()) {
+            return;
+        }
+        try {
+            store.save(jobExecution.getId(), sketches);
+            log.info("Stored statistics of {} courses for job execution {}", sketches.size(), jobExecution.getId());
+        } catch (RuntimeException e) {
+            log.error("Could not store course statistics for job execution {}", jobExecution.getId(), e);
+        }
+    }
+}
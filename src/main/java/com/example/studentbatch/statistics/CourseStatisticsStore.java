@@ -0,0 +1,116 @@
+package com.example.studentbatch.statistics;
+
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the course sketches of each completed import in {@code course_statistics}, one
+ * row per import and course. Besides the counters, which any percentile can be read
+ * from later, each row holds the mean, standard deviation, median and 90th percentile
+ * for queries in plain SQL.
+ */
+@Component
+public class CourseStatisticsStore implements InitializingBean {
+
+    static final String CREATE_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS course_statistics (
+            job_execution_id BIGINT NOT NULL,
+            course_name VARCHAR(255) NOT NULL,
+            result_count BIGINT NOT NULL,
+            mean DOUBLE PRECISION NOT NULL,
+            standard_deviation DOUBLE PRECISION NOT NULL,
+            median INTEGER NOT NULL,
+            p90 INTEGER NOT NULL,
+            score_counts BIGINT[] NOT NULL,
+            grade_counts BIGINT[] NOT NULL,
+            created_at TIMESTAMP NOT NULL,
+            PRIMARY KEY (job_execution_id, course_name)
+        )""";
+
+    static final String CREATE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_course_statistics_course ON course_statistics (course_name, job_execution_id)";
+
+    static final String INSERT_SQL = """
+        INSERT INTO course_statistics (job_execution_id, course_name, result_count, mean, standard_deviation,
+                                       median, p90, score_counts, grade_counts, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (job_execution_id, course_name) DO NOTHING""";
+
+    private static final String SELECT_COLUMNS = "SELECT job_execution_id, course_name, score_counts, grade_counts FROM course_statistics ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseStatisticsStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.execute(CREATE_INDEX_SQL);
+    }
+
+    public void save(long jobExecutionId, Map<String, CourseSketch> sketches) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<String, CourseSketch>> entries = new ArrayList<>(sketches.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            CourseSketch sketch = entry.getValue();
+            ps.setLong(1, jobExecutionId);
+            ps.setString(2, entry.getKey());
+            ps.setLong(3, sketch.count());
+            ps.setDouble(4, sketch.mean());
+            ps.setDouble(5, sketch.standardDeviation());
+            ps.setInt(6, sketch.scoreAtPercentile(50));
+            ps.setInt(7, sketch.scoreAtPercentile(90));
+            ps.setArray(8, ps.getConnection().createArrayOf("bigint", boxed(sketch.getScoreCounts())));
+            ps.setArray(9, ps.getConnection().createArrayOf("bigint", boxed(sketch.getGradeCounts())));
+            ps.setTimestamp(10, now);
+        });
+    }
+
+    /** Statistics of every course of an import, in course name order. */
+    public List<CourseStatisticsDto> findByJobExecution(long jobExecutionId, int[] percentiles) {
+        return jdbcTemplate.query(SELECT_COLUMNS + "WHERE job_execution_id = ? ORDER BY course_name",
+            (resultSet, rowNum) -> statistics(resultSet, percentiles), jobExecutionId);
+    }
+
+    /** Statistics of a course in the latest import that contained it, or null. */
+    public CourseStatisticsDto findLatest(String courseName, int[] percentiles) {
+        List<CourseStatisticsDto> latest = jdbcTemplate.query(
+            SELECT_COLUMNS + "WHERE course_name = ? ORDER BY job_execution_id DESC LIMIT 1",
+            (resultSet, rowNum) -> statistics(resultSet, percentiles), courseName);
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    /** The latest import with statistics, or null if there is none. */
+    public Long findLatestJobExecutionId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(job_execution_id) FROM course_statistics", Long.class);
+    }
+
+    private static CourseStatisticsDto statistics(ResultSet resultSet, int[] percentiles) throws SQLException {
+        CourseSketch sketch = CourseSketch.of(unboxed(resultSet.getArray(3)), unboxed(resultSet.getArray(4)));
+        CourseStatisticsDto statistics = sketch.toStatistics(resultSet.getString(2), percentiles);
+        statistics.setJobExecutionId(resultSet.getLong(1));
+        return statistics;
+    }
+
+    private static Long[] boxed(long[] counts) {
+        return Arrays.stream(counts).boxed().toArray(Long[]::new);
+    }
+
+    private static long[] unboxed(Array array) throws SQLException {
+        return Arrays.stream((Long[]) array.getArray()).mapToLong(Long::longValue).toArray();
+    }
+}
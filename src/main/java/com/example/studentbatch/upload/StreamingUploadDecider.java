@@ -0,0 +1,25 @@
+package com.example.studentbatch.upload;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+/**
+ * Sends imports of a streaming upload straight to the single-threaded step: the
+ * file is still growing, so it can be neither profiled up front nor split into
+ * byte ranges.
+ */
+public class StreamingUploadDecider implements JobExecutionDecider {
+
+    public static final String STREAMING = "STREAMING";
+    public static final String SPOOLED = "SPOOLED";
+
+    public static final String STREAMING_PARAMETER = "streaming";
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        boolean streaming = Boolean.parseBoolean(jobExecution.getJobParameters().getString(STREAMING_PARAMETER));
+        return new FlowExecutionStatus(streaming ? STREAMING : SPOOLED);
+    }
+}
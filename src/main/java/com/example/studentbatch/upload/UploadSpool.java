@@ -0,0 +1,101 @@
+package com.example.studentbatch.upload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A file that a streaming upload is still being written to. The request thread
+ * {@link #advance advances} the written length as bytes land on disk, and the
+ * import's reader {@link #awaitBeyond waits} on it whenever it catches up, so parsing
+ * starts while the rest of the body is still arriving.
+ */
+public class UploadSpool {
+
+    private final Path file;
+    private final Duration idleTimeout;
+
+    // A lock rather than synchronized: readers wait on virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition grown = lock.newCondition();
+    private long length;
+    private boolean complete;
+    private IOException failure;
+
+    public UploadSpool(Path file, Duration idleTimeout) {
+        this.file = file;
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void advance(long writtenLength) {
+        lock.lock();
+        try {
+            length = writtenLength;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void complete(long finalLength) {
+        lock.lock();
+        try {
+            length = finalLength;
+            complete = true;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void fail(IOException cause) {
+        lock.lock();
+        try {
+            failure = cause;
+            grown.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long length() {
+        lock.lock();
+        try {
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until more than {@code offset} bytes have been written or the upload has
+     * completed, and returns the length written by then; a return value of at most
+     * {@code offset} means there is nothing more to read.
+     *
+     * @throws IOException if the upload failed, or no bytes arrived within the idle timeout
+     */
+    public long awaitBeyond(long offset) throws IOException, InterruptedException {
+        lock.lock();
+        try {
+            long nanos = idleTimeout.toNanos();
+            while (length <= offset && !complete && failure == null) {
+                if (nanos <= 0) {
+                    throw new IOException("No upload data received for " + idleTimeout + " at offset " + offset + " of " + file);
+                }
+                nanos = grown.awaitNanos(nanos);
+            }
+            if (failure != null) {
+                throw new IOException("Upload of " + file + " failed", failure);
+            }
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
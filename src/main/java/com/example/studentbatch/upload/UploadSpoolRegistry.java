@@ -0,0 +1,39 @@
+package com.example.studentbatch.upload;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming uploads that are still being written, by spool file. A file without an
+ * entry is complete: either it was never streamed or its upload has finished.
+ */
+@Component
+public class UploadSpoolRegistry {
+
+    private final Map<Path, UploadSpool> spools = new ConcurrentHashMap<>();
+    private final Duration idleTimeout;
+
+    public UploadSpoolRegistry(@Value("${batch.upload.stream.idle-timeout:PT5M}") Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public UploadSpool register(Path file) {
+        UploadSpool spool = new UploadSpool(file.toAbsolutePath(), idleTimeout);
+        spools.put(spool.getFile(), spool);
+        return spool;
+    }
+
+    /** The spool still being written to {@code file}, or {@code null} if the file is complete. */
+    public UploadSpool find(Path file) {
+        return spools.get(file.toAbsolutePath());
+    }
+
+    public void remove(UploadSpool spool) {
+        spools.remove(spool.getFile(), spool);
+    }
+}
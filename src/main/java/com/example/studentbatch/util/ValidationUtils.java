@@ -1,38 +1,39 @@
 package com.example.studentbatch.util;
 
+import com.example.studentbatch.diagnostics.RejectionReason;
 import com.example.studentbatch.model.StudentResult;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class ValidationUtils {
 
-    private static final Logger log = LoggerFactory.getLogger(ValidationUtils.class);
-
     public static boolean isValidStudentResult(StudentResult studentResult) {
+        return validate(studentResult) == null;
+    }
+
+    /**
+     * Returns why {@code studentResult} is invalid, or {@code null} if it is valid.
+     * Runs once per imported record, so it neither logs nor allocates; callers decide
+     * what to report.
+     */
+    public static RejectionReason validate(StudentResult studentResult) {
         if (studentResult == null) {
-            log.warn("StudentResult is null");
-            return false;
+            return RejectionReason.NULL_RECORD;
         }
 
         // Check student ID
-        if (studentResult.getStudentId() == null || studentResult.getStudentId().trim().isEmpty()) {
-            log.warn("Invalid studentId: '{}'", studentResult.getStudentId());
-            return false;
+        if (studentResult.getStudentId() == null || studentResult.getStudentId().isBlank()) {
+            return RejectionReason.INVALID_STUDENT_ID;
         }
 
         // Check course name
-        if (studentResult.getCourseName() == null || studentResult.getCourseName().trim().isEmpty()) {
-            log.warn("Invalid courseName: '{}'", studentResult.getCourseName());
-            return false;
+        if (studentResult.getCourseName() == null || studentResult.getCourseName().isBlank()) {
+            return RejectionReason.INVALID_COURSE_NAME;
         }
 
         // Check score
         if (studentResult.getScore() == null || studentResult.getScore() < 0 || studentResult.getScore() > 100) {
-            log.warn("Invalid score: {}", studentResult.getScore());
-            return false;
+            return RejectionReason.INVALID_SCORE;
         }
 
-        log.info("StudentResult passed validation: {}", studentResult);
-        return true;
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Brings the {@code student_aggregates} rows of every student in a chunk up to date,
+ * in the same transaction as the rows themselves. Since results are upserted, a
+ * chunk may replace scores rather than add them, so the aggregates are recomputed
+ * from {@code student_results} instead of being adjusted by deltas. Aggregates are kept
+ * by student ID, and the recompute reaches a student's results through {@code students}.
+ * <p>
+ * The aggregate rows are created if missing and locked before the recompute. A chunk
+ * touching the same student therefore waits for the other one to commit, and its
+ * recompute, a new statement with a new snapshot, sees those rows too. Locks are
+ * taken in student ID order so that concurrent partitions cannot deadlock.
+ */
+public class StudentAggregateUpsertWriter implements ItemWriter<StudentResult> {
+
+    static final String ENSURE_SQL = """
+        INSERT INTO student_aggregates
+            (student_id, course_count, score_sum, average_score, grade_a, grade_b, grade_c, grade_d, grade_f)
+        SELECT student_id, 0, 0, 0, 0, 0, 0, 0, 0 FROM unnest(?) AS s(student_id) ORDER BY student_id
+        ON CONFLICT (student_id) DO NOTHING""";
+
+    static final String LOCK_SQL =
+        "SELECT student_id FROM student_aggregates WHERE student_id = ANY(?) ORDER BY student_id FOR UPDATE";
+
+    static final String RECOMPUTE_SQL = """
+        UPDATE student_aggregates a SET
+            course_count = r.course_count,
+            score_sum = r.score_sum,
+            average_score = r.average_score,
+            grade_a = r.grade_a,
+            grade_b = r.grade_b,
+            grade_c = r.grade_c,
+            grade_d = r.grade_d,
+            grade_f = r.grade_f
+        FROM (
+            SELECT s.student_id,
+                   COUNT(*) AS course_count,
+                   SUM(r.score) AS score_sum,
+                   CAST(AVG(r.score) AS DOUBLE PRECISION) AS average_score,
+                   COUNT(*) FILTER (WHERE r.grade = 'A') AS grade_a,
+                   COUNT(*) FILTER (WHERE r.grade = 'B') AS grade_b,
+                   COUNT(*) FILTER (WHERE r.grade = 'C') AS grade_c,
+                   COUNT(*) FILTER (WHERE r.grade = 'D') AS grade_d,
+                   COUNT(*) FILTER (WHERE r.grade = 'F') AS grade_f
+            FROM students s
+            JOIN student_results r ON r.student_key = s.id
+            WHERE s.student_id = ANY(?)
+            GROUP BY s.student_id
+        ) r
+        WHERE a.student_id = r.student_id""";
+
+    static final String DELETE_EMPTY_SQL = """
+        DELETE FROM student_aggregates a
+        WHERE a.student_id = ANY(?)
+          AND NOT EXISTS (SELECT 1 FROM students s JOIN student_results r ON r.student_key = s.id
+                          WHERE s.student_id = a.student_id)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StudentAggregateUpsertWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(Chunk<? extends StudentResult> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        recompute(studentIdArray(StudentResultKeys.sortedStudentIds(chunk)));
+    }
+
+    /**
+     * Recomputes the aggregates of students whose rows were deleted rather than
+     * written. A student left without any rows loses the aggregate row as well.
+     */
+    public void refresh(Collection<String> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        PreparedStatementSetter sortedStudentIds = studentIdArray(new TreeSet<>(studentIds).toArray(String[]::new));
+        recompute(sortedStudentIds);
+        jdbcTemplate.update(DELETE_EMPTY_SQL, sortedStudentIds);
+    }
+
+    private void recompute(PreparedStatementSetter studentIds) {
+        jdbcTemplate.update(ENSURE_SQL, studentIds);
+        jdbcTemplate.query(LOCK_SQL, studentIds, resultSet -> {
+        });
+        jdbcTemplate.update(RECOMPUTE_SQL, studentIds);
+    }
+
+    static PreparedStatementSetter studentIdArray(String[] studentIds) {
+        return ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", studentIds));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.cache.StudentResultCache;
+import com.example.studentbatch.model.StudentResult;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Runs after the real writer in the same chunk transaction and evicts the cached
+ * results of every student in the chunk once that transaction commits.
+ */
+public class StudentResultCacheEvictingWriter implements ItemWriter<StudentResult> {
+
+    private final StudentResultCache cache;
+
+    public StudentResultCacheEvictingWriter(StudentResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void write(Chunk<? extends StudentResult> chunk) {
+        Set<String> studentIds = new HashSet<>();
+        for (StudentResult result : chunk) {
+            studentIds.add(result.getStudentId());
+        }
+        cache.evictAfterCommit(studentIds);
+    }
+}
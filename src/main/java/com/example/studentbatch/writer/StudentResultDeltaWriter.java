@@ -0,0 +1,135 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.delta.DeltaChangeCounter;
+import com.example.studentbatch.model.StudentResult;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes only what a chunk changes. The stored rows for the chunk's keys are looked
+ * up in one query against the {@code (student_key, course_key)} index and held in a
+ * hash map; new and changed results go on to the delegate writer, unchanged ones stop
+ * here. The delegate therefore also updates aggregates and evicts cache entries for
+ * changed students only.
+ * <p>
+ * Every natural key of the upload is recorded in {@code delta_import_keys} under the job
+ * instance, so that {@link com.example.studentbatch.delta.DeltaDeleteTasklet} can
+ * delete the stored results the upload no longer contains.
+ */
+public class StudentResultDeltaWriter implements ItemStreamWriter<StudentResult> {
+
+    static final String SELECT_STORED_SQL = """
+        SELECT r.student_key, r.course_key, r.score, r.grade
+        FROM student_results r
+        JOIN unnest(?, ?) AS k(student_key, course_key)
+          ON r.student_key = k.student_key AND r.course_key = k.course_key""";
+
+    static final String RECORD_KEYS_SQL = """
+        INSERT INTO delta_import_keys (job_instance_id, student_id, course_name)
+        SELECT ?, student_id, course_name FROM unnest(?, ?) AS k(student_id, course_name)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long jobInstanceId;
+    private final DeltaChangeCounter changeCounter;
+    private final ItemWriter<StudentResult> changeWriter;
+
+    public StudentResultDeltaWriter(JdbcTemplate jdbcTemplate, long jobInstanceId, DeltaChangeCounter changeCounter,
+                                    ItemWriter<StudentResult> changeWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobInstanceId = jobInstanceId;
+        this.changeCounter = changeCounter;
+        this.changeWriter = changeWriter;
+    }
+
+    @Override
+    public void write(Chunk<? extends StudentResult> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<StudentResult> items = StudentResultKeys.latestPerKey(chunk);
+        String[] studentIds = new String[items.size()];
+        String[] courseNames = new String[items.size()];
+        Integer[] studentKeys = new Integer[items.size()];
+        Integer[] courseKeys = new Integer[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            StudentResult item = items.get(i);
+            studentIds[i] = item.getStudentId();
+            courseNames[i] = item.getCourseName();
+            studentKeys[i] = item.getStudentKey();
+            courseKeys[i] = item.getCourseKey();
+        }
+
+        Map<Long, StudentResult> stored = new HashMap<>(items.size() * 2);
+        jdbcTemplate.query(SELECT_STORED_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("integer", studentKeys));
+            ps.setArray(2, ps.getConnection().createArrayOf("integer", courseKeys));
+        }, resultSet -> {
+            StudentResult result = new StudentResult();
+            result.setStudentKey(resultSet.getInt(1));
+            result.setCourseKey(resultSet.getInt(2));
+            result.setScore(resultSet.getInt(3));
+            result.setGrade(resultSet.getString(4));
+            stored.put(key(result), result);
+        });
+
+        List<StudentResult> changes = new ArrayList<>();
+        int inserted = 0;
+        int updated = 0;
+        for (StudentResult result : items) {
+            StudentResult current = stored.get(key(result));
+            if (current == null) {
+                inserted++;
+                changes.add(result);
+            } else if (!Objects.equals(current.getScore(), result.getScore())
+                || !Objects.equals(current.getGrade(), result.getGrade())) {
+                updated++;
+                changes.add(result);
+            }
+        }
+
+        jdbcTemplate.update(RECORD_KEYS_SQL, ps -> {
+            ps.setLong(1, jobInstanceId);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", studentIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("varchar", courseNames));
+        });
+        if (!changes.isEmpty()) {
+            changeWriter.write(new Chunk<>(changes));
+        }
+        changeCounter.record(inserted, updated, items.size() - inserted - updated);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        if (changeWriter instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (changeWriter instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (changeWriter instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+
+    private static long key(StudentResult result) {
+        return (long) result.getStudentKey() << 32 | (result.getCourseKey() & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes a whole chunk as a single JDBC batch. The id column is left to the
+ * {@code SERIAL} default so no generated key has to be fetched back, which lets the
+ * PostgreSQL driver rewrite the batch into multi-row INSERTs
+ * ({@code reWriteBatchedInserts}).
+ * <p>
+ * Rows are upserted by {@code (student_key, course_key)}: a re-imported result
+ * replaces the stored one, and an unchanged result is left alone rather than
+ * rewritten.
+ */
+public class StudentResultJdbcBatchWriter implements ItemWriter<StudentResult> {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentResultJdbcBatchWriter.class);
+
+    static final String UPSERT_SQL = """
+        INSERT INTO student_results (student_key, course_key, score, grade) VALUES (?, ?, ?, ?)
+        ON CONFLICT (student_key, course_key) DO UPDATE SET score = EXCLUDED.score, grade = EXCLUDED.grade
+        WHERE student_results.score IS DISTINCT FROM EXCLUDED.score
+           OR student_results.grade IS DISTINCT FROM EXCLUDED.grade""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StudentResultJdbcBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(Chunk<? extends StudentResult> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // A rewritten multi-row INSERT may not touch the same key twice
+        List<StudentResult> items = StudentResultKeys.latestPerKey(chunk);
+
+        long start = System.nanoTime();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StudentResult result = items.get(i);
+                ps.setInt(1, result.getStudentKey());
+                ps.setInt(2, result.getCourseKey());
+                ps.setInt(3, result.getScore());
+                ps.setString(4, result.getGrade());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+
+        if (log.isDebugEnabled()) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - start);
+            log.debug("Wrote {} rows in {} ms ({} rows/sec)",
+                items.size(), elapsedNanos / 1_000_000, items.size() * 1_000_000_000L / elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.dictionary.StudentCourseDictionary;
+import com.example.studentbatch.model.StudentResult;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fills in the student and course keys of a chunk from the {@link StudentCourseDictionary}
+ * before handing it to the writers, which store results by key. The distinct IDs of
+ * the chunk are resolved together, so a chunk costs at most one lookup and one insert
+ * per dimension, and none once the dictionary knows its IDs.
+ */
+public class StudentResultKeyResolvingWriter implements ItemStreamWriter<StudentResult> {
+
+    private final StudentCourseDictionary dictionary;
+    private final ItemWriter<StudentResult> delegate;
+
+    public StudentResultKeyResolvingWriter(StudentCourseDictionary dictionary, ItemWriter<StudentResult> delegate) {
+        this.dictionary = dictionary;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(Chunk<? extends StudentResult> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> studentIds = new HashSet<>();
+        Set<String> courseNames = new HashSet<>();
+        for (StudentResult result : chunk) {
+            studentIds.add(result.getStudentId());
+            courseNames.add(result.getCourseName());
+        }
+
+        // Students before courses in every chunk, so that concurrent chunks add rows in the same order
+        Map<String, Integer> studentKeys = dictionary.students().resolve(studentIds);
+        Map<String, Integer> courseKeys = dictionary.courses().resolve(courseNames);
+        for (StudentResult result : chunk) {
+            result.setStudentKey(studentKeys.get(result.getStudentId()));
+            result.setCourseKey(courseKeys.get(result.getCourseName()));
+        }
+        delegate.write(chunk);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        if (delegate instanceof ItemStream stream) {
+            stream.open(executionContext);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        if (delegate instanceof ItemStream stream) {
+            stream.update(executionContext);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (delegate instanceof ItemStream stream) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Helpers for writing by the key of {@code student_results},
+ * {@code (student_key, course_key)}, once {@link StudentResultKeyResolvingWriter} has
+ * filled it in.
+ */
+final class StudentResultKeys {
+
+    static final Comparator<StudentResult> KEY_ORDER =
+        Comparator.comparing(StudentResult::getStudentKey).thenComparing(StudentResult::getCourseKey);
+
+    private StudentResultKeys() {
+    }
+
+    /**
+     * The last result for each key, ordered by key. A single upsert statement cannot
+     * touch the same row twice, and writing rows in key order keeps concurrent chunks
+     * from deadlocking on each other's row locks.
+     */
+    static List<StudentResult> latestPerKey(Iterable<? extends StudentResult> results) {
+        Map<StudentResult, StudentResult> latest = new TreeMap<>(KEY_ORDER);
+        for (StudentResult result : results) {
+            latest.put(result, result);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /** Distinct student IDs, sorted so that row locks are always taken in the same order. */
+    static String[] sortedStudentIds(Iterable<? extends StudentResult> results) {
+        Set<String> studentIds = new TreeSet<>();
+        for (StudentResult result : results) {
+            studentIds.add(result.getStudentId());
+        }
+        return studentIds.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.studentbatch.writer;
+
+import java.util.Locale;
+
+/**
+ * How the import step persists processed results. Selected per job through the
+ * {@code writeMode} job parameter.
+ */
+public enum WriteMode {
+    /** One native {@code StudentResultRepository.upsert} ({@code INSERT ... ON CONFLICT}) per item. */
+    JPA,
+    /** One JDBC batch per chunk. */
+    JDBC,
+    /** One PostgreSQL {@code COPY FROM STDIN} per chunk. */
+    COPY,
+    /**
+     * Only the rows that differ from what is stored, written as a JDBC batch; stored
+     * results of the upload's courses that the upload no longer contains are deleted.
+     */
+    DELTA;
+
+    public static WriteMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return JPA;
+        }
+        try {
+            return WriteMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported writeMode: '" + value + "'", e);
+        }
+    }
+
+    public String parameterValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
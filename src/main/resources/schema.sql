@@ -1,7 +1,61 @@
+-- Int keys of student IDs and course names, which student_results refers to; rows are only ever added
+CREATE TABLE IF NOT EXISTS students (
+    id SERIAL PRIMARY KEY,
+    student_id VARCHAR(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_students_student_id ON students (student_id);
+
+CREATE TABLE IF NOT EXISTS courses (
+    id SERIAL PRIMARY KEY,
+    course_name VARCHAR(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_courses_course_name ON courses (course_name);
+
 CREATE TABLE IF NOT EXISTS student_results (
     id SERIAL PRIMARY KEY,
-    student_id VARCHAR(255) NOT NULL,
-    course_name VARCHAR(255) NOT NULL,
+    student_key INTEGER NOT NULL CONSTRAINT fk_student_results_student REFERENCES students (id),
+    course_key INTEGER NOT NULL CONSTRAINT fk_student_results_course REFERENCES courses (id),
     score INTEGER NOT NULL,
     grade VARCHAR(10)
-);
\ No newline at end of file
+);
+
+-- Per-student totals, maintained incrementally by the import job
+CREATE TABLE IF NOT EXISTS student_aggregates (
+    student_id VARCHAR(255) PRIMARY KEY,
+    course_count INTEGER NOT NULL,
+    score_sum BIGINT NOT NULL,
+    average_score DOUBLE PRECISION NOT NULL,
+    grade_a INTEGER NOT NULL,
+    grade_b INTEGER NOT NULL,
+    grade_c INTEGER NOT NULL,
+    grade_d INTEGER NOT NULL,
+    grade_f INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_student_aggregates_average ON student_aggregates (average_score);
+
+-- One row per (student, course): re-imports update results in place
+CREATE UNIQUE INDEX IF NOT EXISTS uk_student_results_student_course ON student_results (student_key, course_key);
+
+-- Course rosters by score, paged by (score, student_key); lookups by student use the unique index above
+CREATE INDEX IF NOT EXISTS idx_student_results_course_score ON student_results (course_key, score, student_key);
+
+-- Latest import of each distinct upload content, by SHA-256
+CREATE TABLE IF NOT EXISTS upload_imports (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    job_execution_id BIGINT NOT NULL,
+    byte_size BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Grade cutoffs for the institution (scope '*') or for one course (scope = course name)
+CREATE TABLE IF NOT EXISTS grade_schemes (
+    scope VARCHAR(255) PRIMARY KEY,
+    cutoffs VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- course_statistics, delta_import_keys and import_rejects are not entities; CourseStatisticsStore,
+-- DeltaImportKeysTable and RejectSink create them on startup
@@ -0,0 +1,70 @@
+package com.example.studentbatch.analytics;
+
+import com.example.studentbatch.dto.CourseStandingDto;
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import com.example.studentbatch.statistics.CourseSketch;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ResultSnapshotTest {
+
+	private final ResultSnapshot snapshot = new ResultSnapshot.Builder()
+		.add("S1", "Art", 95, "A")
+		.add("S2", "Art", 40, "F")
+		.add("S1", "Math", 100, "A")
+		.add("S2", "Math", 85, "B")
+		.add("S3", "Math", 85, "B")
+		.add("S4", "Math", 62, "D")
+		.build();
+
+	@Test
+	void encodesStudentsAndCoursesOnce() {
+		assertThat(snapshot.getResultCount()).isEqualTo(6);
+		assertThat(snapshot.getStudentCount()).isEqualTo(4);
+		assertThat(snapshot.getCourseCount()).isEqualTo(2);
+	}
+
+	@Test
+	void summarizesEveryCourse() {
+		assertThat(snapshot.courseSummaries()).extracting(CourseStatisticsDto::getCourseName, CourseStatisticsDto::getResultCount,
+				CourseStatisticsDto::getAverageScore, CourseStatisticsDto::getMinScore, CourseStatisticsDto::getMaxScore)
+			.containsExactly(
+				tuple("Art", 2L, 67.5, 40, 95),
+				tuple("Math", 4L, 83.0, 62, 100));
+		assertThat(snapshot.courseSummaries().get(1).getGradeDistribution())
+			.containsEntry("A", 1L).containsEntry("B", 2L).containsEntry("C", 0L).containsEntry("D", 1L);
+		assertThat(snapshot.courseSummaries().get(1).getPercentiles()).isNull();
+	}
+
+	@Test
+	void computesPercentilesByNearestRank() {
+		CourseStatisticsDto math = snapshot.courseStatistics("Math", new int[]{0, 25, 50, 75, 100});
+
+		assertThat(math.getPercentiles()).containsEntry("p0", 62).containsEntry("p25", 62)
+			.containsEntry("p50", 85).containsEntry("p75", 85).containsEntry("p100", 100);
+		assertThat(math.getScoreHistogram()).containsEntry("60-69", 1L).containsEntry("80-89", 2L)
+			.containsEntry("90-100", 1L).hasSize(CourseSketch.SCORE_BANDS);
+		assertThat(snapshot.courseStatistics("History", new int[]{50})).isNull();
+	}
+
+	@Test
+	void ranksStudentWithinCourse() {
+		CourseStandingDto standing = snapshot.standing("Math", "S3");
+
+		assertThat(standing.getScore()).isEqualTo(85);
+		assertThat(standing.getGrade()).isEqualTo("B");
+		assertThat(standing.getRank()).isEqualTo(2);
+		assertThat(standing.getPercentileRank()).isEqualTo(25.0);
+		assertThat(snapshot.standing("Art", "S3")).isNull();
+	}
+
+	@Test
+	void rejectsCourseResultsThatAreNotContiguous() {
+		ResultSnapshot.Builder builder = new ResultSnapshot.Builder().add("S1", "Art", 1, "F").add("S1", "Math", 1, "F");
+
+		assertThatThrownBy(() -> builder.add("S2", "Art", 1, "F")).isInstanceOf(IllegalStateException.class);
+	}
+}
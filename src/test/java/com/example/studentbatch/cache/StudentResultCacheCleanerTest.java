@@ -0,0 +1,109 @@
+package com.example.studentbatch.cache;
+
+import com.example.studentbatch.dto.CacheClearStatusDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StudentResultCacheCleanerTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void unlinksEntriesOfEarlierGenerationsInBatches() throws InterruptedException {
+		StudentResultCache cache = mock(StudentResultCache.class);
+		when(cache.clear()).thenReturn(2L);
+		when(cache.generation()).thenReturn(2L);
+		Iterator<String> keys = List.of(
+			"studentbatch:results:S1",
+			"studentbatch:results:g0:S1",
+			"studentbatch:results:g2:S1",
+			StudentResultCache.GENERATION_KEY,
+			"studentbatch:results:g1:S2",
+			"studentbatch:results:g1:S3").iterator();
+		Cursor<String> cursor = mock(Cursor.class);
+		when(cursor.hasNext()).thenAnswer(invocation -> keys.hasNext());
+		when(cursor.next()).thenAnswer(invocation -> keys.next());
+		StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+		when(stringRedisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+		List<List<String>> unlinked = new ArrayList<>();
+		when(stringRedisTemplate.unlink(anyCollection())).thenAnswer(invocation -> {
+			List<String> batch = new ArrayList<>(invocation.<Collection<String>>getArgument(0));
+			unlinked.add(batch);
+			return (long) batch.size();
+		});
+		StudentResultCacheCleaner cleaner = new StudentResultCacheCleaner(cache, stringRedisTemplate, 2);
+
+		assertThat(cleaner.status()).isNull();
+		CacheClearStatusDto started = cleaner.clear();
+		CacheClearStatusDto status = cleaner.status();
+		for (int i = 0; i < 100 && StudentResultCacheCleaner.STATE_RUNNING.equals(status.getState()); i++) {
+			Thread.sleep(20);
+			status = cleaner.status();
+		}
+
+		assertThat(started.getGeneration()).isEqualTo(2);
+		assertThat(status.getState()).isEqualTo(StudentResultCacheCleaner.STATE_COMPLETED);
+		assertThat(status.getKeysScanned()).isEqualTo(6);
+		assertThat(status.getKeysUnlinked()).isEqualTo(4);
+		assertThat(status.getEndTime()).isNotNull();
+		assertThat(unlinked).containsExactly(
+			List.of("studentbatch:results:S1", "studentbatch:results:g0:S1"),
+			List.of("studentbatch:results:g1:S2", "studentbatch:results:g1:S3"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void clearDuringACleanupScansAgainAndOneAfterItStartsAnother() throws InterruptedException {
+		StudentResultCache cache = mock(StudentResultCache.class);
+		when(cache.clear()).thenReturn(1L, 2L, 3L);
+		CountDownLatch scanning = new CountDownLatch(1);
+		CountDownLatch cleared = new CountDownLatch(1);
+		AtomicInteger scans = new AtomicInteger();
+		StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+		when(stringRedisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+			if (scans.incrementAndGet() == 1) {
+				scanning.countDown();
+				cleared.await();
+			}
+			Cursor<String> cursor = mock(Cursor.class);
+			when(cursor.hasNext()).thenReturn(false);
+			return cursor;
+		});
+		StudentResultCacheCleaner cleaner = new StudentResultCacheCleaner(cache, stringRedisTemplate, 2);
+
+		cleaner.clear();
+		scanning.await();
+		cleaner.clear();
+		cleared.countDown();
+		awaitEnd(cleaner);
+
+		assertThat(scans).hasValue(2);
+		assertThat(cleaner.status().getState()).isEqualTo(StudentResultCacheCleaner.STATE_COMPLETED);
+
+		cleaner.clear();
+		awaitEnd(cleaner);
+
+		assertThat(scans).hasValue(3);
+		assertThat(cleaner.status().getGeneration()).isEqualTo(3);
+	}
+
+	private static void awaitEnd(StudentResultCacheCleaner cleaner) throws InterruptedException {
+		for (int i = 0; i < 100 && cleaner.status().getEndTime() == null; i++) {
+			Thread.sleep(20);
+		}
+	}
+}
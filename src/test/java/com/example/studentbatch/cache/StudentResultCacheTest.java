@@ -0,0 +1,227 @@
+package com.example.studentbatch.cache;
+
+import com.example.studentbatch.dto.StudentOverallResultDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StudentResultCacheTest {
+
+	/** In-process stand-in for the Redis keyspace. */
+	private final Map<String, Object> redis = new HashMap<>();
+
+	/** Messages published on the invalidation channel. */
+	private final List<String> published = new ArrayList<>();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private StudentResultCache cache;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+		ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+		doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+			.when(valueOperations).set(anyString(), any(), any(Duration.class));
+		when(valueOperations.multiGet(anyCollection())).thenAnswer(invocation ->
+			invocation.<Collection<String>>getArgument(0).stream().map(redis::get).toList());
+		when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+			invocation.<SessionCallback<?>>getArgument(0).execute(redisTemplate);
+			return List.of();
+		});
+		when(redisTemplate.delete(anyCollection())).thenAnswer(invocation -> {
+			long deleted = 0;
+			for (Object key : invocation.<Collection<?>>getArgument(0)) {
+				deleted += redis.remove(key) != null ? 1 : 0;
+			}
+			return deleted;
+		});
+
+		StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+		ValueOperations<String, String> stringOperations = mock(ValueOperations.class);
+		when(stringRedisTemplate.opsForValue()).thenReturn(stringOperations);
+		when(stringOperations.get(anyString())).thenAnswer(invocation -> (String) redis.get(invocation.<String>getArgument(0)));
+		when(stringOperations.increment(anyString())).thenAnswer(invocation -> {
+			String key = invocation.getArgument(0);
+			long next = redis.containsKey(key) ? Long.parseLong((String) redis.get(key)) + 1 : 1;
+			redis.put(key, Long.toString(next));
+			return next;
+		});
+		when(stringRedisTemplate.convertAndSend(anyString(), any())).thenAnswer(invocation -> {
+			published.add(invocation.getArgument(1));
+			return 1L;
+		});
+
+		cache = new StudentResultCache(redisTemplate, stringRedisTemplate, meterRegistry,
+			Duration.ofMinutes(10), Duration.ofMinutes(1), 1000, Duration.ofMillis(50));
+	}
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void loadsOnMissAndServesSubsequentReadsFromNearCache() {
+		AtomicInteger loads = new AtomicInteger();
+
+		StudentOverallResultDto first = cache.get("S0001", () -> result("S0001", loads));
+		StudentOverallResultDto second = cache.get("S0001", () -> result("S0001", loads));
+
+		assertThat(loads).hasValue(1);
+		assertThat(second).isSameAs(first);
+		assertThat(redis).containsKey("studentbatch:results:g0:S0001");
+		assertThat(requests("near", "hit")).isEqualTo(1);
+		assertThat(requests("near", "miss")).isEqualTo(1);
+		assertThat(requests("redis", "miss")).isEqualTo(1);
+	}
+
+	@Test
+	void invalidationFromAnotherNodeFallsBackToRedis() {
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("S0001", () -> result("S0001", loads));
+
+		new StudentResultInvalidationListener(cache, mock(RedisConnectionFactory.class), Duration.ofSeconds(30)).onMessage(
+			new DefaultMessage(StudentResultCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+				"S0001\nS0002".getBytes(StandardCharsets.UTF_8)), null);
+		cache.get("S0001", () -> result("S0001", loads));
+
+		assertThat(loads).hasValue(1);
+		assertThat(requests("near", "miss")).isEqualTo(2);
+		assertThat(requests("redis", "hit")).isEqualTo(1);
+	}
+
+	@Test
+	void evictionPublishesInvalidatedStudents() {
+		cache.get("S0001", () -> result("S0001", new AtomicInteger()));
+
+		cache.evict(List.of("S0001", "S0002"));
+
+		assertThat(redis).isEmpty();
+		assertThat(published).containsExactly("S0001\nS0002");
+		assertThat(requests("near", "hit")).isZero();
+	}
+
+	@Test
+	void bulkLookupLoadsOnlyStudentsMissingFromBothTiers() {
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("S0001", () -> result("S0001", loads));
+		redis.put("studentbatch:results:g0:S0002", result("S0002", loads));
+		List<List<String>> loaderCalls = new ArrayList<>();
+
+		Map<String, StudentOverallResultDto> results = cache.getAll(List.of("S0003", "S0002", "S0001", "S0404"), misses -> {
+			loaderCalls.add(misses);
+			return Map.of("S0003", result("S0003", loads));
+		});
+
+		assertThat(results).containsOnlyKeys("S0003", "S0002", "S0001");
+		assertThat(results.keySet()).containsExactly("S0003", "S0002", "S0001");
+		assertThat(loaderCalls).containsExactly(List.of("S0003", "S0404"));
+		assertThat(redis).containsKey("studentbatch:results:g0:S0003").doesNotContainKey("studentbatch:results:g0:S0404");
+		assertThat(requests("near", "hit")).isEqualTo(1);
+		assertThat(requests("redis", "hit")).isEqualTo(1);
+		assertThat(requests("redis", "miss")).isEqualTo(3);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void clearingMovesEveryNodeToANewKeyGeneration() {
+		AtomicInteger loads = new AtomicInteger();
+		cache.get("S0001", () -> result("S0001", loads));
+		StudentResultCache otherNode = new StudentResultCache(mock(RedisTemplate.class), mock(StringRedisTemplate.class),
+			new SimpleMeterRegistry(), Duration.ofMinutes(10), Duration.ofMinutes(1), 1000, Duration.ZERO);
+
+		long generation = cache.clear();
+		new StudentResultInvalidationListener(otherNode, mock(RedisConnectionFactory.class), Duration.ofSeconds(30)).onMessage(
+			new DefaultMessage(StudentResultCache.CLEAR_CHANNEL.getBytes(StandardCharsets.UTF_8),
+				Long.toString(generation).getBytes(StandardCharsets.UTF_8)), null);
+		cache.get("S0001", () -> result("S0001", loads));
+
+		assertThat(generation).isEqualTo(1);
+		assertThat(otherNode.generation()).isEqualTo(1);
+		assertThat(published).containsExactly("1");
+		assertThat(loads).hasValue(2);
+		assertThat(redis).containsKeys("studentbatch:results:g0:S0001", "studentbatch:results:g1:S0001");
+		assertThat(StudentResultCache.isStale("studentbatch:results:g0:S0001", generation)).isTrue();
+		assertThat(StudentResultCache.isStale("studentbatch:results:S0001", generation)).isTrue();
+		assertThat(StudentResultCache.isStale("studentbatch:results:g1:S0001", generation)).isFalse();
+		assertThat(StudentResultCache.isStale(StudentResultCache.GENERATION_KEY, generation)).isFalse();
+	}
+
+	@Test
+	void studentsWithoutResultsAreNotCached() {
+		assertThat(cache.get("S404", () -> null)).isNull();
+		assertThat(redis).isEmpty();
+	}
+
+	@Test
+	void evictionWaitsForTransactionCommit() {
+		cache.get("S0001", () -> result("S0001", new AtomicInteger()));
+		TransactionSynchronizationManager.initSynchronization();
+
+		cache.evictAfterCommit(List.of("S0001"));
+
+		assertThat(redis).containsKey("studentbatch:results:g0:S0001");
+		assertThat(published).isEmpty();
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(redis).doesNotContainKey("studentbatch:results:g0:S0001");
+		assertThat(published).containsExactly("S0001");
+	}
+
+	@Test
+	void evictsAgainResultsReadBeforeTheCommitAndCachedAfterIt() throws InterruptedException {
+		TransactionSynchronizationManager.initSynchronization();
+		cache.evictAfterCommit(List.of("S0001"));
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		// A read that loaded before the commit writes back after the first eviction
+		cache.get("S0001", () -> result("S0001", new AtomicInteger()));
+		assertThat(redis).containsKey("studentbatch:results:g0:S0001");
+
+		for (int i = 0; i < 100 && published.size() < 2; i++) {
+			Thread.sleep(20);
+		}
+
+		assertThat(redis).doesNotContainKey("studentbatch:results:g0:S0001");
+		assertThat(published).containsExactly("S0001", "S0001");
+	}
+
+	private double requests(String tier, String result) {
+		return meterRegistry.get("studentbatch.cache.requests").tag("tier", tier).tag("result", result).counter().count();
+	}
+
+	private static StudentOverallResultDto result(String studentId, AtomicInteger loads) {
+		loads.incrementAndGet();
+		return new StudentOverallResultDto(studentId,
+			List.of(new StudentOverallResultDto.StudentResultDetail("Mathematics", 68, "D")), 68.0, 1, null);
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.studentbatch.config;
+
+import com.example.studentbatch.analytics.ResultAnalytics;
+import com.example.studentbatch.dictionary.StudentCourseDictionary;
+import com.example.studentbatch.listener.JobCompletionNotificationListener;
+import com.example.studentbatch.metrics.ImportProgressBroadcaster;
+import com.example.studentbatch.metrics.JobProgressMetrics;
+import com.example.studentbatch.rejects.RejectSink;
+import com.example.studentbatch.statistics.CourseStatisticsRecorder;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.listener.CompositeJobExecutionListener;
+
+import java.util.List;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+class BatchConfigTest {
+
+	private final RejectSink rejectSink = mock(RejectSink.class);
+	private final ImportProgressBroadcaster importProgressBroadcaster = mock(ImportProgressBroadcaster.class);
+	private final JobCompletionNotificationListener completionListener = mock(JobCompletionNotificationListener.class);
+	private final CourseStatisticsRecorder courseStatisticsRecorder = mock(CourseStatisticsRecorder.class);
+	private final ResultAnalytics resultAnalytics = mock(ResultAnalytics.class);
+
+	private final BatchConfig config = new BatchConfig(null, null, null, null, null, null, completionListener, null, null,
+		null, resultAnalytics, null, courseStatisticsRecorder, rejectSink, null, mock(JobProgressMetrics.class),
+		importProgressBroadcaster, mock(StudentCourseDictionary.class));
+
+	@Test
+	void flushesRejectsBeforeTheJobIsReportedDone() {
+		List<JobExecutionListener> listeners = config.jobListeners();
+		// As the job runs them
+		CompositeJobExecutionListener composite = new CompositeJobExecutionListener();
+		composite.setListeners(listeners);
+		JobExecution jobExecution = new JobExecution(1L);
+
+		composite.afterJob(jobExecution);
+
+		InOrder order = inOrder(rejectSink, importProgressBroadcaster, completionListener, courseStatisticsRecorder, resultAnalytics);
+		order.verify(rejectSink).afterJob(jobExecution);
+		order.verify(resultAnalytics).afterJob(jobExecution);
+		order.verify(courseStatisticsRecorder).afterJob(jobExecution);
+		order.verify(completionListener).afterJob(jobExecution);
+		order.verify(importProgressBroadcaster).afterJob(jobExecution);
+	}
+}
@@ -0,0 +1,133 @@
+package com.example.studentbatch.config;
+
+import com.example.studentbatch.support.TestPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs both startup migrations on a {@code student_results} table from before the
+ * dimensions, as Hibernate's schema update leaves it: the user's old columns and
+ * indexes, plus empty dimension tables and nullable key columns.
+ */
+class StudentResultDictionaryMigrationTest {
+
+	private final DataSource dataSource = TestPostgres.dataSource();
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+	@BeforeEach
+	void createLegacySchema() {
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		jdbcTemplate.execute("""
+			CREATE TABLE students (id SERIAL PRIMARY KEY, student_id VARCHAR(255));
+			CREATE TABLE courses (id SERIAL PRIMARY KEY, course_name VARCHAR(255));
+			CREATE TABLE student_results (
+				id BIGSERIAL PRIMARY KEY,
+				student_id VARCHAR(255),
+				course_name VARCHAR(255),
+				score INTEGER,
+				grade VARCHAR(255),
+				student_key INTEGER,
+				course_key INTEGER
+			);
+			CREATE UNIQUE INDEX uk_student_results_student_course ON student_results (student_id, course_name);
+			CREATE INDEX idx_student_results_course_score ON student_results (course_name, score, student_id);
+			CREATE TABLE student_aggregates (
+				student_id VARCHAR(255) PRIMARY KEY,
+				course_count INTEGER NOT NULL, score_sum BIGINT NOT NULL, average_score DOUBLE PRECISION NOT NULL,
+				grade_a INTEGER NOT NULL, grade_b INTEGER NOT NULL, grade_c INTEGER NOT NULL,
+				grade_d INTEGER NOT NULL, grade_f INTEGER NOT NULL
+			)""");
+		jdbcTemplate.update("""
+			INSERT INTO student_results (student_id, course_name, score, grade) VALUES
+			('S2', 'Physics', 71, 'C'), ('S1', 'Physics', 95, 'A'), ('S1', 'Biology', 82, 'B')""");
+	}
+
+	@Test
+	void movesNaturalIdsToTheDimensionsAndIndexesTheKeys() throws SQLException {
+		migrate();
+
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM students ORDER BY id", String.class))
+			.containsExactly("S1", "S2");
+		assertThat(jdbcTemplate.queryForList("SELECT course_name FROM courses ORDER BY id", String.class))
+			.containsExactly("Biology", "Physics");
+		assertThat(jdbcTemplate.queryForList("""
+			SELECT s.student_id || '/' || c.course_name || '/' || r.score FROM student_results r
+			JOIN students s ON s.id = r.student_key JOIN courses c ON c.id = r.course_key ORDER BY r.id"""))
+			.extracting(row -> row.values().iterator().next())
+			.containsExactly("S2/Physics/71", "S1/Physics/95", "S1/Biology/82");
+		assertThat(columns()).containsExactly("id", "score", "grade", "student_key", "course_key");
+		assertThat(jdbcTemplate.queryForList("""
+			SELECT column_name FROM information_schema.columns
+			WHERE table_name = 'student_results' AND column_name LIKE '%_key' AND is_nullable = 'NO'""", String.class))
+			.containsExactlyInAnyOrder("student_key", "course_key");
+		assertThat(jdbcTemplate.queryForList("""
+			SELECT conname FROM pg_constraint WHERE conrelid = 'student_results'::regclass AND contype = 'f'""", String.class))
+			.containsExactlyInAnyOrder("fk_student_results_student", "fk_student_results_course");
+		assertThat(indexDefinition("idx_student_results_course_score")).endsWith("(course_key, score, student_key)");
+		assertThat(indexDefinition("uk_student_results_student_course"))
+			.startsWith("CREATE UNIQUE INDEX").endsWith("(student_key, course_key)");
+		assertThat(indexDefinition("uk_students_student_id")).startsWith("CREATE UNIQUE INDEX");
+		assertThat(indexDefinition("uk_courses_course_name")).startsWith("CREATE UNIQUE INDEX");
+	}
+
+	@Test
+	void deletesRowsThatCannotBeGivenKeysAndRebuildsTheirAggregates() throws SQLException {
+		jdbcTemplate.update("INSERT INTO student_results (student_id, course_name, score, grade) VALUES"
+			+ " (NULL, 'Physics', 50, 'F'), ('S1', NULL, 60, 'D')");
+		jdbcTemplate.update("INSERT INTO student_aggregates VALUES ('S1', 3, 237, 79.0, 1, 1, 0, 1, 0)");
+
+		migrate();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM student_results", Integer.class)).isEqualTo(3);
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM students ORDER BY id", String.class))
+			.containsExactly("S1", "S2");
+		assertThat(jdbcTemplate.queryForMap("SELECT course_count, score_sum FROM student_aggregates WHERE student_id = 'S1'"))
+			.containsEntry("course_count", 2).containsEntry("score_sum", 177L);
+	}
+
+	@Test
+	void doesNothingOnceMigrated() throws SQLException {
+		migrate();
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM student_results ORDER BY id");
+		long courseIndex = indexOid("idx_student_results_course_score");
+		long keyIndex = indexOid("uk_student_results_student_course");
+
+		migrate();
+
+		assertThat(jdbcTemplate.queryForList("SELECT * FROM student_results ORDER BY id")).isEqualTo(rows);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM students", Integer.class)).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM courses", Integer.class)).isEqualTo(2);
+		assertThat(indexOid("idx_student_results_course_score")).isEqualTo(courseIndex);
+		assertThat(indexOid("uk_student_results_student_course")).isEqualTo(keyIndex);
+		assertThat(jdbcTemplate.queryForObject(
+			"SELECT count(*) FROM pg_constraint WHERE conrelid = 'student_results'::regclass AND contype = 'f'", Integer.class))
+			.isEqualTo(2);
+	}
+
+	private void migrate() throws SQLException {
+		new StudentResultDictionaryMigration(dataSource).afterPropertiesSet();
+		new StudentResultKeyMigration(dataSource).afterPropertiesSet();
+	}
+
+	private List<String> columns() {
+		return jdbcTemplate.queryForList("""
+			SELECT column_name FROM information_schema.columns
+			WHERE table_name = 'student_results' ORDER BY ordinal_position""", String.class);
+	}
+
+	private String indexDefinition(String name) {
+		return jdbcTemplate.queryForObject("SELECT indexdef FROM pg_indexes WHERE indexname = ?", String.class, name);
+	}
+
+	private long indexOid(String name) {
+		return jdbcTemplate.queryForObject("SELECT ?::regclass::oid", Long.class, name);
+	}
+}
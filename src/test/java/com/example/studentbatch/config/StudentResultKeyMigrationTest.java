@@ -0,0 +1,82 @@
+package com.example.studentbatch.config;
+
+import com.example.studentbatch.support.TestPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentResultKeyMigrationTest {
+
+	private final DataSource dataSource = TestPostgres.dataSource();
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+	@BeforeEach
+	void createSchemaWithoutKeyIndex() {
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		jdbcTemplate.execute("DROP INDEX " + StudentResultKeyMigration.INDEX_NAME);
+		jdbcTemplate.update("INSERT INTO students (student_id) VALUES ('S1'), ('S2')");
+		jdbcTemplate.update("INSERT INTO courses (course_name) VALUES ('Biology'), ('Physics')");
+	}
+
+	@Test
+	void keepsTheNewestRowOfEachKeyAndRebuildsTheAggregates() throws SQLException {
+		// One row per upload: S1 took Biology three times, S2 Physics twice
+		jdbcTemplate.update("""
+			INSERT INTO student_results (student_key, course_key, score, grade) VALUES
+			(1, 1, 55, 'F'), (2, 2, 65, 'D'), (1, 1, 75, 'C'), (1, 2, 90, 'A'), (2, 2, 85, 'B'), (1, 1, 81, 'B')""");
+		jdbcTemplate.update("""
+			INSERT INTO student_aggregates VALUES
+			('S1', 4, 301, 75.25, 1, 1, 1, 0, 1), ('S2', 2, 150, 75.0, 0, 1, 0, 1, 0)""");
+
+		new StudentResultKeyMigration(dataSource).afterPropertiesSet();
+
+		assertThat(jdbcTemplate.queryForList("SELECT id FROM student_results ORDER BY id", Long.class))
+			.containsExactly(4L, 5L, 6L);
+		assertThat(jdbcTemplate.queryForList("SELECT * FROM student_aggregates ORDER BY student_id"))
+			.containsExactly(
+				aggregate("S1", 2, 171, 85.5, 1, 1),
+				aggregate("S2", 1, 85, 85.0, 0, 1));
+		assertThat(jdbcTemplate.queryForObject("SELECT indexdef FROM pg_indexes WHERE indexname = ?", String.class,
+			StudentResultKeyMigration.INDEX_NAME))
+			.startsWith("CREATE UNIQUE INDEX").endsWith("(student_key, course_key)");
+	}
+
+	@Test
+	void leavesTheAggregatesAloneWithoutDuplicates() throws SQLException {
+		jdbcTemplate.update("INSERT INTO student_results (student_key, course_key, score, grade) VALUES (1, 1, 75, 'C')");
+		jdbcTemplate.update("INSERT INTO student_aggregates VALUES ('S1', 1, 75, 75.0, 0, 0, 1, 0, 0)");
+		jdbcTemplate.update("INSERT INTO student_aggregates VALUES ('S9', 1, 40, 40.0, 0, 0, 0, 0, 1)");
+
+		new StudentResultKeyMigration(dataSource).afterPropertiesSet();
+
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM student_aggregates ORDER BY student_id", String.class))
+			.containsExactly("S1", "S9");
+	}
+
+	@Test
+	void doesNothingOnceTheIndexExists() throws SQLException {
+		new StudentResultKeyMigration(dataSource).afterPropertiesSet();
+		long index = jdbcTemplate.queryForObject("SELECT ?::regclass::oid", Long.class, StudentResultKeyMigration.INDEX_NAME);
+		jdbcTemplate.update("INSERT INTO student_aggregates VALUES ('S9', 1, 40, 40.0, 0, 0, 0, 0, 1)");
+
+		new StudentResultKeyMigration(dataSource).afterPropertiesSet();
+
+		assertThat(jdbcTemplate.queryForObject("SELECT ?::regclass::oid", Long.class, StudentResultKeyMigration.INDEX_NAME))
+			.isEqualTo(index);
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM student_aggregates", String.class)).containsExactly("S9");
+	}
+
+	private static Map<String, Object> aggregate(String studentId, int courses, long sum, double average, int a, int b) {
+		return Map.of("student_id", studentId, "course_count", courses, "score_sum", sum, "average_score", average,
+			"grade_a", a, "grade_b", b, "grade_c", 0, "grade_d", 0, "grade_f", 0);
+	}
+}
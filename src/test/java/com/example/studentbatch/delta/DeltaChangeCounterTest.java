@@ -0,0 +1,68 @@
+package com.example.studentbatch.delta;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class DeltaChangeCounterTest {
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void countsChunkOnlyOnceItCommits() {
+		DeltaChangeCounter counter = new DeltaChangeCounter("delta");
+		JobExecution jobExecution = new JobExecution(1L);
+		StepExecution stepExecution = jobExecution.createStepExecution("importStudentResultsStep");
+
+		TransactionSynchronizationManager.initSynchronization();
+		counter.record(2, 1, 7);
+		counter.record(5, 0, 0);
+		TransactionSynchronizationManager.getSynchronizations().get(0).afterCommit();
+		TransactionSynchronizationManager.getSynchronizations().get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		counter.afterStep(stepExecution);
+
+		assertThat(DeltaChangeCounter.totals(jobExecution))
+			.containsEntry("inserted", 2L)
+			.containsEntry("updated", 1L)
+			.containsEntry("unchanged", 7L);
+	}
+
+	@Test
+	void sumsPartitionsAndDeletions() {
+		JobExecution jobExecution = new JobExecution(1L);
+		for (int partition = 0; partition < 2; partition++) {
+			DeltaChangeCounter counter = new DeltaChangeCounter("delta");
+			counter.record(1, 2, 3);
+			counter.afterStep(jobExecution.createStepExecution("importStudentResultsWorkerStep:partition" + partition));
+		}
+		jobExecution.createStepExecution("deltaDeleteStep").getExecutionContext().putLong(DeltaChangeCounter.DELETED_KEY, 4);
+
+		assertThat(DeltaChangeCounter.totals(jobExecution))
+			.containsExactly(
+				entry("inserted", 2L),
+				entry("updated", 4L),
+				entry("unchanged", 6L),
+				entry("deleted", 4L));
+	}
+
+	@Test
+	void otherWriteModesLeaveNoCounts() {
+		DeltaChangeCounter counter = new DeltaChangeCounter("jdbc");
+		JobExecution jobExecution = new JobExecution(1L);
+
+		counter.afterStep(jobExecution.createStepExecution("importStudentResultsStep"));
+
+		assertThat(DeltaChangeCounter.totals(jobExecution)).isEmpty();
+	}
+}
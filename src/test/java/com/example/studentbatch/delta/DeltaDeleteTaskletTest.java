@@ -0,0 +1,115 @@
+package com.example.studentbatch.delta;
+
+import com.example.studentbatch.cache.StudentResultCache;
+import com.example.studentbatch.diagnostics.ProcessingDiagnostics;
+import com.example.studentbatch.support.TestPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DeltaDeleteTaskletTest {
+
+	private final DataSource dataSource = TestPostgres.dataSource();
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+	private final StudentResultCache cache = mock(StudentResultCache.class);
+	private final DeltaDeleteTasklet tasklet = new DeltaDeleteTasklet(jdbcTemplate, cache);
+
+	@BeforeEach
+	void createStoredResults() {
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		new DeltaImportKeysTable(jdbcTemplate).afterPropertiesSet();
+		jdbcTemplate.update("INSERT INTO students (student_id) VALUES ('S1'), ('S2'), ('S3')");
+		jdbcTemplate.update("INSERT INTO courses (course_name) VALUES ('Biology'), ('Physics'), ('Chemistry')");
+		jdbcTemplate.update("""
+			INSERT INTO student_results (student_key, course_key, score, grade) VALUES
+			(1, 1, 80, 'B'), (1, 2, 90, 'A'), (2, 1, 70, 'C'), (2, 3, 60, 'D'), (3, 2, 50, 'F')""");
+		jdbcTemplate.update("""
+			INSERT INTO student_aggregates VALUES
+			('S1', 2, 170, 85.0, 1, 1, 0, 0, 0), ('S2', 2, 130, 65.0, 0, 0, 1, 1, 0), ('S3', 1, 50, 50.0, 0, 0, 0, 0, 1)""");
+		// The upload held S1's Biology and Physics results; another import has S3's Physics result
+		jdbcTemplate.update("""
+			INSERT INTO delta_import_keys VALUES
+			(1, 'S1', 'Biology'), (1, 'S1', 'Physics'), (2, 'S3', 'Physics')""");
+	}
+
+	@Test
+	void deletesResultsOfTheUploadedCoursesThatTheUploadNoLongerContains() throws Exception {
+		StepExecution stepExecution = execute(0, 0);
+
+		assertThat(jdbcTemplate.queryForList("""
+			SELECT s.student_id || '/' || c.course_name FROM student_results r
+			JOIN students s ON s.id = r.student_key JOIN courses c ON c.id = r.course_key ORDER BY r.id""", String.class))
+			.containsExactly("S1/Biology", "S1/Physics", "S2/Chemistry");
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM delta_import_keys", String.class))
+			.containsExactly("S3");
+		assertThat(stepExecution.getExecutionContext().getLong(DeltaChangeCounter.DELETED_KEY)).isEqualTo(2);
+		assertThat(stepExecution.getWriteCount()).isEqualTo(2);
+		verify(cache).evictAfterCommit(Set.of("S2", "S3"));
+	}
+
+	@Test
+	void recomputesTheAggregatesOfStudentsWithDeletedResults() throws Exception {
+		execute(0, 0);
+
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM student_aggregates ORDER BY student_id", String.class))
+			.containsExactly("S1", "S2");
+		assertThat(jdbcTemplate.queryForMap("SELECT course_count, score_sum, grade_c, grade_d FROM student_aggregates WHERE student_id = 'S2'"))
+			.containsEntry("course_count", 1).containsEntry("score_sum", 60L)
+			.containsEntry("grade_c", 0).containsEntry("grade_d", 1);
+	}
+
+	@Test
+	void keepsStoredResultsWhenALineWasRejected() throws Exception {
+		StepExecution stepExecution = execute(1, 0);
+
+		assertKeptAndKeysCleared(stepExecution);
+	}
+
+	@Test
+	void keepsStoredResultsWhenALineWasSkipped() throws Exception {
+		StepExecution stepExecution = execute(0, 1);
+
+		assertKeptAndKeysCleared(stepExecution);
+	}
+
+	private void assertKeptAndKeysCleared(StepExecution stepExecution) {
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM student_results", Integer.class)).isEqualTo(5);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM student_aggregates", Integer.class)).isEqualTo(3);
+		assertThat(jdbcTemplate.queryForList("SELECT student_id FROM delta_import_keys", String.class))
+			.containsExactly("S3");
+		assertThat(stepExecution.getExecutionContext().getLong(DeltaChangeCounter.DELETED_KEY)).isZero();
+		verify(cache, never()).evictAfterCommit(any());
+	}
+
+	private StepExecution execute(long rejected, int skipped) throws Exception {
+		JobExecution jobExecution = new JobExecution(new JobInstance(1L, "importStudentResultsJob"), 10L, new JobParameters());
+		StepExecution importStep = jobExecution.createStepExecution("importStudentResultsStep");
+		importStep.getExecutionContext().putLong(DeltaChangeCounter.INSERTED_KEY, 0);
+		importStep.getExecutionContext().putLong(ProcessingDiagnostics.REJECTED_COUNT_KEY, rejected);
+		importStep.setProcessSkipCount(skipped);
+		StepExecution stepExecution = jobExecution.createStepExecution("deltaDeleteStep");
+		StepContribution contribution = stepExecution.createStepContribution();
+		tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+		stepExecution.apply(contribution);
+		return stepExecution;
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.studentbatch.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessingDiagnosticsTest {
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void countsRejectionsPerReason() {
+		ProcessingDiagnostics diagnostics = new ProcessingDiagnostics(0);
+
+		diagnostics.accepted();
+		diagnostics.rejected(RejectionReason.INVALID_SCORE);
+		diagnostics.rejected(RejectionReason.INVALID_SCORE);
+		diagnostics.rejected(RejectionReason.INVALID_STUDENT_ID);
+		ExecutionContext context = new ExecutionContext();
+		diagnostics.writeTo(context);
+
+		assertThat(diagnostics.getProcessed()).isEqualTo(4);
+		assertThat(diagnostics.getRejected()).isEqualTo(3);
+		Map<RejectionReason, Long> rejections = ProcessingDiagnostics.emptyRejections();
+		ProcessingDiagnostics.addRejections(context, rejections);
+		assertThat(rejections).containsOnly(
+			Map.entry(RejectionReason.INVALID_SCORE, 2L),
+			Map.entry(RejectionReason.INVALID_STUDENT_ID, 1L));
+	}
+
+	@Test
+	void samplesOneRecordInN() {
+		ProcessingDiagnostics diagnostics = new ProcessingDiagnostics(3);
+
+		assertThat(IntStream.rangeClosed(1, 7).filter(i -> i % 2 == 0
+			? diagnostics.rejected(RejectionReason.INVALID_SCORE)
+			: diagnostics.accepted()))
+			.containsExactly(3, 6);
+	}
+
+	@Test
+	void zeroSampleRateSamplesNothing() {
+		ProcessingDiagnostics diagnostics = new ProcessingDiagnostics(0);
+
+		assertThat(IntStream.rangeClosed(1, 100).filter(i -> diagnostics.accepted())).isEmpty();
+	}
+
+	@Test
+	void restartedStepCarriesOnFromSavedCounts() {
+		ProcessingDiagnostics first = new ProcessingDiagnostics(5);
+		IntStream.range(0, 3).forEach(i -> first.accepted());
+		first.rejected(RejectionReason.NULL_RECORD);
+		ExecutionContext context = new ExecutionContext();
+		first.writeTo(context);
+
+		ProcessingDiagnostics restarted = new ProcessingDiagnostics(5);
+		restarted.restoreFrom(context);
+
+		assertThat(restarted.getProcessed()).isEqualTo(4);
+		assertThat(restarted.getRejected()).isEqualTo(1);
+		assertThat(restarted.accepted()).isTrue();
+	}
+
+	@Test
+	void dropsCountsOfRolledBackChunk() {
+		ProcessingDiagnostics diagnostics = new ProcessingDiagnostics(0);
+		ExecutionContext context = new ExecutionContext();
+
+		TransactionSynchronizationManager.initSynchronization();
+		diagnostics.accepted();
+		diagnostics.rejected(RejectionReason.INVALID_COURSE_NAME);
+		// Saved with the chunk, in its transaction
+		diagnostics.writeTo(context);
+		assertThat(context.getLong(ProcessingDiagnostics.PROCESSED_COUNT_KEY)).isEqualTo(2);
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		// The chunk is rescanned and both records processed again
+		TransactionSynchronizationManager.initSynchronization();
+		diagnostics.accepted();
+		diagnostics.rejected(RejectionReason.INVALID_COURSE_NAME);
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		diagnostics.writeTo(context);
+
+		assertThat(context.getLong(ProcessingDiagnostics.PROCESSED_COUNT_KEY)).isEqualTo(2);
+		assertThat(context.getLong(ProcessingDiagnostics.REJECTED_COUNT_KEY)).isEqualTo(1);
+		Map<RejectionReason, Long> rejections = ProcessingDiagnostics.emptyRejections();
+		ProcessingDiagnostics.addRejections(context, rejections);
+		assertThat(rejections).containsOnly(Map.entry(RejectionReason.INVALID_COURSE_NAME, 1L));
+	}
+
+	private static void complete(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.studentbatch.dictionary;
+
+import com.example.studentbatch.support.TestPostgres;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentCourseDictionaryTest {
+
+	private final DataSource dataSource = TestPostgres.dataSource();
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+	private final TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	private StudentCourseDictionary dictionary;
+
+	@BeforeEach
+	void createSchema() {
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		dictionary = new StudentCourseDictionary(jdbcTemplate, new SimpleMeterRegistry(), 100, 100);
+	}
+
+	@Test
+	void looksUpKnownNamesAndAddsMissingOnesInNameOrder() {
+		jdbcTemplate.update("INSERT INTO students (student_id) VALUES ('S2')");
+
+		Map<String, Integer> keys = transactionTemplate.execute(status -> dictionary.students().resolve(List.of("S3", "S2", "S1")));
+
+		assertThat(keys).containsEntry("S2", 1).containsEntry("S1", 2).containsEntry("S3", 3);
+		assertThat(dictionary.students().size()).isEqualTo(3);
+		assertThat(dictionary.students().resolve(List.of("S1", "S4"))).containsEntry("S1", 2).containsEntry("S4", 4);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM students", Integer.class)).isEqualTo(4);
+	}
+
+	@Test
+	void keepsKeysOfRolledBackTransactionsOutOfTheCache() {
+		transactionTemplate.executeWithoutResult(status -> {
+			dictionary.courses().resolve(List.of("Mathematics"));
+			status.setRollbackOnly();
+		});
+
+		assertThat(dictionary.courses().size()).isZero();
+		assertThat(dictionary.courses().find("Mathematics")).isNull();
+		assertThat(dictionary.courses().resolve(List.of("Mathematics"))).containsOnlyKeys("Mathematics");
+		assertThat(dictionary.courses().size()).isEqualTo(1);
+	}
+
+	@Test
+	void preloadsKeysWhenAnImportStarts() {
+		jdbcTemplate.update("INSERT INTO students (student_id) VALUES ('S1'), ('S2')");
+		jdbcTemplate.update("INSERT INTO courses (course_name) VALUES ('Biology')");
+
+		dictionary.beforeJob(new JobExecution(1L));
+		// Answered from memory from now on
+		jdbcTemplate.update("DELETE FROM students");
+		jdbcTemplate.update("DELETE FROM courses");
+
+		assertThat(dictionary.students().find("S2")).isEqualTo(2);
+		assertThat(dictionary.courses().resolve(List.of("Biology"))).containsEntry("Biology", 1);
+	}
+}
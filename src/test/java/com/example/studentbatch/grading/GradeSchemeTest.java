@@ -0,0 +1,48 @@
+package com.example.studentbatch.grading;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GradeSchemeTest {
+
+	@Test
+	void standardSchemeMatchesFormerCutoffs() {
+		for (int score = 0; score <= GradeScheme.MAX_SCORE; score++) {
+			String expected = score >= 90 ? "A" : score >= 80 ? "B" : score >= 70 ? "C" : score >= 60 ? "D" : "F";
+			assertThat(GradeScheme.STANDARD.grade(score)).as("score %d", score).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void gradesAreSharedConstants() {
+		GradeScheme scheme = GradeScheme.parse(new String("F:0, A:50"));
+
+		assertThat(scheme.grade(75)).isSameAs(GradeScheme.GRADES.get(0));
+		assertThat(scheme.grade(10)).isSameAs(GradeScheme.GRADES.get(4));
+		assertThat(scheme.getCutoffs()).isEqualTo("A:50,F:0");
+	}
+
+	@Test
+	void rejectsMalformedCutoffs() {
+		assertThatThrownBy(() -> GradeScheme.parse("A:90,B:80")).isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("starts at 0");
+		assertThatThrownBy(() -> GradeScheme.parse("A:90,E:0")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> GradeScheme.parse("A:101,F:0")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> GradeScheme.parse("A:90,B:90,F:0")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> GradeScheme.parse("A90,F:0")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> GradeScheme.parse(" ")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void courseSchemeOverridesInstitutionScheme() {
+		GradeSchemes schemes = new GradeSchemes(GradeScheme.STANDARD, Map.of("Art", GradeScheme.parse("A:80,C:50,F:0")));
+
+		assertThat(schemes.grade("Art", 85)).isEqualTo("A");
+		assertThat(schemes.grade("Art", 55)).isEqualTo("C");
+		assertThat(schemes.grade("Math", 85)).isEqualTo("B");
+	}
+}
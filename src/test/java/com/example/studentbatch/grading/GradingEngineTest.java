@@ -0,0 +1,55 @@
+package com.example.studentbatch.grading;
+
+import com.example.studentbatch.model.GradeSchemeDefinition;
+import com.example.studentbatch.repository.GradeSchemeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GradingEngineTest {
+
+	private final GradeSchemeRepository repository = mock(GradeSchemeRepository.class);
+	private final GradingEngine engine = new GradingEngine(repository, "A:90,B:80,C:70,D:60,F:0");
+
+	@Test
+	void reloadAppliesStoredSchemesAndSkipsInvalidOnes() {
+		when(repository.findAll()).thenReturn(List.of(
+			new GradeSchemeDefinition("*", "A:85,F:0", LocalDateTime.now()),
+			new GradeSchemeDefinition("Art", "B:0", LocalDateTime.now()),
+			new GradeSchemeDefinition("Music", "A:95", LocalDateTime.now())));
+		GradeSchemes before = engine.current();
+
+		engine.reload();
+
+		assertThat(before.grade("Art", 87)).isEqualTo("B");
+		assertThat(engine.current().grade("Math", 87)).isEqualTo("A");
+		assertThat(engine.current().grade("Art", 87)).isEqualTo("B");
+		assertThat(engine.current().getCourseSchemes()).containsOnlyKeys("Art");
+	}
+
+	@Test
+	void keepsCurrentSchemesWhenTableCannotBeRead() {
+		when(repository.findAll()).thenReturn(List.of(new GradeSchemeDefinition("Art", "A:50,F:0", LocalDateTime.now())));
+		engine.reload();
+		when(repository.findAll()).thenThrow(new IllegalStateException("database down"));
+
+		engine.reload();
+
+		assertThat(engine.current().grade("Art", 60)).isEqualTo("A");
+	}
+
+	@Test
+	void saveValidatesBeforeStoring() {
+		assertThatThrownBy(() -> engine.save("Art", "A:90")).isInstanceOf(IllegalArgumentException.class);
+		verify(repository, never()).save(any());
+	}
+}
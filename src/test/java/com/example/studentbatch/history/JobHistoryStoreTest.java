@@ -0,0 +1,105 @@
+package com.example.studentbatch.history;
+
+import com.example.studentbatch.delta.DeltaImportKeysTable;
+import com.example.studentbatch.dto.JobHistoryEntryDto;
+import com.example.studentbatch.rejects.RejectSink;
+import com.example.studentbatch.support.TestPostgres;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobHistoryStoreTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+	private final DataSource dataSource = TestPostgres.dataSource();
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+	private JobHistoryStore store;
+
+	@BeforeEach
+	void createSchema() {
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-postgresql.sql"),
+			new ClassPathResource("schema.sql")).execute(dataSource);
+		new RejectSink(jdbcTemplate, new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), 1, 1, Duration.ZERO)
+			.afterPropertiesSet();
+		new DeltaImportKeysTable(jdbcTemplate).afterPropertiesSet();
+		store = new JobHistoryStore(jdbcTemplate, new DataSourceTransactionManager(dataSource), "BATCH_");
+		store.afterPropertiesSet();
+	}
+
+	@Test
+	void pagesThroughFilteredExecutionsLatestFirst() {
+		for (long id = 1; id <= 5; id++) {
+			execution(id, "importStudentResultsJob", id % 2 == 0 ? BatchStatus.FAILED : BatchStatus.COMPLETED, NOW.minusDays(10 - id));
+		}
+		execution(6, "otherJob", BatchStatus.COMPLETED, NOW);
+
+		List<JobHistoryEntryDto> firstPage = store.findExecutions("importStudentResultsJob", null, null, null, null, 2);
+		List<JobHistoryEntryDto> secondPage = store.findExecutions("importStudentResultsJob", null, null, null, 4L, 2);
+		List<JobHistoryEntryDto> completed = store.findExecutions("importStudentResultsJob", BatchStatus.COMPLETED,
+			NOW.minusDays(8), NOW.minusDays(5), null, 10);
+
+		assertThat(firstPage).extracting(JobHistoryEntryDto::getJobExecutionId).containsExactly(5L, 4L);
+		assertThat(secondPage).extracting(JobHistoryEntryDto::getJobExecutionId).containsExactly(3L, 2L);
+		assertThat(completed).extracting(JobHistoryEntryDto::getJobExecutionId).containsExactly(3L);
+		assertThat(completed.get(0).getStatus()).isEqualTo("COMPLETED");
+		assertThat(completed.get(0).getCreateTime()).isEqualTo(NOW.minusDays(7));
+	}
+
+	@Test
+	void purgesOnlyInstancesWhoseExecutionsAllEndedBeforeTheCutoff() {
+		execution(1, "importStudentResultsJob", BatchStatus.COMPLETED, NOW.minusDays(100));
+		execution(2, "importStudentResultsJob", BatchStatus.FAILED, NOW.minusDays(100));
+		// Instance 2 was restarted recently, so both of its executions stay
+		execution(3, 2, BatchStatus.COMPLETED, NOW.minusDays(1));
+		execution(4, "importStudentResultsJob", BatchStatus.STARTED, NOW.minusDays(100));
+		jdbcTemplate.update("UPDATE BATCH_JOB_EXECUTION SET END_TIME = NULL WHERE JOB_EXECUTION_ID = 4");
+		jdbcTemplate.update("INSERT INTO import_rejects (job_execution_id, step_name, phase, reason, created_at) VALUES (1, 's', 'READ', 'MALFORMED_LINE', now())");
+		jdbcTemplate.update("INSERT INTO upload_imports (content_hash, job_execution_id, byte_size, created_at) VALUES ('h1', 1, 10, now())");
+
+		assertThat(store.purgeBefore(NOW.minusDays(90), 10)).isEqualTo(1);
+
+		assertThat(jdbcTemplate.queryForList("SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY 1", Long.class))
+			.containsExactly(2L, 3L, 4L);
+		assertThat(jdbcTemplate.queryForList("SELECT JOB_INSTANCE_ID FROM BATCH_JOB_INSTANCE ORDER BY 1", Long.class))
+			.containsExactly(2L, 4L);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID = 1", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM import_rejects", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM upload_imports", Long.class)).isZero();
+		assertThat(store.purgeBefore(NOW.minusDays(90), 10)).isZero();
+	}
+
+	private void execution(long id, String jobName, BatchStatus status, LocalDateTime createTime) {
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (?, 0, ?, ?)",
+			id, jobName, "key" + id);
+		execution(id, id, status, createTime);
+	}
+
+	private void execution(long id, long instanceId, BatchStatus status, LocalDateTime createTime) {
+		Timestamp created = Timestamp.valueOf(createTime);
+		Timestamp ended = Timestamp.valueOf(createTime.plusMinutes(5));
+		jdbcTemplate.update("""
+			INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, CREATE_TIME, START_TIME, END_TIME, STATUS, EXIT_CODE)
+			VALUES (?, 1, ?, ?, ?, ?, ?, ?)""", id, instanceId, created, created, ended, status.name(), status.name());
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION_CONTEXT (JOB_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", id);
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, PARAMETER_NAME, PARAMETER_TYPE, PARAMETER_VALUE, IDENTIFYING) VALUES (?, 'time', 'java.lang.Long', '1', 'Y')", id);
+		jdbcTemplate.update("""
+			INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, JOB_EXECUTION_ID, CREATE_TIME, STATUS)
+			VALUES (?, 1, 'importStudentResultsStep', ?, ?, ?)""", id * 10, id, created, status.name());
+		jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION_CONTEXT (STEP_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", id * 10);
+	}
+}
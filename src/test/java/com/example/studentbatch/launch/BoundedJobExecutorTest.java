@@ -0,0 +1,67 @@
+package com.example.studentbatch.launch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedJobExecutorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void queuesBeyondConcurrencyLimitAndRejectsBeyondQueue() throws Exception {
+		BoundedJobExecutor executor = new BoundedJobExecutor(meterRegistry, 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(2);
+		List<String> threads = new CopyOnWriteArrayList<>();
+		Runnable job = () -> {
+			threads.add(Thread.currentThread().isVirtual() + ":" + Thread.currentThread().getName());
+			await(release);
+			done.countDown();
+		};
+
+		executor.execute(job);
+		executor.execute(job);
+
+		assertThat(executor.getRunningCount()).isEqualTo(1);
+		assertThat(executor.getQueuedCount()).isEqualTo(1);
+		assertThat(executor.isSaturated()).isTrue();
+		assertThat(executor.isQueueFull()).isTrue();
+		assertThat(meterRegistry.get("studentbatch.jobs.queued").gauge().value()).isEqualTo(1);
+		assertThatThrownBy(() -> executor.execute(job)).isInstanceOf(TaskRejectedException.class);
+		assertThat(meterRegistry.get("studentbatch.jobs.rejected").counter().count()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(threads).hasSize(2).allMatch(name -> name.startsWith("true:import-job-"));
+	}
+
+	@Test
+	void freesSlotWhenJobThrows() throws Exception {
+		BoundedJobExecutor executor = new BoundedJobExecutor(meterRegistry, 1, 1);
+		CountDownLatch ran = new CountDownLatch(1);
+
+		executor.execute(() -> {
+			throw new IllegalStateException("boom");
+		});
+		executor.execute(ran::countDown);
+
+		assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
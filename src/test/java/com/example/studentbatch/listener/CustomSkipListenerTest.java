@@ -0,0 +1,104 @@
+package com.example.studentbatch.listener;
+
+import com.example.studentbatch.diagnostics.SkipReason;
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.rejects.RejectSink;
+import com.example.studentbatch.rejects.RejectedRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CustomSkipListenerTest {
+
+	private final RejectSink rejectSink = mock(RejectSink.class);
+	private final CustomSkipListener listener = new CustomSkipListener(rejectSink);
+
+	@AfterEach
+	void close() {
+		StepSynchronizationManager.close();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.unbindResourceIfPossible(listener);
+	}
+
+	@Test
+	void countsSkipsByReasonAndQueuesThemWithTheirLine() {
+		StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		StepSynchronizationManager.register(stepExecution);
+
+		listener.onSkipInRead(new FlatFileParseException("Incorrect number of tokens", "bad,line", 7));
+		listener.onSkipInRead(new FlatFileParseException("Incorrect number of tokens", "worse", 9));
+		listener.onSkipInWrite(result("S1", 70, 11L), new DataIntegrityViolationException("duplicate"));
+		listener.afterProcess(result("S2", 170, 12L), null);
+
+		Map<SkipReason, Long> skips = CustomSkipListener.emptySkips();
+		CustomSkipListener.addSkips(stepExecution.getExecutionContext(), skips);
+		assertThat(skips).containsExactly(Map.entry(SkipReason.MALFORMED_LINE, 2L), Map.entry(SkipReason.CONSTRAINT_VIOLATION, 1L));
+
+		ArgumentCaptor<RejectedRecord> records = ArgumentCaptor.forClass(RejectedRecord.class);
+		verify(rejectSink, times(4)).offer(records.capture());
+		assertThat(records.getAllValues()).extracting(RejectedRecord::getPhase, RejectedRecord::getReason, RejectedRecord::getLineNumber, RejectedRecord::getRecord)
+			.containsExactly(
+				tuple(RejectedRecord.READ, "MALFORMED_LINE", 7L, "bad,line"),
+				tuple(RejectedRecord.READ, "MALFORMED_LINE", 9L, "worse"),
+				tuple(RejectedRecord.WRITE, "CONSTRAINT_VIOLATION", 11L, "S1,Math,70"),
+				tuple(RejectedRecord.VALIDATION, "INVALID_SCORE", 12L, "S2,Math,170"));
+	}
+
+	@Test
+	void validationRejectsWaitForTheChunkToCommit() {
+		StepSynchronizationManager.register(MetaDataInstanceFactory.createStepExecution());
+
+		// A chunk that rolls back and is processed again
+		TransactionSynchronizationManager.initSynchronization();
+		listener.afterProcess(result("S2", 170, 12L), null);
+		complete(false);
+		TransactionSynchronizationManager.initSynchronization();
+		listener.afterProcess(result("S2", 170, 12L), null);
+		listener.afterProcess(result("S3", -1, 13L), null);
+
+		verify(rejectSink, never()).offer(any());
+		complete(true);
+
+		ArgumentCaptor<RejectedRecord> records = ArgumentCaptor.forClass(RejectedRecord.class);
+		verify(rejectSink, times(2)).offer(records.capture());
+		assertThat(records.getAllValues()).extracting(RejectedRecord::getLineNumber, RejectedRecord::getRecord)
+			.containsExactly(tuple(12L, "S2,Math,170"), tuple(13L, "S3,Math,-1"));
+		assertThat(TransactionSynchronizationManager.hasResource(listener)).isFalse();
+	}
+
+	private static void complete(boolean committed) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		if (committed) {
+			synchronizations.forEach(TransactionSynchronization::afterCommit);
+		}
+		int status = committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+
+	private static StudentResult result(String studentId, int score, long lineNumber) {
+		StudentResult result = new StudentResult(studentId, "Math", score, null);
+		result.setLineNumber(lineNumber);
+		return result;
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.studentbatch.metrics;
+
+import com.example.studentbatch.model.StudentResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkMetricsListenerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void publishesCommittedCountsAndStageTimesPerChunk() {
+		StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution("importStudentResultsWorkerStep:partition3", 7L);
+		ChunkContext chunkContext = new ChunkContext(new StepContext(stepExecution));
+		ChunkMetricsListener listener = new ChunkMetricsListener(meterRegistry, "copy");
+		listener.beforeStep(stepExecution);
+
+		// A chunk of two reads, one filtered, one skipped line
+		listener.beforeChunk(chunkContext);
+		StudentResult result = new StudentResult("S1", "Math", 70, "C");
+		listener.beforeRead();
+		listener.afterRead(result);
+		listener.beforeProcess(result);
+		listener.afterProcess(result, result);
+		listener.beforeWrite(Chunk.of(result));
+		listener.afterWrite(Chunk.of(result));
+		stepExecution.setReadCount(2);
+		stepExecution.setWriteCount(1);
+		stepExecution.setFilterCount(1);
+		stepExecution.getExecutionContext().putLong("skipped.MALFORMED_LINE", 1L);
+		listener.afterChunk(chunkContext);
+
+		// A chunk that rolls back publishes no counts
+		listener.beforeChunk(chunkContext);
+		listener.afterChunkError(chunkContext);
+
+		assertThat(counter("studentbatch.items.read")).isEqualTo(2);
+		assertThat(counter("studentbatch.items.written")).isEqualTo(1);
+		assertThat(counter("studentbatch.items.filtered")).isEqualTo(1);
+		assertThat(meterRegistry.get("studentbatch.items.skipped").tag("reason", "MALFORMED_LINE").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("studentbatch.chunk.write").tag("step", "importStudentResultsWorkerStep").tag("mode", "copy")
+			.timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("studentbatch.chunk.commit").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("studentbatch.chunk.duration").tag("outcome", "committed").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("studentbatch.chunk.duration").tag("outcome", "rolled_back").timer().count()).isEqualTo(1);
+	}
+
+	private double counter(String name) {
+		return meterRegistry.get(name).tag("step", "importStudentResultsWorkerStep").counter().count();
+	}
+}
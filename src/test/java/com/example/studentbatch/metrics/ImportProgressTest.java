@@ -0,0 +1,66 @@
+package com.example.studentbatch.metrics;
+
+import com.example.studentbatch.dto.ImportProgressDto;
+import com.example.studentbatch.partition.ByteRangePartitioner;
+import com.example.studentbatch.profile.FileProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportProgressTest {
+
+	@Test
+	void snapshotAddsUpPartitionsFromTheirStartOffsets() {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(3L);
+		jobExecution.setStatus(BatchStatus.STARTED);
+		new FileProfile(1000, 101, 0, true, "hash").writeTo(jobExecution.getExecutionContext());
+		jobExecution.createStepExecution("profileUploadStep").setReadCount(999);
+		partition(jobExecution, "importStudentResultsWorkerStep:partition0", 20, 200, 20, 10);
+		partition(jobExecution, "importStudentResultsWorkerStep:partition1", 500, 700, 30, 0);
+
+		ImportProgressDto progress = ImportProgress.snapshot(jobExecution);
+
+		assertThat(progress.getRowsRead()).isEqualTo(50);
+		assertThat(progress.getRowsSkipped()).isEqualTo(10);
+		assertThat(progress.getBytesConsumed()).isEqualTo(380);
+		assertThat(progress.getBytesTotal()).isEqualTo(1000);
+		assertThat(progress.getPercent()).isEqualTo(60.0);
+		assertThat(progress.getRowsPerSecond()).isPositive();
+		// 380 bytes in about ten seconds leaves 620 bytes, about sixteen seconds
+		assertThat(progress.getEtaSeconds()).isBetween(15L, 18L);
+	}
+
+	@Test
+	void broadcasterOnlyServesJobsRunningOnThisNode() {
+		ImportProgressBroadcaster broadcaster = new ImportProgressBroadcaster(new SimpleMeterRegistry(),
+			Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofSeconds(15));
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(4L);
+		jobExecution.setStatus(BatchStatus.STARTED);
+
+		assertThat(broadcaster.subscribe(4L)).isNull();
+		broadcaster.beforeJob(jobExecution);
+		assertThat(broadcaster.subscribe(4L)).isNotNull();
+		assertThat(broadcaster.getSubscriberCount()).isEqualTo(1);
+		jobExecution.setStatus(BatchStatus.COMPLETED);
+		broadcaster.afterJob(jobExecution);
+		assertThat(broadcaster.getSubscriberCount()).isZero();
+		assertThat(broadcaster.subscribe(4L)).isNull();
+	}
+
+	private static void partition(JobExecution jobExecution, String stepName, long startOffset, long offset, int readCount, int skipCount) {
+		StepExecution stepExecution = jobExecution.createStepExecution(stepName);
+		stepExecution.setStartTime(LocalDateTime.now().minusSeconds(10));
+		stepExecution.setReadCount(readCount);
+		stepExecution.setReadSkipCount(skipCount);
+		stepExecution.getExecutionContext().putLong(ByteRangePartitioner.START_OFFSET_KEY, startOffset);
+		stepExecution.getExecutionContext().putLong("studentResultPartitionReader.byte.offset", offset);
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.studentbatch.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteRangePartitionerTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void rangesAreLineAlignedAndCoverEveryRecordOnce() throws IOException {
+		StringBuilder csv = new StringBuilder("studentId,courseName,score\n");
+		List<String> records = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			String record = "S" + i + ",Course" + (i % 7) + "," + (i % 101);
+			records.add(record);
+			csv.append(record).append('\n');
+		}
+		Path file = Files.writeString(tempDir.resolve("results.csv"), csv);
+
+		Map<String, ExecutionContext> partitions = new ByteRangePartitioner(file).partition(6);
+
+		assertThat(partitions).hasSize(6);
+		List<String> readBack = new ArrayList<>();
+		for (ExecutionContext context : partitions.values()) {
+			// The header and the records of the earlier ranges
+			assertThat(context.getLong(ByteRangePartitioner.LINES_BEFORE_KEY)).isEqualTo(1 + readBack.size());
+			readBack.addAll(readRange(file, context).lines().toList());
+		}
+		assertThat(readBack).containsExactlyElementsOf(records);
+	}
+
+	@Test
+	void headerOnlyFileYieldsSingleEmptyRange() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("empty.csv"), "studentId,courseName,score\n");
+
+		Map<String, ExecutionContext> partitions = new ByteRangePartitioner(file).partition(4);
+
+		assertThat(partitions).hasSize(1);
+		assertThat(readRange(file, partitions.get("partition0"))).isEmpty();
+	}
+
+	@Test
+	void lastRecordWithoutTrailingNewlineIsKept() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("results.csv"),
+			"studentId,courseName,score\nS1,Math,50\nS2,Math,60\nS3,Math,70");
+
+		Map<String, ExecutionContext> partitions = new ByteRangePartitioner(file).partition(2);
+
+		List<String> readBack = new ArrayList<>();
+		for (ExecutionContext context : partitions.values()) {
+			readBack.addAll(readRange(file, context).lines().toList());
+		}
+		assertThat(readBack).containsExactly("S1,Math,50", "S2,Math,60", "S3,Math,70");
+	}
+
+	private static String readRange(Path file, ExecutionContext context) throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		int start = (int) context.getLong(ByteRangePartitioner.START_OFFSET_KEY);
+		int end = (int) context.getLong(ByteRangePartitioner.END_OFFSET_KEY);
+		return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+	}
+}
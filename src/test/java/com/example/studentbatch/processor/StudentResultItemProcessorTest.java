@@ -0,0 +1,111 @@
+package com.example.studentbatch.processor;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.studentbatch.diagnostics.ProcessingDiagnostics;
+import com.example.studentbatch.diagnostics.RejectionReason;
+import com.example.studentbatch.grading.GradeSchemes;
+import com.example.studentbatch.model.StudentResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentResultItemProcessorTest {
+
+	private final Logger logger = (Logger) LoggerFactory.getLogger(StudentResultItemProcessor.class);
+	private final ListAppender<ILoggingEvent> dumps = new ListAppender<>();
+
+	@BeforeEach
+	void captureDumps() {
+		dumps.start();
+		logger.addAppender(dumps);
+		logger.setLevel(Level.INFO);
+	}
+
+	@AfterEach
+	void releaseDumps() {
+		logger.detachAppender(dumps);
+		logger.setLevel(null);
+	}
+
+	@Test
+	void gradesValidRecords() throws Exception {
+		StudentResultItemProcessor processor = new StudentResultItemProcessor(0, false, GradeSchemes.STANDARD);
+
+		StudentResult result = processor.process(new StudentResult("S1", "Biology", 84, null));
+
+		assertThat(result.getGrade()).isEqualTo("B");
+		assertThat(processor.getDiagnostics().getProcessed()).isEqualTo(1);
+		assertThat(dumps.list).isEmpty();
+	}
+
+	@Test
+	void filtersInvalidRecordsAndCountsTheirReasons() throws Exception {
+		StudentResultItemProcessor processor = new StudentResultItemProcessor(0, false, GradeSchemes.STANDARD);
+
+		assertThat(processor.process(new StudentResult("", "Biology", 84, null))).isNull();
+		assertThat(processor.process(new StudentResult("S1", "Biology", 101, null))).isNull();
+		assertThat(processor.process(new StudentResult("S2", "Biology", -1, null))).isNull();
+		ExecutionContext context = new ExecutionContext();
+		processor.update(context);
+
+		Map<RejectionReason, Long> rejections = ProcessingDiagnostics.emptyRejections();
+		ProcessingDiagnostics.addRejections(context, rejections);
+		assertThat(rejections).containsOnly(
+			Map.entry(RejectionReason.INVALID_STUDENT_ID, 1L),
+			Map.entry(RejectionReason.INVALID_SCORE, 2L));
+		assertThat(context.getLong(ProcessingDiagnostics.REJECTED_COUNT_KEY)).isEqualTo(3);
+	}
+
+	@Test
+	void dumpsOneRecordInSampleRate() throws Exception {
+		StudentResultItemProcessor processor = new StudentResultItemProcessor(2, false, GradeSchemes.STANDARD);
+
+		processor.process(new StudentResult("S1", "Biology", 84, null));
+		processor.process(new StudentResult("S2", "Biology", 200, null));
+		processor.process(new StudentResult("S3", "Biology", 55, null));
+		processor.process(new StudentResult("S4", "Biology", 91, null));
+
+		assertThat(dumps.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+			"Rejected record #2: studentId='S2', courseName='Biology', score=200, grade='null' (INVALID_SCORE)",
+			"Accepted record #4: studentId='S4', courseName='Biology', score=91, grade='A'");
+	}
+
+	@Test
+	void debugJobDumpsEveryRecord() throws Exception {
+		StudentResultItemProcessor processor = new StudentResultItemProcessor(0, true, GradeSchemes.STANDARD);
+
+		processor.process(new StudentResult("S1", "Biology", 84, null));
+		processor.process(null);
+
+		assertThat(dumps.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+			"Accepted record #1: studentId='S1', courseName='Biology', score=84, grade='B'",
+			"Rejected record #2: null (NULL_RECORD)");
+	}
+
+	@Test
+	void restartedStepCarriesOnFromTheSavedCounts() throws Exception {
+		StudentResultItemProcessor first = new StudentResultItemProcessor(3, false, GradeSchemes.STANDARD);
+		first.process(new StudentResult("S1", "Biology", 84, null));
+		first.process(new StudentResult("S2", "Biology", 200, null));
+		ExecutionContext context = new ExecutionContext();
+		first.update(context);
+
+		StudentResultItemProcessor restarted = new StudentResultItemProcessor(3, false, GradeSchemes.STANDARD);
+		restarted.open(context);
+		restarted.process(new StudentResult("S3", "Biology", 55, null));
+
+		assertThat(restarted.getDiagnostics().getProcessed()).isEqualTo(3);
+		assertThat(restarted.getDiagnostics().getRejected()).isEqualTo(1);
+		assertThat(dumps.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+			"Accepted record #3: studentId='S3', courseName='Biology', score=55, grade='F'");
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.studentbatch.profile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileProfilerTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void countsLinesEmptyLinesAndHashesContent() throws Exception {
+		String csv = "studentId,courseName,score\r\nS0001,Mathematics,68\r\n\r\n   \nS0002,Biology,74";
+		Path file = Files.writeString(tempDir.resolve("results.csv"), csv);
+
+		FileProfile profile = FileProfiler.profile(file);
+
+		assertThat(profile.getByteSize()).isEqualTo(csv.getBytes(StandardCharsets.UTF_8).length);
+		assertThat(profile.getLineCount()).isEqualTo(Files.readAllLines(file).size());
+		assertThat(profile.getEmptyLineCount()).isEqualTo(2);
+		assertThat(profile.isHeaderValid()).isTrue();
+		assertThat(profile.getDataLineCount()).isEqualTo(4);
+		assertThat(profile.getSha256()).isEqualTo(HexFormat.of().formatHex(
+			MessageDigest.getInstance("SHA-256").digest(csv.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	void incrementalUpdatesMatchWholeFileProfile() throws IOException {
+		byte[] csv = "\uFEFFstudentId,courseName,score\nS1,Math,50\nS2,Math,60\n".getBytes(StandardCharsets.UTF_8);
+		Path file = Files.write(tempDir.resolve("results.csv"), csv);
+
+		FileProfiler profiler = new FileProfiler();
+		for (int i = 0; i < csv.length; i += 5) {
+			profiler.update(ByteBuffer.wrap(csv, i, Math.min(5, csv.length - i)));
+		}
+
+		assertThat(profiler.finish()).isEqualTo(FileProfiler.profile(file));
+		assertThat(FileProfiler.profile(file).isHeaderValid()).isTrue();
+	}
+
+	@Test
+	void unexpectedHeaderIsReported() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("results.csv"), "id,course,mark\nS1,Math,50\n");
+
+		assertThat(FileProfiler.profile(file).isHeaderValid()).isFalse();
+	}
+}
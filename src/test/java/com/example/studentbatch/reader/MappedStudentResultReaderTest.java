@@ -0,0 +1,175 @@
+package com.example.studentbatch.reader;
+
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.upload.UploadSpool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MappedStudentResultReaderTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void readsRecordsAfterHeader() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("results.csv"),
+			"studentId,courseName,score\r\nS0001,Mathematics,68\r\nS0002,Biology, 74 \r\nS0003,\"Art, History\",90");
+
+		List<StudentResult> results = readAll(new MappedStudentResultReader("test", file, 0, -1, true), new ExecutionContext());
+
+		assertThat(results).extracting(StudentResult::getStudentId, StudentResult::getCourseName, StudentResult::getScore, StudentResult::getLineNumber)
+			.containsExactly(
+				tuple("S0001", "Mathematics", 68, 2L),
+				tuple("S0002", "Biology", 74, 3L),
+				tuple("S0003", "Art, History", 90, 4L));
+	}
+
+	@Test
+	void followsStreamingUploadUntilComplete() throws Exception {
+		Path file = tempDir.resolve("stream.csv");
+		UploadSpool spool = new UploadSpool(file, Duration.ofSeconds(5));
+		append(file, spool, "studentId,courseName,sco");
+		MappedStudentResultReader reader = new MappedStudentResultReader("test", file, 0, -1, true, 32, spool);
+
+		// The reader blocks on the partial header and on the partial record until more bytes arrive
+		Thread writer = Thread.ofVirtual().start(() -> {
+			try {
+				Thread.sleep(50);
+				append(file, spool, "re\nS0001,Mathe");
+				Thread.sleep(50);
+				append(file, spool, "matics,68\nS0002,Biology,74");
+				Thread.sleep(50);
+				spool.complete(Files.size(file));
+			} catch (Exception e) {
+				spool.fail(new IOException(e));
+			}
+		});
+		reader.open(new ExecutionContext());
+
+		assertThat(reader.read()).extracting(StudentResult::getStudentId, StudentResult::getCourseName, StudentResult::getScore)
+			.containsExactly("S0001", "Mathematics", 68);
+		assertThat(reader.read()).extracting(StudentResult::getStudentId, StudentResult::getScore).containsExactly("S0002", 74);
+		assertThat(reader.read()).isNull();
+		writer.join();
+		reader.close();
+	}
+
+	@Test
+	void failedStreamingUploadFailsTheReader() throws IOException {
+		Path file = tempDir.resolve("stream.csv");
+		UploadSpool spool = new UploadSpool(file, Duration.ofSeconds(5));
+		append(file, spool, "studentId,courseName,score\nS0001,Mathematics,68\n");
+		MappedStudentResultReader reader = new MappedStudentResultReader("test", file, 0, -1, true, spool);
+		reader.open(new ExecutionContext());
+
+		assertThat(reader.read().getStudentId()).isEqualTo("S0001");
+		spool.fail(new IOException("connection reset"));
+		assertThatThrownBy(reader::read).isInstanceOf(ItemStreamException.class).hasRootCauseMessage("connection reset");
+		reader.close();
+	}
+
+	private static void append(Path file, UploadSpool spool, String content) throws IOException {
+		Files.writeString(file, content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		spool.advance(Files.size(file));
+	}
+
+	@Test
+	void blankScoreMapsToNull() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("results.csv"), "studentId,courseName,score\nS0001,Mathematics,\n");
+
+		List<StudentResult> results = readAll(new MappedStudentResultReader("test", file, 0, -1, true), new ExecutionContext());
+
+		assertThat(results).singleElement().extracting(StudentResult::getScore).isNull();
+	}
+
+	@Test
+	void malformedLinesRaiseParseExceptionAndReadingContinues() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("results.csv"),
+			"studentId,courseName,score\nS0001,Mathematics\nS0002,Biology,abc\n\nS0003,Physics,55\n");
+		MappedStudentResultReader reader = new MappedStudentResultReader("test", file, 0, -1, true);
+		reader.open(new ExecutionContext());
+
+		assertThatThrownBy(reader::read).isInstanceOf(FlatFileParseException.class)
+			.hasFieldOrPropertyWithValue("input", "S0001,Mathematics");
+		assertThatThrownBy(reader::read).isInstanceOf(FlatFileParseException.class)
+			.hasFieldOrPropertyWithValue("input", "S0002,Biology,abc");
+		assertThatThrownBy(reader::read).isInstanceOf(FlatFileParseException.class);
+		assertThat(reader.read().getStudentId()).isEqualTo("S0003");
+		assertThat(reader.read()).isNull();
+		reader.close();
+	}
+
+	@Test
+	void rangeNumbersLinesFromTheStartOfTheFile() throws IOException {
+		String header = "studentId,courseName,score\nS1,Math,10\n";
+		Path file = Files.writeString(tempDir.resolve("results.csv"), header + "S2,Math,20\nS3,Math\n");
+		MappedStudentResultReader reader = new MappedStudentResultReader("test", file, header.length(), -1, 2);
+		reader.open(new ExecutionContext());
+
+		assertThat(reader.read()).extracting(StudentResult::getStudentId, StudentResult::getLineNumber).containsExactly("S2", 3L);
+		assertThatThrownBy(reader::read).isInstanceOf(FlatFileParseException.class)
+			.hasFieldOrPropertyWithValue("lineNumber", 4)
+			.hasMessageContaining("at line 4");
+		reader.close();
+	}
+
+	@Test
+	void restartResumesFromSavedByteOffset() throws IOException {
+		Path file = Files.writeString(tempDir.resolve("results.csv"),
+			"studentId,courseName,score\nS1,Math,10\nS2,Math,20\nS3,Math,30\n");
+		ExecutionContext context = new ExecutionContext();
+		MappedStudentResultReader first = new MappedStudentResultReader("test", file, 0, -1, true);
+		first.open(context);
+		first.read();
+		first.update(context);
+		first.close();
+
+		List<StudentResult> resumed = readAll(new MappedStudentResultReader("test", file, 0, -1, true), context);
+
+		assertThat(resumed).extracting(StudentResult::getStudentId).containsExactly("S2", "S3");
+	}
+
+	@Test
+	void linesCrossingMappedWindowsAreReadWhole() throws IOException {
+		StringBuilder csv = new StringBuilder("studentId,courseName,score\n");
+		for (int i = 0; i < 500; i++) {
+			csv.append("S").append(i).append(",Course").append(i % 13).append(',').append(i % 101).append('\n');
+		}
+		Path file = Files.writeString(tempDir.resolve("results.csv"), csv);
+
+		List<StudentResult> results = readAll(new MappedStudentResultReader("test", file, 0, -1, true, 64), new ExecutionContext());
+
+		assertThat(results).hasSize(500);
+		assertThat(results.get(499).getStudentId()).isEqualTo("S499");
+		assertThat(results.get(499).getScore()).isEqualTo(499 % 101);
+	}
+
+	private static List<StudentResult> readAll(MappedStudentResultReader reader, ExecutionContext context) {
+		reader.open(context);
+		try {
+			List<StudentResult> results = new ArrayList<>();
+			StudentResult result;
+			while ((result = reader.read()) != null) {
+				results.add(result);
+			}
+			return results;
+		} finally {
+			reader.close();
+		}
+	}
+}
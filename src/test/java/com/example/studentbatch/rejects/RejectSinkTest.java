@@ -0,0 +1,84 @@
+package com.example.studentbatch.rejects;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RejectSinkTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<List<RejectedRecord>> batches = new ArrayList<>();
+	private final List<String> writerThreads = new ArrayList<>();
+	private RejectSink sink;
+
+	@AfterEach
+	void stop() {
+		if (sink != null) {
+			sink.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void writesQueuedRecordsInBatchesOffTheCallingThread() throws InterruptedException {
+		when(jdbcTemplate.batchUpdate(eq(RejectSink.INSERT_SQL), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+			.thenAnswer(invocation -> {
+				synchronized (batches) {
+					batches.add(new ArrayList<>(invocation.<Collection<RejectedRecord>>getArgument(1)));
+					writerThreads.add(Thread.currentThread().getName());
+				}
+				return new int[0][];
+			});
+		sink = sink(100, 2);
+		sink.start();
+
+		for (int line = 1; line <= 5; line++) {
+			assertThat(sink.offer(record(line))).isTrue();
+		}
+
+		assertThat(sink.flush(Duration.ofSeconds(5))).isTrue();
+		assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+		assertThat(batches.stream().flatMap(List::stream).map(RejectedRecord::getLineNumber)).containsExactly(1L, 2L, 3L, 4L, 5L);
+		assertThat(writerThreads).containsOnly("import-rejects-writer");
+		assertThat(meterRegistry.get("studentbatch.rejects.written").counter().count()).isEqualTo(5);
+	}
+
+	@Test
+	void dropsRecordsRatherThanBlockingWhenTheQueueIsFull() throws InterruptedException {
+		sink = sink(2, 10);
+
+		assertThat(sink.offer(record(1))).isTrue();
+		assertThat(sink.offer(record(2))).isTrue();
+		assertThat(sink.offer(record(3))).isFalse();
+
+		assertThat(meterRegistry.get("studentbatch.rejects.dropped").counter().count()).isEqualTo(1);
+		assertThat(sink.flush(Duration.ofMillis(50))).isFalse();
+	}
+
+	private RejectSink sink(int queueCapacity, int batchSize) {
+		return new RejectSink(jdbcTemplate, mock(PlatformTransactionManager.class), meterRegistry,
+			queueCapacity, batchSize, Duration.ofSeconds(5));
+	}
+
+	private static RejectedRecord record(long lineNumber) {
+		return new RejectedRecord(1L, "importStudentResultsStep", RejectedRecord.READ, "MALFORMED_LINE",
+			lineNumber, "bad,line", "FlatFileParseException: Incorrect number of tokens");
+	}
+}
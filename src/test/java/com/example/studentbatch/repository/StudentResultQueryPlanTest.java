@@ -0,0 +1,145 @@
+package com.example.studentbatch.repository;
+
+import com.example.studentbatch.support.TestPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains the SQL that Hibernate generates for the read queries on an embedded
+ * PostgreSQL holding enough rows for the planner to prefer an index where one fits.
+ * The {@code students} and {@code courses} tables are only a few pages, which the
+ * planner may well scan whole.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+	+ "com.example.studentbatch.repository.StudentResultQueryPlanTest$CapturedStatements")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentResultQueryPlanTest {
+
+	private static boolean populated;
+
+	@Autowired
+	private StudentResultRepository repository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void dataSource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", TestPostgres::jdbcUrl);
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "");
+		registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+	}
+
+	@BeforeEach
+	void populate() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		if (populated) {
+			return;
+		}
+		// Other tests share the database; start from the schema alone
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		// Keys follow the numbers in the IDs: student S42 is key 42
+		jdbcTemplate.update("INSERT INTO students (student_id) SELECT 'S' || s FROM generate_series(1, 500) s ORDER BY s");
+		jdbcTemplate.update("INSERT INTO courses (course_name) SELECT 'C' || c FROM generate_series(1, 100) c ORDER BY c");
+		jdbcTemplate.update("""
+			INSERT INTO student_results (student_key, course_key, score, grade)
+			SELECT s, c, (s * 7 + c) % 101, 'F'
+			FROM generate_series(1, 500) s, generate_series(1, 100) c""");
+		jdbcTemplate.execute("ANALYZE students");
+		jdbcTemplate.execute("ANALYZE courses");
+		jdbcTemplate.execute("ANALYZE student_results");
+		populated = true;
+	}
+
+	@Test
+	void studentLookupUsesStudentCourseKeyIndex() {
+		String plan = explain(() -> repository.findDetailsByStudentId("S42"), "'S42'");
+
+		assertThat(plan).contains("uk_student_results_student_course").doesNotContain("Seq Scan on student_results");
+	}
+
+	@Test
+	void bulkStudentLookupUsesStudentCourseKeyIndex() {
+		String plan = explain(() -> repository.findRowsByStudentIds(new String[] {"S42", "S43", "S44"}), "'{S42,S43,S44}'");
+
+		assertThat(plan).contains("uk_student_results_student_course").doesNotContain("Seq Scan on student_results");
+	}
+
+	@Test
+	void rosterPagesSeekIntoCourseScoreIndex() {
+		String firstPage = explain(() -> repository.findRoster("C7", Limit.of(51)), "'C7'", "51");
+		String laterPage = explain(() -> repository.findRosterAfter("C7", 60, 300, Limit.of(51)), "'C7'", "60", "300", "51");
+
+		assertThat(firstPage).contains("idx_student_results_course_score").doesNotContain("Seq Scan on student_results").doesNotContain("Sort");
+		assertThat(laterPage).contains("idx_student_results_course_score").doesNotContain("Seq Scan on student_results").doesNotContain("Sort")
+			.containsPattern("Index Cond: .*ROW\\(score, .*student_key.*\\) < ROW");
+	}
+
+	/** Runs the query to capture its SQL, then explains that SQL with the given literal arguments. */
+	private String explain(Runnable query, String... arguments) {
+		CapturedStatements.statements.clear();
+		query.run();
+		String sql = CapturedStatements.statements.get(CapturedStatements.statements.size() - 1);
+
+		// PREPARE numbers its parameters where JDBC has question marks
+		StringBuilder numbered = new StringBuilder();
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			numbered.append(c == '?' ? "$" + ++parameter : String.valueOf(c));
+		}
+		assertThat(parameter).as("parameters of %s", sql).isEqualTo(arguments.length);
+
+		return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("PREPARE plan_test AS " + numbered);
+				List<String> lines = new ArrayList<>();
+				try (ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE plan_test(" + String.join(", ", arguments) + ")")) {
+					while (resultSet.next()) {
+						lines.add(resultSet.getString(1));
+					}
+				} finally {
+					statement.execute("DEALLOCATE plan_test");
+				}
+				return String.join("\n", lines);
+			}
+		});
+	}
+
+	public static class CapturedStatements implements StatementInspector {
+
+		static final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.studentbatch.statistics;
+
+import com.example.studentbatch.dto.CourseStatisticsDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CourseSketchTest {
+
+	@Test
+	void computesStatisticsFromCounts() {
+		CourseSketch sketch = sketch(2, 4, 4, 4, 5, 5, 7, 9);
+
+		CourseStatisticsDto statistics = sketch.toStatistics("Math", new int[]{50, 90});
+
+		assertThat(statistics.getResultCount()).isEqualTo(8);
+		assertThat(statistics.getAverageScore()).isEqualTo(5.0);
+		assertThat(statistics.getStandardDeviation()).isCloseTo(2.0, within(1e-9));
+		assertThat(statistics.getMinScore()).isEqualTo(2);
+		assertThat(statistics.getMaxScore()).isEqualTo(9);
+		assertThat(statistics.getPercentiles()).containsEntry("p50", 4).containsEntry("p90", 9);
+		assertThat(statistics.getGradeDistribution()).containsEntry("F", 8L);
+	}
+
+	@Test
+	void mergedSketchesMatchOneSketchOfAllResults() {
+		CourseSketch left = sketch(10, 55, 90);
+		left.merge(sketch(55, 100));
+
+		assertThat(left.getScoreCounts()).isEqualTo(sketch(10, 55, 90, 55, 100).getScoreCounts());
+		assertThat(left.scoreAtPercentile(50)).isEqualTo(55);
+	}
+
+	@Test
+	void roundTripsThroughEncoding() {
+		CourseSketch sketch = sketch(0, 73, 100);
+		sketch.add(73, "C");
+
+		CourseSketch decoded = CourseSketch.decode(sketch.encode());
+
+		assertThat(decoded.getScoreCounts()).isEqualTo(sketch.getScoreCounts());
+		assertThat(decoded.getGradeCounts()).isEqualTo(sketch.getGradeCounts());
+		assertThatThrownBy(() -> CourseSketch.decode("1,2,3")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static CourseSketch sketch(int... scores) {
+		CourseSketch sketch = new CourseSketch();
+		for (int score : scores) {
+			sketch.add(score, "F");
+		}
+		return sketch;
+	}
+}
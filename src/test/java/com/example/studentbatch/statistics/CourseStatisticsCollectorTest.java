@@ -0,0 +1,82 @@
+package com.example.studentbatch.statistics;
+
+import com.example.studentbatch.model.StudentResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseStatisticsCollectorTest {
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void countsChunkOnlyOnceItCommits() {
+		CourseStatisticsCollector collector = new CourseStatisticsCollector();
+		JobExecution jobExecution = new JobExecution(1L);
+		StepExecution stepExecution = jobExecution.createStepExecution("importStudentResultsStep");
+		collector.beforeStep(stepExecution);
+
+		TransactionSynchronizationManager.initSynchronization();
+		collector.afterWrite(new Chunk<>(result("S1", "Math", 90, "A"), result("S2", "Art", 40, "F")));
+		collector.afterWrite(new Chunk<>(result("S3", "Math", 70, "C")));
+		TransactionSynchronizationManager.getSynchronizations().get(0).afterCommit();
+		TransactionSynchronizationManager.getSynchronizations().get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		collector.afterStep(stepExecution);
+
+		Map<String, CourseSketch> merged = CourseStatisticsCollector.merged(jobExecution);
+		assertThat(merged).containsOnlyKeys("Art", "Math");
+		assertThat(merged.get("Math").count()).isEqualTo(1);
+	}
+
+	@Test
+	void mergesSketchesOfAllPartitions() {
+		JobExecution jobExecution = new JobExecution(1L);
+		for (int partition = 0; partition < 2; partition++) {
+			CourseStatisticsCollector collector = new CourseStatisticsCollector();
+			StepExecution stepExecution = jobExecution.createStepExecution("importStudentResultsWorkerStep:partition" + partition);
+			collector.beforeStep(stepExecution);
+			collector.afterWrite(new Chunk<>(result("S" + partition, "Math", 60 + partition * 20, "D")));
+			collector.afterStep(stepExecution);
+		}
+
+		CourseSketch math = CourseStatisticsCollector.merged(jobExecution).get("Math");
+
+		assertThat(math.count()).isEqualTo(2);
+		assertThat(math.mean()).isEqualTo(70.0);
+		assertThat(math.getGradeCounts()[3]).isEqualTo(2);
+	}
+
+	@Test
+	void restartedStepCarriesOnFromSavedSketches() {
+		JobExecution jobExecution = new JobExecution(1L);
+		StepExecution stepExecution = jobExecution.createStepExecution("importStudentResultsStep");
+		CourseStatisticsCollector first = new CourseStatisticsCollector();
+		first.beforeStep(stepExecution);
+		first.afterWrite(new Chunk<>(result("S1", "Math", 50, "F")));
+		first.afterStep(stepExecution);
+
+		CourseStatisticsCollector restarted = new CourseStatisticsCollector();
+		restarted.beforeStep(stepExecution);
+		restarted.afterWrite(new Chunk<>(result("S2", "Math", 100, "A")));
+		restarted.afterStep(stepExecution);
+
+		assertThat(CourseStatisticsCollector.merged(jobExecution).get("Math").count()).isEqualTo(2);
+	}
+
+	private static StudentResult result(String studentId, String courseName, int score, String grade) {
+		return new StudentResult(studentId, courseName, score, grade);
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.studentbatch.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * One embedded PostgreSQL shared by every database test in the run, started on first
+ * use and stopped when the JVM exits. Tests share its {@code postgres} database and
+ * recreate the {@code public} schema they need before each test.
+ */
+public final class TestPostgres {
+
+	private TestPostgres() {
+	}
+
+	public static DataSource dataSource() {
+		return Holder.POSTGRES.getPostgresDatabase();
+	}
+
+	public static DataSource dataSource(Map<String, String> properties) {
+		return Holder.POSTGRES.getDatabase("postgres", "postgres", properties);
+	}
+
+	public static String jdbcUrl() {
+		return Holder.POSTGRES.getJdbcUrl("postgres", "postgres");
+	}
+
+	private static final class Holder {
+
+		static final EmbeddedPostgres POSTGRES = start();
+
+		private static EmbeddedPostgres start() {
+			try {
+				EmbeddedPostgres postgres = EmbeddedPostgres.start();
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						postgres.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}));
+				return postgres;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class StudentAggregateUpsertWriterTest {
+
+	@Test
+	void locksAggregatesBeforeRecomputingThem() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+		new StudentAggregateUpsertWriter(jdbcTemplate).write(Chunk.of(
+			new StudentResult("S2", "Mathematics", 95, "A"),
+			new StudentResult("S1", "Physics", 55, "F")));
+
+		InOrder order = inOrder(jdbcTemplate);
+		order.verify(jdbcTemplate).update(eq(StudentAggregateUpsertWriter.ENSURE_SQL), any(PreparedStatementSetter.class));
+		order.verify(jdbcTemplate).query(eq(StudentAggregateUpsertWriter.LOCK_SQL), any(PreparedStatementSetter.class),
+			any(RowCallbackHandler.class));
+		order.verify(jdbcTemplate).update(eq(StudentAggregateUpsertWriter.RECOMPUTE_SQL), any(PreparedStatementSetter.class));
+	}
+
+	@Test
+	void emptyChunkIssuesNoStatement() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+		new StudentAggregateUpsertWriter(jdbcTemplate).write(new Chunk<>());
+
+		verifyNoInteractions(jdbcTemplate);
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.batch.item.Chunk;
+
+import javax.sql.DataSource;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentResultCopyWriterTest {
+
+	private final List<String> copyStatements = new ArrayList<>();
+	private final List<String> copyPayloads = new ArrayList<>();
+
+	private DataSource dataSource;
+	private Connection connection;
+	private Statement statement;
+	private CopyManager copyManager;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = mock(DataSource.class);
+		connection = mock(Connection.class);
+		PGConnection pgConnection = mock(PGConnection.class);
+		copyManager = mock(CopyManager.class);
+		statement = mock(Statement.class);
+
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.createStatement()).thenReturn(statement);
+		when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+		when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+		when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+			StringWriter payload = new StringWriter();
+			invocation.<Reader>getArgument(1).transferTo(payload);
+			copyStatements.add(invocation.getArgument(0));
+			copyPayloads.add(payload.toString());
+			return payload.toString().lines().count();
+		});
+	}
+
+	@Test
+	void copiesWholeChunkIntoStagingAndMergesIt() throws Exception {
+		StudentResultCopyWriter writer = new StudentResultCopyWriter(dataSource);
+
+		writer.write(Chunk.of(
+			keyed(new StudentResult("S0001", "Mathematics", 68, "D"), 1, 7),
+			keyed(new StudentResult("S0002", "Biology", 91, "A"), 2, 3)));
+
+		assertThat(copyStatements).containsExactly(StudentResultCopyWriter.COPY_SQL);
+		assertThat(copyPayloads).containsExactly(
+			"1,7,68,\"D\"\n" +
+			"2,3,91,\"A\"\n");
+		InOrder order = inOrder(statement, copyManager);
+		order.verify(statement).execute(StudentResultCopyWriter.CREATE_STAGING_SQL);
+		order.verify(copyManager).copyIn(anyString(), any(Reader.class));
+		order.verify(statement).executeUpdate(StudentResultCopyWriter.MERGE_SQL);
+		verify(connection).close();
+	}
+
+	@Test
+	void writesMissingGradeAsNull() throws Exception {
+		StudentResultCopyWriter writer = new StudentResultCopyWriter(dataSource);
+
+		writer.write(Chunk.of(keyed(new StudentResult("S\"7", "Art, History", 55, null), 12, 4)));
+
+		assertThat(copyPayloads).containsExactly("12,4,55,\n");
+	}
+
+	@Test
+	void emptyChunkDoesNotTouchTheDatabase() throws Exception {
+		StudentResultCopyWriter writer = new StudentResultCopyWriter(dataSource);
+
+		writer.write(new Chunk<>());
+
+		verify(dataSource, never()).getConnection();
+	}
+
+	private static StudentResult keyed(StudentResult result, int studentKey, int courseKey) {
+		result.setStudentKey(studentKey);
+		result.setCourseKey(courseKey);
+		return result;
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.delta.DeltaChangeCounter;
+import com.example.studentbatch.model.StudentResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentResultDeltaWriterTest {
+
+	@Test
+	void passesOnlyNewAndChangedResultsToTheDelegate() throws Exception {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		storedRows(jdbcTemplate,
+			keyed(new StudentResult("S1", "Mathematics", 95, "A"), 1, 1),
+			keyed(new StudentResult("S2", "Physics", 55, "F"), 2, 2));
+		List<StudentResult> delegated = new ArrayList<>();
+		ItemWriter<StudentResult> delegate = chunk -> delegated.addAll(chunk.getItems());
+		DeltaChangeCounter counter = new DeltaChangeCounter("delta");
+
+		new StudentResultDeltaWriter(jdbcTemplate, 7L, counter, delegate).write(Chunk.of(
+			keyed(new StudentResult("S1", "Mathematics", 95, "A"), 1, 1),
+			keyed(new StudentResult("S2", "Physics", 65, "D"), 2, 2),
+			keyed(new StudentResult("S3", "Biology", 91, "A"), 3, 3)));
+
+		assertThat(delegated).extracting(StudentResult::getStudentId).containsExactly("S2", "S3");
+		verify(jdbcTemplate).update(eq(StudentResultDeltaWriter.RECORD_KEYS_SQL), any(PreparedStatementSetter.class));
+
+		StepExecution stepExecution = new JobExecution(1L).createStepExecution("importStudentResultsStep");
+		counter.afterStep(stepExecution);
+		assertThat(DeltaChangeCounter.totals(stepExecution.getJobExecution()))
+			.containsEntry("inserted", 1L)
+			.containsEntry("updated", 1L)
+			.containsEntry("unchanged", 1L);
+	}
+
+	private static void storedRows(JdbcTemplate jdbcTemplate, StudentResult... rows) throws Exception {
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(2);
+			for (StudentResult row : rows) {
+				ResultSet resultSet = mock(ResultSet.class);
+				when(resultSet.getInt(1)).thenReturn(row.getStudentKey());
+				when(resultSet.getInt(2)).thenReturn(row.getCourseKey());
+				when(resultSet.getInt(3)).thenReturn(row.getScore());
+				when(resultSet.getString(4)).thenReturn(row.getGrade());
+				handler.processRow(resultSet);
+			}
+			return null;
+		}).when(jdbcTemplate).query(eq(StudentResultDeltaWriter.SELECT_STORED_SQL), any(PreparedStatementSetter.class),
+			any(RowCallbackHandler.class));
+	}
+
+	private static StudentResult keyed(StudentResult result, int studentKey, int courseKey) {
+		result.setStudentKey(studentKey);
+		result.setCourseKey(courseKey);
+		return result;
+	}
+}
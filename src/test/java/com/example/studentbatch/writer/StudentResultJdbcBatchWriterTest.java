@@ -0,0 +1,87 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+import com.example.studentbatch.support.TestPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentResultJdbcBatchWriterTest {
+
+	// As configured for the application, so that the batch goes out as multi-row INSERTs
+	private final DataSource dataSource =
+		TestPostgres.dataSource(Map.of("reWriteBatchedInserts", "true"));
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+	private final StudentResultJdbcBatchWriter writer = new StudentResultJdbcBatchWriter(jdbcTemplate);
+
+	@BeforeEach
+	void createSchema() {
+		jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		jdbcTemplate.update("INSERT INTO students (student_id) VALUES ('S1'), ('S2')");
+		jdbcTemplate.update("INSERT INTO courses (course_name) VALUES ('Biology'), ('Physics')");
+	}
+
+	@Test
+	void insertsTheRowsOfAChunk() {
+		writer.write(Chunk.of(
+			keyed(new StudentResult("S1", "Biology", 68, "D"), 1, 1),
+			keyed(new StudentResult("S1", "Physics", 91, "A"), 1, 2),
+			keyed(new StudentResult("S2", "Biology", 75, null), 2, 1)));
+
+		assertThat(storedResults()).containsExactly("1/1/68/D", "1/2/91/A", "2/1/75/");
+	}
+
+	@Test
+	void keepsTheLaterRowOfAKeyRepeatedInAChunk() {
+		writer.write(Chunk.of(
+			keyed(new StudentResult("S1", "Biology", 68, "D"), 1, 1),
+			keyed(new StudentResult("S2", "Biology", 75, "C"), 2, 1),
+			keyed(new StudentResult("S1", "Biology", 88, "B"), 1, 1)));
+
+		assertThat(storedResults()).containsExactlyInAnyOrder("1/1/88/B", "2/1/75/C");
+	}
+
+	@Test
+	void updatesChangedResultsAndLeavesUnchangedOnesAlone() {
+		writer.write(Chunk.of(
+			keyed(new StudentResult("S1", "Biology", 68, "D"), 1, 1),
+			keyed(new StudentResult("S2", "Biology", 75, "C"), 2, 1)));
+		List<String> versions = rowVersions();
+
+		writer.write(Chunk.of(
+			keyed(new StudentResult("S1", "Biology", 68, "D"), 1, 1),
+			keyed(new StudentResult("S2", "Biology", 81, "B"), 2, 1)));
+
+		assertThat(storedResults()).containsExactly("1/1/68/D", "2/1/81/B");
+		List<String> reimported = rowVersions();
+		assertThat(reimported.get(0)).isEqualTo(versions.get(0));
+		assertThat(reimported.get(1)).isNotEqualTo(versions.get(1));
+	}
+
+	private List<String> storedResults() {
+		return jdbcTemplate.queryForList("""
+			SELECT student_key || '/' || course_key || '/' || score || '/' || coalesce(grade, '')
+			FROM student_results ORDER BY student_key, course_key""", String.class);
+	}
+
+	// A row that was rewritten, even to the same values, has a new xmin
+	private List<String> rowVersions() {
+		return jdbcTemplate.queryForList("SELECT xmin::text FROM student_results ORDER BY student_key, course_key", String.class);
+	}
+
+	private static StudentResult keyed(StudentResult result, int studentKey, int courseKey) {
+		result.setStudentKey(studentKey);
+		result.setCourseKey(courseKey);
+		return result;
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.studentbatch.writer;
+
+import com.example.studentbatch.model.StudentResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StudentResultKeysTest {
+
+	@Test
+	void keepsLastResultPerStudentAndCourseInKeyOrder() {
+		// Keys are given out in order of arrival, not in ID order
+		List<StudentResult> latest = StudentResultKeys.latestPerKey(List.of(
+			keyed(new StudentResult("S2", "Mathematics", 95, "A"), 1, 5),
+			keyed(new StudentResult("S1", "Physics", 55, "F"), 2, 1),
+			keyed(new StudentResult("S2", "Biology", 91, "A"), 1, 9),
+			keyed(new StudentResult("S2", "Mathematics", 72, "C"), 1, 5)));
+
+		assertThat(latest).extracting(StudentResult::getStudentId, StudentResult::getCourseName, StudentResult::getScore)
+			.containsExactly(
+				tuple("S2", "Mathematics", 72),
+				tuple("S2", "Biology", 91),
+				tuple("S1", "Physics", 55));
+	}
+
+	@Test
+	void sortsDistinctStudentIds() {
+		String[] studentIds = StudentResultKeys.sortedStudentIds(List.of(
+			new StudentResult("S2", "Mathematics", 95, "A"),
+			new StudentResult("S1", "Physics", 55, "F"),
+			new StudentResult("S2", "Biology", 91, "A")));
+
+		assertThat(studentIds).containsExactly("S1", "S2");
+	}
+
+	private static StudentResult keyed(StudentResult result, int studentKey, int courseKey) {
+		result.setStudentKey(studentKey);
+		result.setCourseKey(courseKey);
+		return result;
+	}
+}